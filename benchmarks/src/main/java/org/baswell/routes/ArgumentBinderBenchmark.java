@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binds the arguments of an already matched route from the request (path segments and parameters parsed to their method
+ * parameter types) and invokes it through {@link MethodInvoker}. Routes take 0, 3 and 8 parameters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ArgumentBinderBenchmark
+{
+  @Routes("/bind")
+  public static class BindRoutes
+  {
+    @Route("/zero")
+    public String getZero()
+    {
+      return "zero";
+    }
+
+    @Route("/three/{}/{}?q={}")
+    public String getThree(int id, String name, String query)
+    {
+      return name;
+    }
+
+    @Route("/eight/{}/{}/{}?active={}&ratio={}&q={}")
+    public String getEight(int id, long version, String name, boolean active, double ratio, String query, HttpServletRequest request, RequestParameters parameters)
+    {
+      return name;
+    }
+  }
+
+  @Param({"0", "3", "8"})
+  public int numberParameters;
+
+  MethodInvoker invoker;
+
+  Object routeInstance;
+
+  MatchedRoute matchedRoute;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    RoutingTable routingTable = new RoutingTable(new RoutesConfiguration());
+    routingTable.add(new BindRoutes());
+    routingTable.build();
+
+    TestHttpServletRequest request;
+    switch (numberParameters)
+    {
+      case 0:
+        request = new TestHttpServletRequest("GET", "/", "/bind/zero");
+        break;
+
+      case 3:
+        request = new TestHttpServletRequest("GET", "/", "/bind/three/42/routes", "q", "search");
+        break;
+
+      default:
+        request = new TestHttpServletRequest("GET", "/", "/bind/eight/42/7/routes", "active", "true", "ratio", "0.5", "q", "search");
+        break;
+    }
+
+    RequestPath path = new RequestPath(request);
+    RequestParameters parameters = new RequestParameters(request);
+    RequestedMediaType requestedMediaType = new RequestedMediaType(request.getHeader("Accept"), path, parameters);
+    matchedRoute = routingTable.find(path, parameters, HttpMethod.GET, requestedMediaType);
+    if ((matchedRoute == null) || (matchedRoute.routeNode.parameters.size() != numberParameters))
+    {
+      throw new IllegalStateException("No route found for: " + request.requestUri);
+    }
+
+    routeInstance = matchedRoute.routeNode.instance.create();
+    invoker = new MethodInvoker(request, new TestHttpServletResponse(), HttpMethod.GET, path, parameters, requestedMediaType, null, matchedRoute.routeNode.routeConfiguration);
+  }
+
+  @Benchmark
+  public Object bindAndInvoke() throws Throwable
+  {
+    RouteNode routeNode = matchedRoute.routeNode;
+    return invoker.invoke(routeInstance, routeNode.invoker, routeNode.binders, matchedRoute.pathMatches, matchedRoute.parameterMatches);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares calling a route method through {@link Method#invoke} (how routes were called before invokers were compiled)
+ * with the {@link CompiledInvoker} the routing table now builds for every route, before and after method.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MethodInvokerBenchmark
+{
+  public static class BenchmarkRoutes
+  {
+    public String getUser(String name, Integer id, Boolean active)
+    {
+      return name;
+    }
+
+    public void postUser(String name, Integer id, Boolean active)
+    {}
+
+    public boolean authenticate()
+    {
+      return true;
+    }
+  }
+
+  BenchmarkRoutes routes;
+
+  Method getUser;
+
+  Method postUser;
+
+  Method authenticate;
+
+  CompiledInvoker getUserInvoker;
+
+  CompiledInvoker postUserInvoker;
+
+  CompiledInvoker authenticateInvoker;
+
+  String name = "routes";
+
+  Integer id = 42;
+
+  Boolean active = Boolean.TRUE;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    routes = new BenchmarkRoutes();
+    getUser = BenchmarkRoutes.class.getMethod("getUser", String.class, Integer.class, Boolean.class);
+    postUser = BenchmarkRoutes.class.getMethod("postUser", String.class, Integer.class, Boolean.class);
+    authenticate = BenchmarkRoutes.class.getMethod("authenticate");
+
+    getUserInvoker = new CompiledInvoker(getUser);
+    postUserInvoker = new CompiledInvoker(postUser);
+    authenticateInvoker = new CompiledInvoker(authenticate);
+  }
+
+  @Benchmark
+  public Object reflectionThreeParameters() throws Exception
+  {
+    return getUser.invoke(routes, new Object[] {name, id, active});
+  }
+
+  @Benchmark
+  public Object compiledThreeParameters() throws Throwable
+  {
+    return getUserInvoker.invoke(routes, new Object[] {name, id, active});
+  }
+
+  @Benchmark
+  public Object reflectionVoid() throws Exception
+  {
+    return postUser.invoke(routes, new Object[] {name, id, active});
+  }
+
+  @Benchmark
+  public Object compiledVoid() throws Throwable
+  {
+    return postUserInvoker.invoke(routes, new Object[] {name, id, active});
+  }
+
+  @Benchmark
+  public Object reflectionBooleanBefore() throws Exception
+  {
+    return authenticate.invoke(routes, new Object[0]);
+  }
+
+  @Benchmark
+  public Object compiledBooleanBefore() throws Throwable
+  {
+    return authenticateInvoker.invoke(routes, new Object[0]);
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * {@link RoutingTable#find} against a REST style table where the same paths respond to GET, POST, PUT and DELETE (with a
+ * JSON variant of the GET routes). The routes are multiplied by class level paths the same way {@link SyntheticRoutes} are.
+ * Each lookup targets the routes of the last class level prefix.
+ * </p>
+ *
+ * <pre>
+ * Mixed100   /r{0-9}/...          100 routes
+ * Mixed1000  /r{0-9}/s{0-9}/...  1000 routes
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MixedMethodRoutingBenchmark
+{
+  @Param({"100", "1000"})
+  public int numberRoutes;
+
+  RoutingTable routingTable;
+
+  LookUp getItem;
+
+  LookUp getItemJson;
+
+  LookUp postItems;
+
+  LookUp putItem;
+
+  LookUp deleteComment;
+
+  LookUp methodMiss;
+
+  @Setup
+  public void setup()
+  {
+    routingTable = new RoutingTable(new RoutesConfiguration());
+    routingTable.add(numberRoutes == 100 ? Mixed100.class : Mixed1000.class);
+    routingTable.build();
+
+    String prefix = numberRoutes == 100 ? "/r9" : "/r9/s9";
+    getItem = new LookUp(HttpMethod.GET, prefix + "/items/42", "text/html", true);
+    getItemJson = new LookUp(HttpMethod.GET, prefix + "/items/42", "application/json", true);
+    postItems = new LookUp(HttpMethod.POST, prefix + "/items", "text/html", true);
+    putItem = new LookUp(HttpMethod.PUT, prefix + "/items/42", "text/html", true);
+    deleteComment = new LookUp(HttpMethod.DELETE, prefix + "/items/42/comments/7", "text/html", true);
+    methodMiss = new LookUp(HttpMethod.DELETE, prefix + "/items", "text/html", false);
+  }
+
+  @Benchmark
+  public MatchedRoute findGetItem()
+  {
+    return getItem.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findGetItemJson()
+  {
+    return getItemJson.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findPostItems()
+  {
+    return postItems.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findPutItem()
+  {
+    return putItem.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findDeleteComment()
+  {
+    return deleteComment.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findMethodMiss()
+  {
+    return methodMiss.find();
+  }
+
+  class LookUp
+  {
+    final HttpMethod httpMethod;
+
+    final RequestPath path;
+
+    final RequestParameters parameters;
+
+    final RequestedMediaType mediaType;
+
+    LookUp(HttpMethod httpMethod, String path, String accept, boolean expectMatch)
+    {
+      this.httpMethod = httpMethod;
+      this.path = new RequestPath(path);
+      parameters = new RequestParameters("");
+      mediaType = new RequestedMediaType(accept, this.path, parameters);
+
+      if ((find() != null) != expectMatch)
+      {
+        throw new IllegalStateException((expectMatch ? "No route found for: " : "Unexpected route found for: ") + httpMethod + " " + path + " with " + numberRoutes + " routes");
+      }
+    }
+
+    MatchedRoute find()
+    {
+      return routingTable.find(path, parameters, httpMethod, mediaType);
+    }
+  }
+
+  public static class MixedRoutes
+  {
+    @Route("items")
+    public String getItems()
+    {
+      return "items";
+    }
+
+    @Route("items")
+    public void postItems(RequestParameters parameters)
+    {}
+
+    @Route("items/{}")
+    public String getItem(int id)
+    {
+      return "item";
+    }
+
+    @Route(value = "items/{}", respondsToMediaRequests = MediaType.JSON)
+    public String getItemJson(int id)
+    {
+      return "{}";
+    }
+
+    @Route("items/{}")
+    public void putItem(int id, RequestParameters parameters)
+    {}
+
+    @Route("items/{}")
+    public void deleteItem(int id)
+    {}
+
+    @Route("items/{}/comments")
+    public String getComments(int id)
+    {
+      return "comments";
+    }
+
+    @Route("items/{}/comments")
+    public void postComments(int id, RequestParameters parameters)
+    {}
+
+    @Route("items/{}/comments/{}")
+    public void putComment(int id, int commentId, RequestParameters parameters)
+    {}
+
+    @Route("items/{}/comments/{}")
+    public void deleteComment(int id, int commentId)
+    {}
+  }
+
+  @Routes({"/r0", "/r1", "/r2", "/r3", "/r4", "/r5", "/r6", "/r7", "/r8", "/r9"})
+  public static class Mixed100 extends MixedRoutes
+  {}
+
+  @Routes({"/s0", "/s1", "/s2", "/s3", "/s4", "/s5", "/s6", "/s7", "/s8", "/s9"})
+  public static class Mixed1000 extends Mixed100
+  {}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.baswell.routes.CriterionForPathSegment.RequestPathSegmentCrierionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Matching the route <code>**&#47;a/**&#47;a/**&#47;a/**&#47;b/**</code> against paths of only <code>a</code> segments (a miss)
+ * and the same paths with a <code>b</code> added at the end (a hit). Every way of spreading the <code>a</code> segments over the
+ * first three <code>**</code> has to be ruled out before the miss is known so the backtracking matcher routes used to be
+ * matched with (kept here as the baseline) is O(segments<sup>4</sup>) on the miss. {@link Criteria#matchMultiSegments} is
+ * O(segments x criteria) for both.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiSegmentMatchingBenchmark
+{
+  @Param({"8", "16", "32", "64"})
+  public int numberSegments;
+
+  RoutesConfiguration routesConfiguration;
+
+  List<CriterionForPathSegment> pathCriteria;
+
+  RequestPath missPath;
+
+  RequestPath hitPath;
+
+  List<Object> matches = new ArrayList<Object>();
+
+  @Setup
+  public void setup()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(AdversarialRoutes.class);
+    routingTable.build();
+    pathCriteria = routingTable.getRouteNodes().get(0).criteria.pathCriteria;
+
+    List<String> segments = new ArrayList<String>();
+    for (int i = 0; i < numberSegments; i++)
+    {
+      segments.add("a");
+    }
+    missPath = new RequestPath(segments);
+
+    segments.add("b");
+    hitPath = new RequestPath(segments);
+
+    if (matchMiss() || !matchHit() || backtrackingMatchMiss() || !backtrackingMatchHit())
+    {
+      throw new IllegalStateException("Unexpected match result for " + numberSegments + " segments.");
+    }
+  }
+
+  @Benchmark
+  public boolean matchMiss()
+  {
+    matches.clear();
+    return Criteria.matchMultiSegments(missPath, pathCriteria, routesConfiguration, matches);
+  }
+
+  @Benchmark
+  public boolean matchHit()
+  {
+    matches.clear();
+    return Criteria.matchMultiSegments(hitPath, pathCriteria, routesConfiguration, matches);
+  }
+
+  @Benchmark
+  public boolean backtrackingMatchMiss()
+  {
+    matches.clear();
+    return backtrackMatchSegments(0, missPath, 0, pathCriteria, matches);
+  }
+
+  @Benchmark
+  public boolean backtrackingMatchHit()
+  {
+    matches.clear();
+    return backtrackMatchSegments(0, hitPath, 0, pathCriteria, matches);
+  }
+
+  /*
+   * The recursive matcher ** routes used before Criteria.matchMultiSegments.
+   */
+  static boolean backtrackMatchSegments(int pathIndex, RequestPath path, int criteriaIndex, List<CriterionForPathSegment> criteria, List<Object> matches)
+  {
+    if ((pathIndex >= path.size()) && (criteriaIndex >= criteria.size()))
+    {
+      return true;
+    }
+    else if (pathIndex >= path.size())
+    {
+      for (int i = criteriaIndex; i < criteria.size(); i++)
+      {
+        if (criteria.get(i).type != RequestPathSegmentCrierionType.MULTI)
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+    else if (criteriaIndex >= criteria.size())
+    {
+      return false;
+    }
+
+    String segment = path.get(pathIndex);
+    CriterionForPathSegment criterion = criteria.get(criteriaIndex);
+    switch (criterion.type)
+    {
+      case FIXED:
+        if (!segment.equals(criterion.value))
+        {
+          return false;
+        }
+        matches.add(null);
+        return backtrackMatchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, matches);
+
+      case PATTERN:
+        Object match = criterion.matcher.match(segment);
+        if (match == null)
+        {
+          return false;
+        }
+        matches.add(match);
+        return backtrackMatchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, matches);
+
+      default:
+        if (criteriaIndex == (criteria.size() - 1))
+        {
+          return true;
+        }
+        for (int nextPathIndex = pathIndex; nextPathIndex < path.size(); nextPathIndex++)
+        {
+          List<Object> subMatches = new ArrayList<Object>();
+          subMatches.add(null);
+          if (backtrackMatchSegments(nextPathIndex, path, criteriaIndex + 1, criteria, subMatches))
+          {
+            matches.addAll(subMatches);
+            return true;
+          }
+        }
+        return false;
+    }
+  }
+
+  public static class AdversarialRoutes
+  {
+    @Route("/**/a/**/a/**/a/**/b/**")
+    public String get()
+    {
+      return "adversarial";
+    }
+  }
+}
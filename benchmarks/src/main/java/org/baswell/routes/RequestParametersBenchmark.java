@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link RequestParameters} construction from a servlet parameter map and from a query string, then a typical read of one
+ * parameter as a route method parameter would.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RequestParametersBenchmark
+{
+  @Param({"0", "5", "20"})
+  public int numberParameters;
+
+  Map<String, String[]> parameterMap;
+
+  String queryString;
+
+  @Setup
+  public void setup()
+  {
+    parameterMap = new HashMap<String, String[]>();
+    StringBuilder queryStringBuilder = new StringBuilder();
+    for (int i = 0; i < numberParameters; i++)
+    {
+      parameterMap.put("parameter" + i, new String[] {"value" + i});
+      if (i > 0) queryStringBuilder.append('&');
+      queryStringBuilder.append("parameter").append(i).append("=value").append(i);
+    }
+    queryString = queryStringBuilder.toString();
+  }
+
+  @Benchmark
+  public RequestParameters fromParameterMap()
+  {
+    return new RequestParameters(parameterMap);
+  }
+
+  @Benchmark
+  public RequestParameters fromQueryString()
+  {
+    return new RequestParameters(queryString);
+  }
+
+  @Benchmark
+  public void fromParameterMapAndRead(Blackhole blackhole)
+  {
+    RequestParameters parameters = new RequestParameters(parameterMap);
+    blackhole.consume(parameters.get("parameter0"));
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link ResponseProcessor} serialization paths for a small order with ten line items. JAXB is not measured since no
+ * JAXB runtime is on the benchmark classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseProcessorBenchmark
+{
+  public static class Order
+  {
+    public String id = "abc-123";
+
+    public int total = 42;
+
+    public List<String> items = new ArrayList<String>();
+  }
+
+  ResponseProcessor responseProcessor;
+
+  Order order;
+
+  String string;
+
+  byte[] bytes;
+
+  Document jdomDocument;
+
+  org.w3c.dom.Document w3cDocument;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    responseProcessor = new ResponseProcessor(new RoutingTable(new RoutesConfiguration()));
+
+    order = new Order();
+    for (int i = 0; i < 10; i++)
+    {
+      order.items.add("item" + i);
+    }
+
+    string = "{\"id\":\"abc-123\",\"total\":42,\"items\":[\"item0\",\"item1\",\"item2\",\"item3\",\"item4\",\"item5\",\"item6\",\"item7\",\"item8\",\"item9\"]}";
+    bytes = string.getBytes("UTF-8");
+
+    Element root = new Element("order");
+    root.setAttribute("id", order.id);
+    root.setAttribute("total", String.valueOf(order.total));
+    for (String item : order.items)
+    {
+      root.addContent(new Element("item").setText(item));
+    }
+    jdomDocument = new Document(root);
+
+    w3cDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+    org.w3c.dom.Element w3cRoot = w3cDocument.createElement("order");
+    w3cRoot.setAttribute("id", order.id);
+    w3cRoot.setAttribute("total", String.valueOf(order.total));
+    for (String item : order.items)
+    {
+      org.w3c.dom.Element w3cItem = w3cDocument.createElement("item");
+      w3cItem.setTextContent(item);
+      w3cRoot.appendChild(w3cItem);
+    }
+    w3cDocument.appendChild(w3cRoot);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse toStringContent() throws Exception
+  {
+    return process(ResponseType.STRING_CONTENT, ContentConversionType.TO_STRING, string);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse bytesContent() throws Exception
+  {
+    return process(ResponseType.BYTES_CONTENT, null, bytes);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse jackson() throws Exception
+  {
+    return process(ResponseType.STRING_CONTENT, ContentConversionType.JACKSON, order);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse gson() throws Exception
+  {
+    return process(ResponseType.STRING_CONTENT, ContentConversionType.GSON, order);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse jdom2Document() throws Exception
+  {
+    return process(ResponseType.STRING_CONTENT, ContentConversionType.JDOM2_DOCUMENT, jdomDocument);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse w3cNode() throws Exception
+  {
+    return process(ResponseType.STRING_CONTENT, ContentConversionType.W3C_NODE, w3cDocument);
+  }
+
+  TestHttpServletResponse process(ResponseType responseType, ContentConversionType contentConversionType, Object response) throws Exception
+  {
+    TestHttpServletResponse servletResponse = new TestHttpServletResponse();
+    responseProcessor.processResponse(responseType, contentConversionType, null, response, null, null, null, servletResponse);
+    servletResponse.writer.flush();
+    return servletResponse;
+  }
+}
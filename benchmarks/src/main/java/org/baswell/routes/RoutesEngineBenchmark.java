@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RoutesEngine#process} end to end (path and parameter parsing, lookup, parameter binding, invocation and response
+ * writing) with the test servlet request and response stand-ins. A new response is created for every operation so its
+ * allocation is part of the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoutesEngineBenchmark
+{
+  @Param({"10", "1000"})
+  public int numberRoutes;
+
+  RoutesEngine routesEngine;
+
+  TestHttpServletRequest fixedRequest;
+
+  TestHttpServletRequest patternRequest;
+
+  TestHttpServletRequest parameterRequest;
+
+  TestHttpServletRequest jsonRequest;
+
+  TestHttpServletRequest notFoundRequest;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    RoutingTable routingTable = new RoutingTable(new RoutesConfiguration());
+    routingTable.add(SyntheticRoutes.routesClass(numberRoutes));
+    routingTable.build();
+    routesEngine = new RoutesEngine(routingTable);
+
+    String prefix = SyntheticRoutes.lastPrefix(numberRoutes);
+    fixedRequest = request(prefix + "/users", "text/html");
+    patternRequest = request(prefix + "/users/42/posts/7", "text/html");
+    parameterRequest = request(prefix + "/search", "text/html", "q", "routes");
+    jsonRequest = request(prefix + "/orders/abc", "application/json");
+    notFoundRequest = request(prefix + "/users/42/comments", "text/html");
+
+    for (TestHttpServletRequest request : new TestHttpServletRequest[] {fixedRequest, patternRequest, parameterRequest, jsonRequest})
+    {
+      if (!routesEngine.process(request, new TestHttpServletResponse()))
+      {
+        throw new IllegalStateException("No route found for: " + request.requestUri);
+      }
+    }
+  }
+
+  @Benchmark
+  public TestHttpServletResponse processFixed() throws Exception
+  {
+    return process(fixedRequest);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse processPattern() throws Exception
+  {
+    return process(patternRequest);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse processParameter() throws Exception
+  {
+    return process(parameterRequest);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse processJson() throws Exception
+  {
+    return process(jsonRequest);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse processNotFound() throws Exception
+  {
+    return process(notFoundRequest);
+  }
+
+  TestHttpServletResponse process(TestHttpServletRequest request) throws Exception
+  {
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    routesEngine.process(request, response);
+    response.writer.flush();
+    return response;
+  }
+
+  static TestHttpServletRequest request(String uri, String accept, String... parameters)
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", uri, parameters);
+    request.headers.put("Accept", accept);
+    return request;
+  }
+}
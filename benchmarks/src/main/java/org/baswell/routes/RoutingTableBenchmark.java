@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RoutingTable#find} against routing tables of 10, 100 and 1000 {@link SyntheticRoutes}. The request objects are
+ * built once in setup so only the lookup is measured. Each lookup targets the routes of the last class level prefix.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoutingTableBenchmark
+{
+  @Param({"10", "100", "1000"})
+  public int numberRoutes;
+
+  RoutingTable routingTable;
+
+  LookUp fixed;
+
+  LookUp pattern;
+
+  LookUp parameter;
+
+  LookUp wildcard;
+
+  LookUp json;
+
+  LookUp miss;
+
+  @Setup
+  public void setup()
+  {
+    routingTable = new RoutingTable(new RoutesConfiguration());
+    routingTable.add(SyntheticRoutes.routesClass(numberRoutes));
+    routingTable.build();
+
+    String prefix = SyntheticRoutes.lastPrefix(numberRoutes);
+    fixed = new LookUp(HttpMethod.GET, prefix + "/users", "", "text/html", true);
+    pattern = new LookUp(HttpMethod.GET, prefix + "/users/42/posts/7", "", "text/html", true);
+    parameter = new LookUp(HttpMethod.GET, prefix + "/search", "q=routes", "text/html", true);
+    wildcard = new LookUp(HttpMethod.GET, prefix + "/files/docs/2015/readme.txt", "", "text/html", true);
+    json = new LookUp(HttpMethod.GET, prefix + "/orders/abc", "", "application/json", true);
+    miss = new LookUp(HttpMethod.GET, prefix + "/users/42/comments", "", "text/html", false);
+  }
+
+  @Benchmark
+  public MatchedRoute findFixed()
+  {
+    return fixed.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findPattern()
+  {
+    return pattern.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findParameter()
+  {
+    return parameter.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findWildcard()
+  {
+    return wildcard.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findJson()
+  {
+    return json.find();
+  }
+
+  @Benchmark
+  public MatchedRoute findMiss()
+  {
+    return miss.find();
+  }
+
+  class LookUp
+  {
+    final HttpMethod httpMethod;
+
+    final RequestPath path;
+
+    final RequestParameters parameters;
+
+    final RequestedMediaType mediaType;
+
+    LookUp(HttpMethod httpMethod, String path, String queryString, String accept, boolean expectMatch)
+    {
+      this.httpMethod = httpMethod;
+      this.path = new RequestPath(path);
+      parameters = new RequestParameters(queryString);
+      mediaType = new RequestedMediaType(accept, this.path, parameters);
+
+      if ((find() != null) != expectMatch)
+      {
+        throw new IllegalStateException((expectMatch ? "No route found for: " : "Unexpected route found for: ") + path + " with " + numberRoutes + " routes");
+      }
+    }
+
+    MatchedRoute find()
+    {
+      return routingTable.find(path, parameters, httpMethod, mediaType);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * {@link RoutingTable#build()} of a table with 50, 500 and 5000 added route objects (instances of
+ * {@link SyntheticRoutes.Routes10}, ten routes each, every instance is built on its own like a separate route class)
+ * built sequentially and in parallel on {@code Runtime.getRuntime().availableProcessors()} threads
+ * ({@link RoutesConfiguration#buildParallelism}).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StartupBenchmark
+{
+  @Param({"50", "500", "5000"})
+  public int numberClasses;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  RoutingTable routingTable;
+
+  @Setup
+  public void setup()
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.buildParallelism = parallel ? Runtime.getRuntime().availableProcessors() : 1;
+
+    Object[] routes = new Object[numberClasses];
+    for (int i = 0; i < routes.length; i++)
+    {
+      routes[i] = new SyntheticRoutes.Routes10();
+    }
+
+    routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(routes);
+    routingTable.build();
+
+    if (routingTable.getRouteNodes().size() != (numberClasses * 10))
+    {
+      throw new IllegalStateException("Expected " + (numberClasses * 10) + " routes but found " + routingTable.getRouteNodes().size());
+    }
+  }
+
+  @Benchmark
+  public RoutingTable build()
+  {
+    routingTable.build();
+    return routingTable;
+  }
+}
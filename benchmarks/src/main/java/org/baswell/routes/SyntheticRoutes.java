@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Ten routes with a mix of fixed, pattern, parameter and wildcard criteria. The subclasses multiply them by class level
+ * paths ({@link Routes} values are expanded across the class hierarchy) to build routing tables of 10, 100 and 1000 routes.
+ * </p>
+ *
+ * <pre>
+ * Routes10   /api/...          10 routes
+ * Routes100  /v{0-9}/...      100 routes
+ * Routes1000 /v{0-9}/t{0-9}/... 1000 routes
+ * </pre>
+ */
+public class SyntheticRoutes
+{
+  @Route("users")
+  public String getUsers()
+  {
+    return "users";
+  }
+
+  @Route("users/{}")
+  public String getUser(int id)
+  {
+    return "user";
+  }
+
+  @Route("users/{}/posts")
+  public String getUserPosts(int id)
+  {
+    return "posts";
+  }
+
+  @Route("users/{}/posts/{}")
+  public String getUserPost(int id, int postId)
+  {
+    return "post";
+  }
+
+  @Route("users/{}")
+  public void postUser(int id, RequestParameters parameters)
+  {}
+
+  @Route("orders/{}")
+  public String getOrder(String id)
+  {
+    return "order";
+  }
+
+  @Route(value = "orders/{}", respondsToMediaRequests = MediaType.JSON)
+  public Map<String, Object> getOrderJson(String id)
+  {
+    Map<String, Object> order = new HashMap<String, Object>();
+    order.put("id", id);
+    order.put("total", 42);
+    return order;
+  }
+
+  @Route("search?q={}")
+  public String getSearch(String query)
+  {
+    return query;
+  }
+
+  @Route("files/**")
+  public String getFiles(RequestPath path)
+  {
+    return "file";
+  }
+
+  @Route("health")
+  public String getHealth()
+  {
+    return "ok";
+  }
+
+  /**
+   * @return The route class whose routing table has the given number of routes.
+   */
+  public static Class routesClass(int numberRoutes)
+  {
+    switch (numberRoutes)
+    {
+      case 10:
+        return Routes10.class;
+      case 100:
+        return Routes100.class;
+      case 1000:
+        return Routes1000.class;
+      default:
+        throw new IllegalArgumentException("No synthetic routes for: " + numberRoutes);
+    }
+  }
+
+  /**
+   * @return The class level prefix of the last routes added for the given number of routes.
+   */
+  public static String lastPrefix(int numberRoutes)
+  {
+    switch (numberRoutes)
+    {
+      case 10:
+        return "/api";
+      case 100:
+        return "/v9";
+      case 1000:
+        return "/v9/t9";
+      default:
+        throw new IllegalArgumentException("No synthetic routes for: " + numberRoutes);
+    }
+  }
+
+  @Routes("/api")
+  public static class Routes10 extends SyntheticRoutes
+  {}
+
+  @Routes({"/v0", "/v1", "/v2", "/v3", "/v4", "/v5", "/v6", "/v7", "/v8", "/v9"})
+  public static class Routes100 extends SyntheticRoutes
+  {}
+
+  @Routes({"/t0", "/t1", "/t2", "/t3", "/t4", "/t5", "/t6", "/t7", "/t8", "/t9"})
+  public static class Routes1000 extends Routes100
+  {}
+}
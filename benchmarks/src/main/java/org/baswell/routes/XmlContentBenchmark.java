@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.baswell.routes.utils.http.TestServletInputStream;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * XML request and response round trips: a small order with ten line items is read as {@link RequestContent} and sent back
+ * through the {@link ResponseProcessor}. The request content readers come from a built routing table the same way they do
+ * when {@link RoutesEngine} processes a request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class XmlContentBenchmark
+{
+  public static class XmlRoutes
+  {
+    @Route(value = "/w3c", respondsToMethods = HttpMethod.POST)
+    public org.w3c.dom.Document postW3cDocument(RequestContent<org.w3c.dom.Document> content) throws Exception
+    {
+      return content.get();
+    }
+
+    @Route(value = "/w3c", respondsToMethods = HttpMethod.PUT)
+    public org.w3c.dom.Element putW3cElement(RequestContent<org.w3c.dom.Element> content) throws Exception
+    {
+      return content.get();
+    }
+
+    @Route(value = "/jdom", respondsToMethods = HttpMethod.POST)
+    public Document postJdomDocument(RequestContent<Document> content) throws Exception
+    {
+      return content.get();
+    }
+
+    @Route(value = "/jdom", respondsToMethods = HttpMethod.PUT)
+    public Element putJdomElement(RequestContent<Element> content) throws Exception
+    {
+      return content.get();
+    }
+  }
+
+  RoutesConfiguration routesConfiguration;
+
+  AvailableLibraries availableLibraries;
+
+  ContentBridges contentBridges;
+
+  ResponseProcessor responseProcessor;
+
+  RouteNode w3cDocumentRoute;
+
+  RouteNode w3cElementRoute;
+
+  RouteNode jdomDocumentRoute;
+
+  RouteNode jdomElementRoute;
+
+  byte[] order;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    routesConfiguration = new RoutesConfiguration();
+    availableLibraries = new AvailableLibraries(routesConfiguration);
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(XmlRoutes.class);
+    routingTable.build();
+    responseProcessor = new ResponseProcessor(routingTable);
+    contentBridges = routingTable.contentBridges;
+    for (RouteNode routeNode : routingTable.getSnapshot().routeNodes)
+    {
+      String methodName = routeNode.method.getName();
+      if (methodName.equals("postW3cDocument"))
+      {
+        w3cDocumentRoute = routeNode;
+      }
+      else if (methodName.equals("putW3cElement"))
+      {
+        w3cElementRoute = routeNode;
+      }
+      else if (methodName.equals("postJdomDocument"))
+      {
+        jdomDocumentRoute = routeNode;
+      }
+      else if (methodName.equals("putJdomElement"))
+      {
+        jdomElementRoute = routeNode;
+      }
+    }
+
+    StringBuilder builder = new StringBuilder("<order id=\"abc-123\" total=\"42\">");
+    for (int i = 0; i < 10; i++)
+    {
+      builder.append("<item>item").append(i).append("</item>");
+    }
+    order = builder.append("</order>").toString().getBytes("UTF-8");
+  }
+
+  @Benchmark
+  public TestHttpServletResponse w3cDocument() throws Exception
+  {
+    return roundTrip(w3cDocumentRoute, ContentConversionType.W3C_NODE);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse w3cElement() throws Exception
+  {
+    return roundTrip(w3cElementRoute, ContentConversionType.W3C_NODE);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse jdomDocument() throws Exception
+  {
+    return roundTrip(jdomDocumentRoute, ContentConversionType.JDOM2_DOCUMENT);
+  }
+
+  @Benchmark
+  public TestHttpServletResponse jdomElement() throws Exception
+  {
+    return roundTrip(jdomElementRoute, ContentConversionType.JDOM2_ELEMENT);
+  }
+
+  TestHttpServletResponse roundTrip(RouteNode routeNode, ContentConversionType contentConversionType) throws Exception
+  {
+    TestHttpServletRequest servletRequest = new TestHttpServletRequest("POST", "/", "/xml");
+    servletRequest.contentType = "text/xml";
+    servletRequest.servletInputStream = new TestServletInputStream(new ByteArrayInputStream(order));
+    RequestContent requestContent = new RequestContent(routesConfiguration, servletRequest, routeNode.getRequestContentType(), null, servletRequest.contentType, availableLibraries, contentBridges, routeNode.requestContentReader);
+
+    TestHttpServletResponse servletResponse = new TestHttpServletResponse();
+    responseProcessor.processResponse(ResponseType.STRING_CONTENT, contentConversionType, null, requestContent.get(), null, null, null, servletResponse);
+    return servletResponse;
+  }
+}
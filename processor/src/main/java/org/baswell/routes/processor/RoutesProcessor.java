@@ -0,0 +1,357 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * <p>
+ * Generates an implementation of {@code org.baswell.routes.GeneratedRoutes} for every class that has a {@code @Routes}
+ * annotation or a method with a {@code @Route}, {@code @BeforeRoute} or {@code @AfterRoute} annotation. The generated class
+ * calls each public method of the routes class directly so the routing table doesn't have to look up and spin a call site
+ * for every route method when it's built. Abstract classes are skipped, the classes that extend them get the inherited
+ * methods in their generated class.
+ * </p>
+ *
+ * <p>
+ * Add the routes-processor artifact to the annotation processor path (or the compile classpath) of the project with the
+ * routes classes. Nothing else needs to be configured, the routing table uses the generated classes when they are present.
+ * </p>
+ */
+@SupportedAnnotationTypes({RoutesProcessor.ROUTES, RoutesProcessor.ROUTE, RoutesProcessor.BEFORE_ROUTE, RoutesProcessor.AFTER_ROUTE})
+public class RoutesProcessor extends AbstractProcessor
+{
+  static final String ROUTES = "org.baswell.routes.Routes";
+
+  static final String ROUTE = "org.baswell.routes.Route";
+
+  static final String BEFORE_ROUTE = "org.baswell.routes.BeforeRoute";
+
+  static final String AFTER_ROUTE = "org.baswell.routes.AfterRoute";
+
+  static final String GENERATED_ROUTES = "org.baswell.routes.GeneratedRoutes";
+
+  /*
+   * Must be the same as GeneratedRoutes.CLASS_NAME_SUFFIX.
+   */
+  static final String CLASS_NAME_SUFFIX = "_GeneratedRoutes";
+
+  private final Set<String> generatedClassNames = new HashSet<String>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion()
+  {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+  {
+    Set<TypeElement> routesClasses = new LinkedHashSet<TypeElement>();
+    for (TypeElement annotation : annotations)
+    {
+      for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation))
+      {
+        if (element.getKind() == ElementKind.CLASS)
+        {
+          routesClasses.add((TypeElement) element);
+        }
+        else if ((element.getKind() == ElementKind.METHOD) && (element.getEnclosingElement().getKind() == ElementKind.CLASS))
+        {
+          routesClasses.add((TypeElement) element.getEnclosingElement());
+        }
+      }
+    }
+
+    for (TypeElement routesClass : routesClasses)
+    {
+      if (isAccessible(routesClass) && !routesClass.getModifiers().contains(Modifier.ABSTRACT))
+      {
+        generate(routesClass);
+      }
+    }
+
+    return false;
+  }
+
+  void generate(TypeElement routesClass)
+  {
+    PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(routesClass);
+    String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(routesClass).toString();
+    String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + CLASS_NAME_SUFFIX;
+    String generatedClassName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    if (!generatedClassNames.add(generatedClassName))
+    {
+      return;
+    }
+
+    DeclaredType routesType = (DeclaredType) routesClass.asType();
+    Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(routesClass)))
+    {
+      if (isInvokable(method, memberType(routesType, method), packageElement))
+      {
+        String signature = signature(method);
+        if (!methods.containsKey(signature))
+        {
+          methods.put(signature, method);
+        }
+      }
+    }
+
+    String routesClassName = routesClass.getQualifiedName().toString();
+    StringBuilder source = new StringBuilder();
+    source.append("/*\n * Generated by ").append(getClass().getName()).append(" from ").append(routesClassName).append(". Do not edit.\n */\n");
+    if (!packageName.isEmpty())
+    {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    source.append("public final class ").append(simpleName).append(" implements ").append(GENERATED_ROUTES).append("\n{\n");
+
+    source.append("  @Override\n");
+    source.append("  public int getMethodIndex(String methodSignature)\n  {\n");
+    source.append("    switch (methodSignature)\n    {\n");
+    int index = 0;
+    for (String signature : methods.keySet())
+    {
+      source.append("      case \"").append(signature).append("\": return ").append(index++).append(";\n");
+    }
+    source.append("      default: return -1;\n");
+    source.append("    }\n  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  @SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})\n");
+    source.append("  public Object invoke(int methodIndex, Object routeInstance, Object[] parameters) throws Throwable\n  {\n");
+    source.append("    switch (methodIndex)\n    {\n");
+    index = 0;
+    for (ExecutableElement method : methods.values())
+    {
+      StringBuilder call = new StringBuilder();
+      if (method.getModifiers().contains(Modifier.STATIC))
+      {
+        call.append(routesClassName);
+      }
+      else
+      {
+        call.append("((").append(routesClassName).append(") routeInstance)");
+      }
+      call.append('.').append(method.getSimpleName()).append('(');
+
+      List<? extends TypeMirror> parameterTypes = memberType(routesType, method).getParameterTypes();
+      for (int i = 0; i < parameterTypes.size(); i++)
+      {
+        if (i > 0)
+        {
+          call.append(", ");
+        }
+        call.append('(').append(castTypeName(parameterTypes.get(i))).append(") parameters[").append(i).append(']');
+      }
+      call.append(')');
+
+      source.append("      case ").append(index++).append(":\n");
+      if (method.getReturnType().getKind() == TypeKind.VOID)
+      {
+        source.append("        ").append(call).append(";\n");
+        source.append("        return null;\n");
+      }
+      else
+      {
+        source.append("        return ").append(call).append(";\n");
+      }
+    }
+    source.append("      default:\n");
+    source.append("        throw new IllegalArgumentException(\"No method with index: \" + methodIndex);\n");
+    source.append("    }\n  }\n}\n");
+
+    try
+    {
+      Writer writer = processingEnv.getFiler().createSourceFile(generatedClassName, routesClass).openWriter();
+      try
+      {
+        writer.write(source.toString());
+      }
+      finally
+      {
+        writer.close();
+      }
+    }
+    catch (IOException e)
+    {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to generate " + generatedClassName + ": " + e.getMessage(), routesClass);
+    }
+  }
+
+  /*
+   * Only classes that the generated class in the same package can name.
+   */
+  boolean isAccessible(TypeElement routesClass)
+  {
+    for (Element element = routesClass; element instanceof TypeElement; element = element.getEnclosingElement())
+    {
+      TypeElement typeElement = (TypeElement) element;
+      if ((typeElement.getNestingKind() == NestingKind.LOCAL) || (typeElement.getNestingKind() == NestingKind.ANONYMOUS) || typeElement.getModifiers().contains(Modifier.PRIVATE))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * The method as a member of the routes class so the type variables of generic super classes are replaced with the type
+   * arguments the routes class gives them (ex. save(T) of BaseRoutes<T> is save(String) in UserRoutes extends
+   * BaseRoutes<String>). The parameters are cast to these types, the erased declared types are still used for signature().
+   */
+  ExecutableType memberType(DeclaredType routesType, ExecutableElement method)
+  {
+    return (ExecutableType) processingEnv.getTypeUtils().asMemberOf(routesType, method);
+  }
+
+  /*
+   * Public methods (other than those of java.lang.Object) whose parameter and return types can be named from the package
+   * of the generated class.
+   */
+  boolean isInvokable(ExecutableElement method, ExecutableType memberType, PackageElement packageElement)
+  {
+    if (!method.getModifiers().contains(Modifier.PUBLIC) || ((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals(Object.class.getName()))
+    {
+      return false;
+    }
+
+    if (!isAccessible(method.getReturnType(), packageElement))
+    {
+      return false;
+    }
+
+    for (VariableElement parameter : method.getParameters())
+    {
+      if (!isAccessible(parameter.asType(), packageElement))
+      {
+        return false;
+      }
+    }
+
+    for (TypeMirror parameterType : memberType.getParameterTypes())
+    {
+      if (!isAccessible(parameterType, packageElement))
+      {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  boolean isAccessible(TypeMirror type, PackageElement packageElement)
+  {
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+    if (erasure.getKind() == TypeKind.ARRAY)
+    {
+      return isAccessible(((ArrayType) erasure).getComponentType(), packageElement);
+    }
+    else if (erasure.getKind() != TypeKind.DECLARED)
+    {
+      return true;
+    }
+
+    for (Element element = ((DeclaredType) erasure).asElement(); element instanceof TypeElement; element = element.getEnclosingElement())
+    {
+      Set<Modifier> modifiers = element.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE))
+      {
+        return false;
+      }
+      else if (!modifiers.contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(element).equals(packageElement))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * The method name and parameter types as java.lang.reflect.Method reports them (Class.getTypeName() of the erasure).
+   */
+  String signature(ExecutableElement method)
+  {
+    List<String> parameterTypes = new ArrayList<String>();
+    for (VariableElement parameter : method.getParameters())
+    {
+      parameterTypes.add(typeName(processingEnv.getTypeUtils().erasure(parameter.asType())));
+    }
+    return method.getSimpleName() + "(" + String.join(",", parameterTypes) + ")";
+  }
+
+  String typeName(TypeMirror erasure)
+  {
+    if (erasure.getKind() == TypeKind.ARRAY)
+    {
+      return typeName(((ArrayType) erasure).getComponentType()) + "[]";
+    }
+    else if (erasure.getKind() == TypeKind.DECLARED)
+    {
+      return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erasure).asElement()).toString();
+    }
+    else
+    {
+      return erasure.toString();
+    }
+  }
+
+  String castTypeName(TypeMirror type)
+  {
+    if (type.getKind().isPrimitive())
+    {
+      return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+    }
+    else
+    {
+      return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.baswell.routes.testroutes.GeneratedBaseRoutes;
+import org.baswell.routes.testroutes.GeneratedTestRoutes;
+import org.baswell.routes.testroutes.GenericBaseRoutes;
+import org.baswell.routes.testroutes.GenericRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeneratedRoutesTest
+{
+  static final String[][] REQUESTS = {
+      {"GET", "/generated/users/42"},
+      {"GET", "/g/users/42"},
+      {"GET", "/generated/users/abc"},
+      {"GET", "/generated/users/42.json"},
+      {"GET", "/generated/users/42/posts/first"},
+      {"GET", "/generated/scores/-1.25"},
+      {"GET", "/generated/flags/TRUE/x"},
+      {"GET", "/generated/flags/yes/x"},
+      {"GET", "/generated/search", "q", "routes", "page", "2"},
+      {"GET", "/generated/search"},
+      {"POST", "/generated/items"},
+      {"GET", "/generated/items"},
+      {"GET", "/generated/users/42", "proceed", "false"},
+      {"GET", "/generated/unchecked", "proceed", "false"},
+      {"GET", "/generated/overloaded/7"},
+      {"GET", "/generated/overloaded/7/seven"},
+      {"GET", "/generated/fail"},
+      {"GET", "/generated/nested"},
+      {"GET", "/unknown"}};
+
+  @Test
+  public void testGeneratedRoutesLoaded() throws Exception
+  {
+    GeneratedRoutes generatedRoutes = RoutingTable.loadGeneratedRoutes(GeneratedTestRoutes.class);
+    assertNotNull(generatedRoutes);
+    assertEquals(GeneratedTestRoutes.class.getName() + GeneratedRoutes.CLASS_NAME_SUFFIX, generatedRoutes.getClass().getName());
+
+    for (Method method : GeneratedTestRoutes.class.getMethods())
+    {
+      if (method.getDeclaringClass() != Object.class)
+      {
+        assertTrue(CompiledInvoker.signature(method), generatedRoutes.getMethodIndex(CompiledInvoker.signature(method)) >= 0);
+      }
+    }
+    assertEquals(-1, generatedRoutes.getMethodIndex("equals(java.lang.Object)"));
+    assertEquals(-1, generatedRoutes.getMethodIndex("missing()"));
+
+    assertEquals("org.baswell.routes.GeneratedRoutesTest_NestedRoutes_GeneratedRoutes", RoutingTable.loadGeneratedRoutes(NestedRoutes.class).getClass().getName());
+    assertNotNull(RoutingTable.loadGeneratedRoutes(GeneratedBaseRoutes.class));
+    assertNull(RoutingTable.loadGeneratedRoutes(String.class));
+  }
+
+  @Test
+  public void testGeneratedInvokers() throws Throwable
+  {
+    assertFalse(new RoutesConfiguration().useGeneratedRoutes);
+
+    List<RouteNode> routeNodes = buildRoutingTable(true).getRouteNodes();
+    assertFalse(routeNodes.isEmpty());
+    for (RouteNode routeNode : routeNodes)
+    {
+      assertGeneratedUnlessSpun(routeNode.invoker);
+      for (BeforeRouteNode beforeNode : routeNode.beforeRouteNodes)
+      {
+        assertGeneratedUnlessSpun(beforeNode.invoker);
+      }
+      for (AfterRouteNode afterNode : routeNode.afterRouteNodes)
+      {
+        assertGeneratedUnlessSpun(afterNode.invoker);
+      }
+    }
+
+    for (RouteNode routeNode : buildRoutingTable(false).getRouteNodes())
+    {
+      assertFalse(routeNode.method.toString(), routeNode.invoker.isGenerated());
+    }
+
+    GeneratedRoutes generatedRoutes = RoutingTable.loadGeneratedRoutes(GeneratedTestRoutes.class);
+    GeneratedTestRoutes routes = new GeneratedTestRoutes();
+    assertTrue(new CompiledInvoker(GeneratedTestRoutes.class.getMethod("getUser", int.class), generatedRoutes).isSpun());
+    assertTrue(new CompiledInvoker(GeneratedTestRoutes.class.getMethod("describe", String.class), generatedRoutes).isGenerated());
+    assertEquals("3 1 2", new CompiledInvoker(GeneratedTestRoutes.class.getMethod("describe", Number.class, List[].class, int[][].class), generatedRoutes).invoke(routes, new Object[] {3, new List[1], new int[2][]}));
+    assertEquals("static", new CompiledInvoker(GeneratedTestRoutes.class.getMethod("describe", String.class), generatedRoutes).invoke(null, new Object[] {"static"}));
+
+    try
+    {
+      new CompiledInvoker(GeneratedTestRoutes.class.getMethod("fail"), generatedRoutes).invoke(routes, new Object[0]);
+      fail();
+    }
+    catch (IllegalStateException e)
+    {
+      assertEquals("fail", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testGenericBaseRoutes() throws Throwable
+  {
+    assertNull(RoutingTable.loadGeneratedRoutes(GenericBaseRoutes.class));
+
+    GeneratedRoutes generatedRoutes = RoutingTable.loadGeneratedRoutes(GenericRoutes.class);
+    assertNotNull(generatedRoutes);
+    assertTrue(generatedRoutes.getMethodIndex("save(java.lang.Object)") >= 0);
+
+    assertEquals("saved VALUE", generatedRoutes.invoke(generatedRoutes.getMethodIndex("save(java.lang.Object)"), new GenericRoutes(), new Object[] {"value"}));
+
+    CompiledInvoker invoker = new CompiledInvoker(GenericRoutes.class.getMethod("save", Object.class), generatedRoutes);
+    assertTrue(invoker.isSpun());
+    assertEquals("saved VALUE", invoker.invoke(new GenericRoutes(), new Object[] {"value"}));
+  }
+
+  @Test
+  public void testSameRouting() throws Exception
+  {
+    RoutesEngine generatedEngine = new RoutesEngine(buildRoutingTable(true));
+    RoutesEngine reflectedEngine = new RoutesEngine(buildRoutingTable(false));
+
+    for (String[] request : REQUESTS)
+    {
+      assertEquals(request[1], process(reflectedEngine, request), process(generatedEngine, request));
+    }
+  }
+
+  /*
+   * A spun call is preferred over the generated class so only methods that can't be spun are called through it.
+   */
+  static void assertGeneratedUnlessSpun(CompiledInvoker invoker)
+  {
+    assertEquals(invoker.method.toString(), CompiledInvoker.lambdaCompatible(invoker.method), invoker.isSpun());
+    assertEquals(invoker.method.toString(), !invoker.isSpun(), invoker.isGenerated());
+  }
+
+  static RoutingTable buildRoutingTable(boolean useGeneratedRoutes)
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.useGeneratedRoutes = useGeneratedRoutes;
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(GeneratedTestRoutes.class, NestedRoutes.class);
+    routingTable.build();
+    return routingTable;
+  }
+
+  /*
+   * Everything observable about how the request was processed.
+   */
+  static String process(RoutesEngine routesEngine, String[] request)
+  {
+    String[] parameters = new String[request.length - 2];
+    System.arraycopy(request, 2, parameters, 0, parameters.length);
+    TestHttpServletRequest servletRequest = new TestHttpServletRequest(request[0], "/", request[1], parameters);
+    TestHttpServletResponse servletResponse = new TestHttpServletResponse();
+
+    String processed;
+    try
+    {
+      processed = String.valueOf(routesEngine.process(servletRequest, servletResponse));
+    }
+    catch (Exception e)
+    {
+      processed = e.getClass().getName() + ": " + e.getMessage();
+    }
+
+    servletResponse.writer.flush();
+    return processed + " " + servletResponse.getStatus() + " " + servletResponse.contentType + " " + servletResponse.getContentAsString() + " " + servletRequest.attributes.keySet();
+  }
+
+  @Routes("/generated")
+  public static class NestedRoutes
+  {
+    @Route(value = "/nested", returnedStringIsContent = true)
+    public String get()
+    {
+      return "nested";
+    }
+  }
+}
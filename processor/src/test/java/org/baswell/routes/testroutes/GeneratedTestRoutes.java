@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.baswell.routes.AfterRoute;
+import org.baswell.routes.BeforeRoute;
+import org.baswell.routes.HttpMethod;
+import org.baswell.routes.MediaType;
+import org.baswell.routes.RequestParameters;
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+@Routes(value = {"/generated", "/g"}, defaultReturnedStringIsContent = true)
+public class GeneratedTestRoutes extends GeneratedBaseRoutes
+{
+  @BeforeRoute(exceptTags = "unchecked")
+  public boolean checkProceed(HttpServletRequest request)
+  {
+    return !"false".equals(request.getParameter("proceed"));
+  }
+
+  @AfterRoute
+  public void after(HttpServletRequest request)
+  {
+    request.setAttribute("after", Boolean.TRUE);
+  }
+
+  @Route("/users/{}")
+  public String getUser(int id)
+  {
+    return "user " + id;
+  }
+
+  @Route(value = "/users/{}", respondsToMediaRequests = MediaType.JSON)
+  public String getUserJson(int id)
+  {
+    return "{\"id\":" + id + "}";
+  }
+
+  @Route("/users/{}/posts/{}")
+  public String getPost(long userId, String post)
+  {
+    return "post " + userId + " " + post;
+  }
+
+  @Route("/scores/{}")
+  public String getScore(double score)
+  {
+    return "score " + score;
+  }
+
+  @Route("/flags/{}/{}")
+  public String getFlag(boolean flag, char letter)
+  {
+    return "flag " + flag + " " + letter;
+  }
+
+  @Route("/search?q={}")
+  public String search(String query, RequestParameters parameters)
+  {
+    return "search " + query + " " + parameters.get("page");
+  }
+
+  @Route(value = "/items", respondsToMethods = HttpMethod.POST)
+  public void postItems(HttpServletResponse response)
+  {
+    response.setStatus(201);
+  }
+
+  @Route(value = "/unchecked", tags = "unchecked")
+  public String unchecked()
+  {
+    return "unchecked";
+  }
+
+  @Route("/overloaded/{}")
+  public String overloaded(int id)
+  {
+    return "overloaded " + id;
+  }
+
+  @Route("/overloaded/{}/{}")
+  public String overloaded(int id, String name)
+  {
+    return "overloaded " + id + " " + name;
+  }
+
+  @Route("/fail")
+  public String fail()
+  {
+    throw new IllegalStateException("fail");
+  }
+
+  public <T extends Number> String describe(T value, List<String>[] lists, int[][] matrix)
+  {
+    return value + " " + lists.length + " " + matrix.length;
+  }
+
+  public static String describe(String value)
+  {
+    return value;
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import org.baswell.routes.HttpMethod;
+import org.baswell.routes.Route;
+
+public abstract class GenericBaseRoutes<T>
+{
+  @Route(value = "/save", respondsToMethods = HttpMethod.POST)
+  public String save(T value)
+  {
+    return "saved " + describe(value);
+  }
+
+  protected abstract String describe(T value);
+}
@@ -23,8 +23,12 @@ class AfterRouteNode implements Comparable<AfterRouteNode>
 {
   final Method method;
 
+  final CompiledInvoker invoker;
+
   final List<MethodParameter> parameters;
 
+  final ArgumentBinders binders;
+
   final Set<String> onlyTags;
   
   final Set<String> exceptTags;
@@ -37,10 +41,12 @@ class AfterRouteNode implements Comparable<AfterRouteNode>
 
   final int classHierarchyOrder;
 
-  AfterRouteNode(Method method, List<MethodParameter> parameters, Set<String> onlyTags, Set<String> exceptTags, boolean onlyOnSuccess, boolean onlyOnError, Integer explicitOrder, int classHierarchyOrder)
+  AfterRouteNode(Method method, CompiledInvoker invoker, List<MethodParameter> parameters, Set<String> onlyTags, Set<String> exceptTags, boolean onlyOnSuccess, boolean onlyOnError, Integer explicitOrder, int classHierarchyOrder)
   {
     this.method = method;
+    this.invoker = invoker;
     this.parameters = parameters;
+    binders = ArgumentBinders.compile(method, parameters);
     this.onlyTags = onlyTags;
     this.exceptTags = exceptTags;
     this.onlyOnSuccess = onlyOnSuccess;
@@ -0,0 +1,778 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Produces the value of one route method parameter for a request. The binders for a route, before or after method are
+ * compiled once from its {@link MethodParameter} list when the routing table is built so each request only has to call
+ * {@link #bind(MethodInvoker, List, Map)} for each parameter. There is one small binder class for each kind of parameter.
+ */
+abstract class ArgumentBinder
+{
+  abstract Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches);
+
+  /*
+   * The binders of the parameters of the given method. Parameters of primitive types are checked for null (ex. a missing
+   * optional parameter) so they fail with a RoutesException instead of a NullPointerException from the unboxing call.
+   */
+  static ArgumentBinder[] compile(Method method, List<MethodParameter> methodParameters)
+  {
+    Class[] parameterTypes = method.getParameterTypes();
+    ArgumentBinder[] binders = new ArgumentBinder[methodParameters.size()];
+    for (int i = 0; i < binders.length; i++)
+    {
+      binders[i] = compile(methodParameters.get(i));
+      if ((i < parameterTypes.length) && parameterTypes[i].isPrimitive())
+      {
+        binders[i] = new PrimitiveBinder(binders[i], method);
+      }
+    }
+    return binders;
+  }
+
+  static ArgumentBinder compile(MethodParameter methodParameter)
+  {
+    switch (methodParameter.type)
+    {
+      case PARAMETER_LIST_MAP:
+        return ParameterListMapBinder.INSTANCE;
+
+      case PARAMETER_MAP:
+        return ParameterMapBinder.INSTANCE;
+
+      case SERVLET_REQUEST:
+        return ServletRequestBinder.INSTANCE;
+
+      case REQUEST_PARAMETERS:
+        return RequestParametersBinder.INSTANCE;
+
+      case SERVLET_RESPONSE:
+        return ServletResponseBinder.INSTANCE;
+
+      case SESSION:
+        return SessionBinder.INSTANCE;
+
+      case REQUESTED_MEDIA_TYPE:
+        return RequestedMediaTypeBinder.INSTANCE;
+
+      case REQUEST_CONTENT:
+        return RequestContentBinder.INSTANCE;
+
+      case URL:
+        return URLBinder.INSTANCE;
+
+      case REQUEST_PATH:
+        return RequestPathBinder.INSTANCE;
+
+      case ROUTE_PATH:
+        int segmentIndex = methodParameter.segmentIndex;
+        switch (methodParameter.routhPathParameterType)
+        {
+          case STRING:
+            return (methodParameter.groupIndex == null) ? new PathStringBinder(segmentIndex) : new PathGroupBinder(segmentIndex, methodParameter.groupIndex);
+
+          case CHARCTER:
+            return new PathCharacterBinder(segmentIndex);
+
+          case BOOLEAN:
+            return new PathBooleanBinder(segmentIndex);
+
+          case BYTE:
+            return new PathByteBinder(segmentIndex);
+
+          case SHORT:
+            return new PathShortBinder(segmentIndex);
+
+          case INTEGER:
+            return new PathIntegerBinder(segmentIndex);
+
+          case LONG:
+            return new PathLongBinder(segmentIndex);
+
+          case FLOAT:
+            return new PathFloatBinder(segmentIndex);
+
+          case DOUBLE:
+            return new PathDoubleBinder(segmentIndex);
+
+          default:
+            throw new IllegalArgumentException("Unsupported path parameter type: " + methodParameter.routhPathParameterType);
+        }
+
+      case ROUTE_PARAMETER:
+        String name = methodParameter.requestParameterName;
+        switch (methodParameter.routhPathParameterType)
+        {
+          case STRING:
+            return new ParameterStringBinder(name);
+
+          case CHARCTER:
+            return new ParameterCharacterBinder(name);
+
+          case BOOLEAN:
+            return new ParameterBooleanBinder(name);
+
+          case BYTE:
+            return new ParameterByteBinder(name);
+
+          case SHORT:
+            return new ParameterShortBinder(name);
+
+          case INTEGER:
+            return new ParameterIntegerBinder(name);
+
+          case LONG:
+            return new ParameterLongBinder(name);
+
+          case FLOAT:
+            return new ParameterFloatBinder(name);
+
+          case DOUBLE:
+            return new ParameterDoubleBinder(name);
+
+          default:
+            throw new IllegalArgumentException("Unsupported parameter type: " + methodParameter.routhPathParameterType);
+        }
+
+      case ROUTE_PARAMETERS:
+        String listName = methodParameter.requestParameterName;
+        switch (methodParameter.routhPathParameterType)
+        {
+          case STRING:
+            return new ParameterStringListBinder(listName);
+
+          case CHARCTER:
+            return new ParameterCharacterListBinder(listName);
+
+          case BOOLEAN:
+            return new ParameterBooleanListBinder(listName);
+
+          case BYTE:
+            return new ParameterByteListBinder(listName);
+
+          case SHORT:
+            return new ParameterShortListBinder(listName);
+
+          case INTEGER:
+            return new ParameterIntegerListBinder(listName);
+
+          case LONG:
+            return new ParameterLongListBinder(listName);
+
+          case FLOAT:
+            return new ParameterFloatListBinder(listName);
+
+          case DOUBLE:
+            return new ParameterDoubleListBinder(listName);
+
+          default:
+            throw new IllegalArgumentException("Unsupported parameter type: " + methodParameter.routhPathParameterType);
+        }
+
+      default:
+        throw new IllegalArgumentException("Unsupported method parameter: " + methodParameter.type);
+    }
+  }
+
+  static final class PrimitiveBinder extends ArgumentBinder
+  {
+    final ArgumentBinder binder;
+
+    final Method method;
+
+    PrimitiveBinder(ArgumentBinder binder, Method method)
+    {
+      this.binder = binder;
+      this.method = method;
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object value = binder.bind(invoker, pathMatches, parameterMatches);
+      if (value == null)
+      {
+        throw new RoutesException("Invalid parameter mapping for route method: " + method);
+      }
+      return value;
+    }
+  }
+
+  static final class ParameterListMapBinder extends ArgumentBinder
+  {
+    static final ParameterListMapBinder INSTANCE = new ParameterListMapBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.getParameterListMap();
+    }
+  }
+
+  static final class ParameterMapBinder extends ArgumentBinder
+  {
+    static final ParameterMapBinder INSTANCE = new ParameterMapBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.getParameterMap();
+    }
+  }
+
+  static final class ServletRequestBinder extends ArgumentBinder
+  {
+    static final ServletRequestBinder INSTANCE = new ServletRequestBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.request;
+    }
+  }
+
+  static final class ServletResponseBinder extends ArgumentBinder
+  {
+    static final ServletResponseBinder INSTANCE = new ServletResponseBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.response;
+    }
+  }
+
+  static final class SessionBinder extends ArgumentBinder
+  {
+    static final SessionBinder INSTANCE = new SessionBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.request.getSession();
+    }
+  }
+
+  static final class RequestParametersBinder extends ArgumentBinder
+  {
+    static final RequestParametersBinder INSTANCE = new RequestParametersBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters;
+    }
+  }
+
+  static final class RequestedMediaTypeBinder extends ArgumentBinder
+  {
+    static final RequestedMediaTypeBinder INSTANCE = new RequestedMediaTypeBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestedMediaType;
+    }
+  }
+
+  static final class RequestContentBinder extends ArgumentBinder
+  {
+    static final RequestContentBinder INSTANCE = new RequestContentBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestContent;
+    }
+  }
+
+  static final class URLBinder extends ArgumentBinder
+  {
+    static final URLBinder INSTANCE = new URLBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.getURL();
+    }
+  }
+
+  static final class RequestPathBinder extends ArgumentBinder
+  {
+    static final RequestPathBinder INSTANCE = new RequestPathBinder();
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestPath;
+    }
+  }
+
+  static abstract class PathBinder extends ArgumentBinder
+  {
+    final int segmentIndex;
+
+    PathBinder(int segmentIndex)
+    {
+      this.segmentIndex = segmentIndex;
+    }
+
+    /*
+     * The match recorded for this segment by its SegmentMatcher: the converted value for placeholders of the built in
+     * types or the Matcher for regular expressions.
+     */
+    Object match(List<Object> pathMatches)
+    {
+      return segmentIndex < pathMatches.size() ? pathMatches.get(segmentIndex) : null;
+    }
+  }
+
+  static final class PathGroupBinder extends PathBinder
+  {
+    final int groupIndex;
+
+    PathGroupBinder(int segmentIndex, int groupIndex)
+    {
+      super(segmentIndex);
+      this.groupIndex = groupIndex;
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      if ((match instanceof Matcher) && (groupIndex < ((Matcher) match).groupCount()))
+      {
+        return ((Matcher) match).group(groupIndex + 1);
+      }
+      else
+      {
+        return invoker.requestPath.get(segmentIndex);
+      }
+    }
+  }
+
+  static final class PathStringBinder extends PathBinder
+  {
+    PathStringBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestPath.get(segmentIndex);
+    }
+  }
+
+  static final class PathCharacterBinder extends PathBinder
+  {
+    PathCharacterBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Character) ? match : invoker.requestPath.getCharacter(segmentIndex);
+    }
+  }
+
+  static final class PathBooleanBinder extends PathBinder
+  {
+    PathBooleanBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Boolean) ? match : invoker.requestPath.getBoolean(segmentIndex);
+    }
+  }
+
+  static final class PathByteBinder extends PathBinder
+  {
+    PathByteBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Byte) ? match : invoker.requestPath.getByte(segmentIndex);
+    }
+  }
+
+  static final class PathShortBinder extends PathBinder
+  {
+    PathShortBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Short) ? match : invoker.requestPath.getShort(segmentIndex);
+    }
+  }
+
+  static final class PathIntegerBinder extends PathBinder
+  {
+    PathIntegerBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Integer) ? match : invoker.requestPath.getInteger(segmentIndex);
+    }
+  }
+
+  static final class PathLongBinder extends PathBinder
+  {
+    PathLongBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Long) ? match : invoker.requestPath.getLong(segmentIndex);
+    }
+  }
+
+  static final class PathFloatBinder extends PathBinder
+  {
+    PathFloatBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Float) ? match : invoker.requestPath.getFloat(segmentIndex);
+    }
+  }
+
+  static final class PathDoubleBinder extends PathBinder
+  {
+    PathDoubleBinder(int segmentIndex)
+    {
+      super(segmentIndex);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = match(pathMatches);
+      return (match instanceof Double) ? match : invoker.requestPath.getDouble(segmentIndex);
+    }
+  }
+
+  /*
+   * The number binders use the value converted by the SegmentMatcher of the parameter (in parameterMatches) when there is
+   * one.
+   */
+  static abstract class ParameterBinder extends ArgumentBinder
+  {
+    final String name;
+
+    ParameterBinder(String name)
+    {
+      this.name = name;
+    }
+  }
+
+  static final class ParameterStringBinder extends ParameterBinder
+  {
+    ParameterStringBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.get(name);
+    }
+  }
+
+  static final class ParameterCharacterBinder extends ParameterBinder
+  {
+    ParameterCharacterBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getCharacter(name);
+    }
+  }
+
+  static final class ParameterBooleanBinder extends ParameterBinder
+  {
+    ParameterBooleanBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getBoolean(name);
+    }
+  }
+
+  static final class ParameterByteBinder extends ParameterBinder
+  {
+    ParameterByteBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Byte) ? match : invoker.requestParameters.getByte(name);
+    }
+  }
+
+  static final class ParameterShortBinder extends ParameterBinder
+  {
+    ParameterShortBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Short) ? match : invoker.requestParameters.getShort(name);
+    }
+  }
+
+  static final class ParameterIntegerBinder extends ParameterBinder
+  {
+    ParameterIntegerBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Integer) ? match : invoker.requestParameters.getInteger(name);
+    }
+  }
+
+  static final class ParameterLongBinder extends ParameterBinder
+  {
+    ParameterLongBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Long) ? match : invoker.requestParameters.getLong(name);
+    }
+  }
+
+  static final class ParameterFloatBinder extends ParameterBinder
+  {
+    ParameterFloatBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Float) ? match : invoker.requestParameters.getFloat(name);
+    }
+  }
+
+  static final class ParameterDoubleBinder extends ParameterBinder
+  {
+    ParameterDoubleBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object match = parameterMatches.get(name);
+      return (match instanceof Double) ? match : invoker.requestParameters.getDouble(name);
+    }
+  }
+
+  static final class ParameterStringListBinder extends ParameterBinder
+  {
+    ParameterStringListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getValues(name);
+    }
+  }
+
+  static final class ParameterCharacterListBinder extends ParameterBinder
+  {
+    ParameterCharacterListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getCharacters(name);
+    }
+  }
+
+  static final class ParameterBooleanListBinder extends ParameterBinder
+  {
+    ParameterBooleanListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getBooleans(name);
+    }
+  }
+
+  static final class ParameterByteListBinder extends ParameterBinder
+  {
+    ParameterByteListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getBytes(name);
+    }
+  }
+
+  static final class ParameterShortListBinder extends ParameterBinder
+  {
+    ParameterShortListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getShorts(name);
+    }
+  }
+
+  static final class ParameterIntegerListBinder extends ParameterBinder
+  {
+    ParameterIntegerListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getIntegers(name);
+    }
+  }
+
+  static final class ParameterLongListBinder extends ParameterBinder
+  {
+    ParameterLongListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getLongs(name);
+    }
+  }
+
+  static final class ParameterFloatListBinder extends ParameterBinder
+  {
+    ParameterFloatListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getFloats(name);
+    }
+  }
+
+  static final class ParameterDoubleListBinder extends ParameterBinder
+  {
+    ParameterDoubleListBinder(String name)
+    {
+      super(name);
+    }
+
+    @Override
+    Object bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return invoker.requestParameters.getDoubles(name);
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds all the parameters of a route, before or after method. Methods with up to four parameters get a class for their
+ * number of parameters that calls each binder from its own call site instead of a loop over the binders so the call to
+ * each binder is only shared with the binders at the same position of other methods (the loop call site sees every
+ * binder class and is never inlined).
+ */
+abstract class ArgumentBinders
+{
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  final ArgumentBinder[] binders;
+
+  ArgumentBinders(ArgumentBinder[] binders)
+  {
+    this.binders = binders;
+  }
+
+  abstract Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches);
+
+  /*
+   * The position of the first parameter that fails to bind with the given exception or -1. Only used to report a failed
+   * bind so it doesn't need to be fast.
+   */
+  int failedIndex(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches, Class<? extends RuntimeException> exceptionClass)
+  {
+    for (int i = 0; i < binders.length; i++)
+    {
+      try
+      {
+        binders[i].bind(invoker, pathMatches, parameterMatches);
+      }
+      catch (RuntimeException e)
+      {
+        if (exceptionClass.isInstance(e))
+        {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  static ArgumentBinders compile(Method method, List<MethodParameter> methodParameters)
+  {
+    ArgumentBinder[] binders = ArgumentBinder.compile(method, methodParameters);
+    switch (binders.length)
+    {
+      case 0:
+        return new NoArgumentBinders(binders);
+
+      case 1:
+        return new OneArgumentBinders(binders);
+
+      case 2:
+        return new TwoArgumentBinders(binders);
+
+      case 3:
+        return new ThreeArgumentBinders(binders);
+
+      case 4:
+        return new FourArgumentBinders(binders);
+
+      default:
+        return new ManyArgumentBinders(binders);
+    }
+  }
+
+  static final class NoArgumentBinders extends ArgumentBinders
+  {
+    NoArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return NO_ARGUMENTS;
+    }
+  }
+
+  static final class OneArgumentBinders extends ArgumentBinders
+  {
+    final ArgumentBinder first;
+
+    OneArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+      first = binders[0];
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return new Object[] {first.bind(invoker, pathMatches, parameterMatches)};
+    }
+  }
+
+  static final class TwoArgumentBinders extends ArgumentBinders
+  {
+    final ArgumentBinder first;
+
+    final ArgumentBinder second;
+
+    TwoArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+      first = binders[0];
+      second = binders[1];
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return new Object[] {first.bind(invoker, pathMatches, parameterMatches), second.bind(invoker, pathMatches, parameterMatches)};
+    }
+  }
+
+  static final class ThreeArgumentBinders extends ArgumentBinders
+  {
+    final ArgumentBinder first;
+
+    final ArgumentBinder second;
+
+    final ArgumentBinder third;
+
+    ThreeArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+      first = binders[0];
+      second = binders[1];
+      third = binders[2];
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return new Object[] {first.bind(invoker, pathMatches, parameterMatches), second.bind(invoker, pathMatches, parameterMatches), third.bind(invoker, pathMatches, parameterMatches)};
+    }
+  }
+
+  static final class FourArgumentBinders extends ArgumentBinders
+  {
+    final ArgumentBinder first;
+
+    final ArgumentBinder second;
+
+    final ArgumentBinder third;
+
+    final ArgumentBinder fourth;
+
+    FourArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+      first = binders[0];
+      second = binders[1];
+      third = binders[2];
+      fourth = binders[3];
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      return new Object[] {first.bind(invoker, pathMatches, parameterMatches), second.bind(invoker, pathMatches, parameterMatches), third.bind(invoker, pathMatches, parameterMatches), fourth.bind(invoker, pathMatches, parameterMatches)};
+    }
+  }
+
+  static final class ManyArgumentBinders extends ArgumentBinders
+  {
+    ManyArgumentBinders(ArgumentBinder[] binders)
+    {
+      super(binders);
+    }
+
+    @Override
+    Object[] bind(MethodInvoker invoker, List<Object> pathMatches, Map<String, Object> parameterMatches)
+    {
+      Object[] arguments = new Object[binders.length];
+      for (int i = 0; i < binders.length; i++)
+      {
+        arguments[i] = binders[i].bind(invoker, pathMatches, parameterMatches);
+      }
+      return arguments;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * One asynchronous processing of a request. The side that finishes the request first (the route completing or the container
+ * timing out or failing the request) wins and the other side does nothing. When the container wins the request is
+ * completed with an error status, the given release is run (ex. returning the route instance) and the route's result is
+ * ignored when it arrives.
+ */
+class AsyncExchange implements AsyncListener
+{
+  static final int TIMEOUT_STATUS = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+  final HttpServletRequest request;
+
+  final HttpServletResponse response;
+
+  final AsyncContext asyncContext;
+
+  private final Runnable release;
+
+  private final AtomicBoolean finished = new AtomicBoolean();
+
+  /*
+   * Starts asynchronous processing of the request (or joins it if already started).
+   */
+  AsyncExchange(HttpServletRequest request, HttpServletResponse response, RoutesConfiguration routesConfiguration, Runnable release)
+  {
+    this.request = request;
+    this.response = response;
+    this.release = release;
+    asyncContext = request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync();
+    if (routesConfiguration.asyncTimeout >= 0)
+    {
+      asyncContext.setTimeout(routesConfiguration.asyncTimeout);
+    }
+    asyncContext.addListener(this);
+  }
+
+  /*
+   * Returns true if the caller is the side that finishes the request.
+   */
+  boolean finish()
+  {
+    return finished.compareAndSet(false, true);
+  }
+
+  boolean isFinished()
+  {
+    return finished.get();
+  }
+
+  /*
+   * Completes the async context unless it isn't started anymore (the response was dispatched to a path or the container
+   * already completed it).
+   */
+  void complete()
+  {
+    if (request.isAsyncStarted())
+    {
+      try
+      {
+        asyncContext.complete();
+      }
+      catch (IllegalStateException e)
+      {}
+    }
+  }
+
+  @Override
+  public void onTimeout(AsyncEvent event) throws IOException
+  {
+    finishWithStatus(TIMEOUT_STATUS);
+  }
+
+  @Override
+  public void onError(AsyncEvent event) throws IOException
+  {
+    finishWithStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+  }
+
+  @Override
+  public void onComplete(AsyncEvent event)
+  {}
+
+  @Override
+  public void onStartAsync(AsyncEvent event)
+  {}
+
+  private void finishWithStatus(int status)
+  {
+    if (!finish())
+    {
+      return;
+    }
+
+    try
+    {
+      if (!response.isCommitted())
+      {
+        response.sendError(status);
+      }
+    }
+    catch (Exception e)
+    {}
+    finally
+    {
+      if (release != null)
+      {
+        release.run();
+      }
+      complete();
+    }
+  }
+}
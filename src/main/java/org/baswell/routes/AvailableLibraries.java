@@ -15,14 +15,14 @@
  */
 package org.baswell.routes;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class AvailableLibraries
 {
   private final RoutesConfiguration configuration;
 
-  Map<String, Boolean> classesLoad = new HashMap<String, Boolean>();
+  Map<String, Boolean> classesLoad = new ConcurrentHashMap<String, Boolean>();
 
   AvailableLibraries(RoutesConfiguration configuration)
   {
@@ -23,7 +23,11 @@ class BeforeRouteNode implements Comparable<BeforeRouteNode>
 {
   final Method method;
 
+  final CompiledInvoker invoker;
+
   final List<MethodParameter> parameters;
+
+  final ArgumentBinders binders;
   
   final boolean returnsBoolean;
   
@@ -35,10 +39,12 @@ class BeforeRouteNode implements Comparable<BeforeRouteNode>
 
   final int classHierarchyOrder;
 
-  BeforeRouteNode(Method method, List<MethodParameter> parameters, boolean returnsBoolean, Set<String> onlyTags, Set<String> exceptTags, Integer explicitOrder, int classHierarchyOrder)
+  BeforeRouteNode(Method method, CompiledInvoker invoker, List<MethodParameter> parameters, boolean returnsBoolean, Set<String> onlyTags, Set<String> exceptTags, Integer explicitOrder, int classHierarchyOrder)
   {
     this.method = method;
+    this.invoker = invoker;
     this.parameters = parameters;
+    binders = ArgumentBinders.compile(method, parameters);
     this.returnsBoolean = returnsBoolean;
     this.onlyTags = onlyTags;
     this.exceptTags = exceptTags;
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * <p>
+ * A route, before or after method compiled when the routing table is built. Access checks are done once here instead of on
+ * every call and exceptions thrown by the method are passed straight through to the caller (not wrapped in an
+ * {@link java.lang.reflect.InvocationTargetException}).
+ * </p>
+ *
+ * <p>
+ * Public instance methods of public classes with up to {@link #MAX_LAMBDA_PARAMETERS} parameters are bound to a class spun by
+ * {@link LambdaMetafactory} so the call is a plain interface call. The spun class is defined in the class loader of this
+ * library so only methods whose class and parameter and return types resolve to the same classes from this library's class
+ * loader are spun. Everything else (ex. routes classes loaded by a child class loader of a web application) goes through a
+ * spread {@link MethodHandle}.
+ * </p>
+ *
+ * <p>
+ * Methods that can't be spun but are found in the {@link GeneratedRoutes} of the routes class are called through the
+ * generated class instead of the spread handle. A spun call is at least as fast as the generated class (which has to switch
+ * on the method index and cast every parameter) so it's always preferred.
+ * </p>
+ */
+class CompiledInvoker
+{
+  static final int MAX_LAMBDA_PARAMETERS = 10;
+
+  private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private static final Class[] CALL_INTERFACES = {Call0.class, Call1.class, Call2.class, Call3.class, Call4.class, Call5.class, Call6.class, Call7.class, Call8.class, Call9.class, Call10.class};
+
+  private static final Class[] VOID_CALL_INTERFACES = {VoidCall0.class, VoidCall1.class, VoidCall2.class, VoidCall3.class, VoidCall4.class, VoidCall5.class, VoidCall6.class, VoidCall7.class, VoidCall8.class, VoidCall9.class, VoidCall10.class};
+
+  final Method method;
+
+  private final int numberParameters;
+
+  private final boolean returnsVoid;
+
+  private final Object call;
+
+  private final MethodHandle spreadHandle;
+
+  private final GeneratedRoutes generatedRoutes;
+
+  private final int generatedIndex;
+
+  CompiledInvoker(Method method) throws RoutesException
+  {
+    this(method, null);
+  }
+
+  CompiledInvoker(Method method, GeneratedRoutes generatedRoutes) throws RoutesException
+  {
+    this.method = method;
+    numberParameters = method.getParameterTypes().length;
+    returnsVoid = method.getReturnType() == void.class;
+
+    Object call = null;
+    MethodHandle handle = null;
+    if (lambdaCompatible(method))
+    {
+      handle = unreflect(method);
+      try
+      {
+        call = spinCall(handle);
+      }
+      catch (Throwable e)
+      {
+        call = null;
+      }
+    }
+
+    int generatedIndex = ((call != null) || (generatedRoutes == null)) ? -1 : generatedRoutes.getMethodIndex(signature(method));
+    if (call != null)
+    {
+      this.call = call;
+      spreadHandle = null;
+      this.generatedRoutes = null;
+      this.generatedIndex = -1;
+    }
+    else if (generatedIndex >= 0)
+    {
+      this.call = null;
+      spreadHandle = null;
+      this.generatedRoutes = generatedRoutes;
+      this.generatedIndex = generatedIndex;
+    }
+    else
+    {
+      this.call = null;
+      spreadHandle = spread((handle == null) ? unreflect(method) : handle, method);
+      this.generatedRoutes = null;
+      this.generatedIndex = -1;
+    }
+  }
+
+  Object invoke(Object routeInstance, Object[] parameters) throws Throwable
+  {
+    if (generatedRoutes != null)
+    {
+      return generatedRoutes.invoke(generatedIndex, routeInstance, parameters);
+    }
+    else if (call == null)
+    {
+      return spreadHandle.invokeExact(routeInstance, parameters);
+    }
+    else if (returnsVoid)
+    {
+      switch (numberParameters)
+      {
+        case 0: ((VoidCall0) call).call(routeInstance); break;
+        case 1: ((VoidCall1) call).call(routeInstance, parameters[0]); break;
+        case 2: ((VoidCall2) call).call(routeInstance, parameters[0], parameters[1]); break;
+        case 3: ((VoidCall3) call).call(routeInstance, parameters[0], parameters[1], parameters[2]); break;
+        case 4: ((VoidCall4) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3]); break;
+        case 5: ((VoidCall5) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]); break;
+        case 6: ((VoidCall6) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5]); break;
+        case 7: ((VoidCall7) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6]); break;
+        case 8: ((VoidCall8) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7]); break;
+        case 9: ((VoidCall9) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7], parameters[8]); break;
+        default: ((VoidCall10) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7], parameters[8], parameters[9]); break;
+      }
+      return null;
+    }
+    else
+    {
+      switch (numberParameters)
+      {
+        case 0: return ((Call0) call).call(routeInstance);
+        case 1: return ((Call1) call).call(routeInstance, parameters[0]);
+        case 2: return ((Call2) call).call(routeInstance, parameters[0], parameters[1]);
+        case 3: return ((Call3) call).call(routeInstance, parameters[0], parameters[1], parameters[2]);
+        case 4: return ((Call4) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3]);
+        case 5: return ((Call5) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]);
+        case 6: return ((Call6) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5]);
+        case 7: return ((Call7) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6]);
+        case 8: return ((Call8) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7]);
+        case 9: return ((Call9) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7], parameters[8]);
+        default: return ((Call10) call).call(routeInstance, parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7], parameters[8], parameters[9]);
+      }
+    }
+  }
+
+  private Object spinCall(MethodHandle handle) throws Throwable
+  {
+    Class callInterface = returnsVoid ? VOID_CALL_INTERFACES[numberParameters] : CALL_INTERFACES[numberParameters];
+
+    MethodType erasedType = MethodType.genericMethodType(numberParameters + 1);
+    MethodType instantiatedType = handle.type().wrap();
+    if (returnsVoid)
+    {
+      erasedType = erasedType.changeReturnType(void.class);
+      instantiatedType = instantiatedType.changeReturnType(void.class);
+    }
+
+    return LambdaMetafactory.metafactory(MethodHandles.lookup(), "call", MethodType.methodType(callInterface), erasedType, handle, instantiatedType).getTarget().invoke();
+  }
+
+  boolean isGenerated()
+  {
+    return generatedRoutes != null;
+  }
+
+  /**
+   * @return The signature of the given method as used by {@link GeneratedRoutes#getMethodIndex(String)}.
+   */
+  static String signature(Method method)
+  {
+    StringBuilder signature = new StringBuilder(method.getName()).append('(');
+    Class[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++)
+    {
+      if (i > 0)
+      {
+        signature.append(',');
+      }
+      signature.append(parameterTypes[i].getTypeName());
+    }
+    return signature.append(')').toString();
+  }
+
+  static boolean lambdaCompatible(Method method)
+  {
+    if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers()) || (method.getParameterTypes().length > MAX_LAMBDA_PARAMETERS))
+    {
+      return false;
+    }
+
+    if (!visibleToRoutes(method.getDeclaringClass()) || !visibleToRoutes(method.getReturnType()))
+    {
+      return false;
+    }
+
+    for (Class parameterType : method.getParameterTypes())
+    {
+      if (!visibleToRoutes(parameterType))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Spinning succeeds for a class the spun class can't see but the first call then fails with a NoClassDefFoundError (or
+   * resolves a different class of the same name) so this has to be checked up front.
+   */
+  static boolean visibleToRoutes(Class type)
+  {
+    while (type.isArray())
+    {
+      type = type.getComponentType();
+    }
+
+    if (type.isPrimitive())
+    {
+      return true;
+    }
+
+    try
+    {
+      return Class.forName(type.getName(), false, CompiledInvoker.class.getClassLoader()) == type;
+    }
+    catch (ClassNotFoundException e)
+    {
+      return false;
+    }
+    catch (LinkageError e)
+    {
+      return false;
+    }
+  }
+
+  boolean isSpun()
+  {
+    return call != null;
+  }
+
+  static MethodHandle spread(MethodHandle handle, Method method)
+  {
+    if (Modifier.isStatic(method.getModifiers()))
+    {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+
+    if (method.getReturnType() == void.class)
+    {
+      handle = MethodHandles.filterReturnValue(handle, MethodHandles.constant(Object.class, null));
+    }
+
+    return handle.asSpreader(Object[].class, method.getParameterTypes().length).asType(SPREAD_TYPE);
+  }
+
+  static MethodHandle unreflect(Method method) throws RoutesException
+  {
+    try
+    {
+      return MethodHandles.lookup().unreflect(method);
+    }
+    catch (IllegalAccessException e)
+    {
+      try
+      {
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+      }
+      catch (Exception exc)
+      {
+        throw new RoutesException("Unable to call map route method: " + method, exc);
+      }
+    }
+  }
+
+  interface Call0 { Object call(Object instance); }
+  interface Call1 { Object call(Object instance, Object p0); }
+  interface Call2 { Object call(Object instance, Object p0, Object p1); }
+  interface Call3 { Object call(Object instance, Object p0, Object p1, Object p2); }
+  interface Call4 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3); }
+  interface Call5 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4); }
+  interface Call6 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5); }
+  interface Call7 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6); }
+  interface Call8 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7); }
+  interface Call9 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8); }
+  interface Call10 { Object call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9); }
+
+  interface VoidCall0 { void call(Object instance); }
+  interface VoidCall1 { void call(Object instance, Object p0); }
+  interface VoidCall2 { void call(Object instance, Object p0, Object p1); }
+  interface VoidCall3 { void call(Object instance, Object p0, Object p1, Object p2); }
+  interface VoidCall4 { void call(Object instance, Object p0, Object p1, Object p2, Object p3); }
+  interface VoidCall5 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4); }
+  interface VoidCall6 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5); }
+  interface VoidCall7 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6); }
+  interface VoidCall8 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7); }
+  interface VoidCall9 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8); }
+  interface VoidCall10 { void call(Object instance, Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9); }
+}
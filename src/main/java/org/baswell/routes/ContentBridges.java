@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * The JAXB and XML document bridges shared by all the routes built together and by the request content of routes that
+ * weren't given a reader when they were built. Routes reading or writing the same JAXB class share one JAXBContext. The
+ * JDOM bridge is created when it's first needed so JDOM doesn't have to be on the classpath.
+ */
+class ContentBridges
+{
+  private final RoutesConfiguration routesConfiguration;
+
+  private final Map<Class, JAXBBridge> jaxbBridges = new ConcurrentHashMap<Class, JAXBBridge>();
+
+  final W3CBridge w3cBridge;
+
+  private JDOMBridge jdomBridge;
+
+  ContentBridges(RoutesConfiguration routesConfiguration)
+  {
+    this.routesConfiguration = routesConfiguration;
+    w3cBridge = new W3CBridge(routesConfiguration.converterPoolSize);
+  }
+
+  JAXBBridge getJAXBBridge(Class contentClass) throws RoutesException
+  {
+    JAXBBridge jaxbBridge = jaxbBridges.get(contentClass);
+    if (jaxbBridge == null)
+    {
+      jaxbBridge = new JAXBBridge(contentClass, routesConfiguration.converterPoolSize);
+      JAXBBridge existingBridge = jaxbBridges.putIfAbsent(contentClass, jaxbBridge);
+      if (existingBridge != null)
+      {
+        jaxbBridge = existingBridge;
+      }
+    }
+    return jaxbBridge;
+  }
+
+  synchronized JDOMBridge getJDOMBridge()
+  {
+    if (jdomBridge == null)
+    {
+      jdomBridge = new JDOMBridge(routesConfiguration.converterPoolSize);
+    }
+    return jdomBridge;
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * Reads request content whose conversion is decided by the RequestContent type alone (ex. JAXB classes or org.w3c.dom.Document)
+ * so the content can be read straight from the request without looking at it first. Created when the routing table is built
+ * (see RouteNode.requestContentReader).
+ */
+interface ContentReader
+{
+  Object read(InputStream inputStream, Class contentClass) throws IOException, RoutesException;
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/*
+ * A bounded pool of content converters that are expensive to create and not thread safe (ex. JAXB marshallers). Borrowing
+ * never blocks: a new converter is created when the pool is empty and a returned converter is dropped when the pool is full.
+ * Converters are pooled instead of kept in thread locals since routes can run on a new virtual thread for every request.
+ */
+abstract class ConverterPool<ConverterType>
+{
+  private final ArrayBlockingQueue<ConverterType> converters;
+
+  ConverterPool(int size)
+  {
+    converters = new ArrayBlockingQueue<ConverterType>(Math.max(1, size));
+  }
+
+  abstract ConverterType create() throws RoutesException;
+
+  ConverterType borrow() throws RoutesException
+  {
+    ConverterType converter = converters.poll();
+    return (converter == null) ? create() : converter;
+  }
+
+  /*
+   * Converters are returned (after being reset if they support it) whether or not they were used successfully. Otherwise
+   * every request with malformed content would drain the pool and the next requests would all pay for creating converters.
+   */
+  void release(ConverterType converter)
+  {
+    converters.offer(converter);
+  }
+
+  int size()
+  {
+    return converters.size();
+  }
+}
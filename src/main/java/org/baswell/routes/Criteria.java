@@ -19,7 +19,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 import org.baswell.routes.CriterionForPathSegment.RequestPathSegmentCrierionType;
 
@@ -71,16 +70,16 @@ class Criteria implements Comparable<Criteria>
 
   boolean matches(HttpMethod httpMethod, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters)
   {
-    return matches(httpMethod, requestedMediaType, path, parameters, new ArrayList<Matcher>(), new HashMap<String, Matcher>());
+    return matches(httpMethod, requestedMediaType, path, parameters, new ArrayList<Object>(), new HashMap<String, Object>());
   }
 
-  boolean matches(HttpMethod httpMethod, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters, List<Matcher> pathMatchers, Map<String, Matcher> parameterMatchers)
+  boolean matches(HttpMethod httpMethod, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters, List<Object> pathMatches, Map<String, Object> parameterMatches)
   {
-    if (!routeConfiguration.respondsToMethods.contains(httpMethod))
+    if (!respondsTo(httpMethod))
     {
       return false;
     }
-    else if (!routeConfiguration.respondsToMedia.isEmpty() && !routeConfiguration.respondsToMedia.contains(requestedMediaType.mediaType))
+    else if (!respondsTo(requestedMediaType))
     {
       return false;
     }
@@ -88,7 +87,7 @@ class Criteria implements Comparable<Criteria>
     {
       return false;
     }
-    else if (!matchSegments(0, path, 0, pathCriteria, routesConfiguration, pathMatchers))
+    else if (!(hasMultiPathCriterion ? matchMultiSegments(path, pathCriteria, routesConfiguration, pathMatches) : matchSegments(path, pathCriteria, routesConfiguration, pathMatches)))
     {
       return false;
     }
@@ -133,10 +132,10 @@ class Criteria implements Comparable<Criteria>
               boolean matchFound = false;
               for (String parameterValue : parameterValues)
               {
-                Matcher matcher = parameterCriterion.pattern.matcher(parameterValue);
-                if (matcher.matches())
+                Object match = parameterCriterion.matcher.match(parameterValue);
+                if (match != null)
                 {
-                  parameterMatchers.put(parameterCriterion.name, matcher);
+                  parameterMatches.put(parameterCriterion.name, match);
                   matchFound = true;
                   break;
                 }
@@ -154,6 +153,17 @@ class Criteria implements Comparable<Criteria>
     return true;
   }
 
+  boolean respondsTo(HttpMethod httpMethod)
+  {
+    return (httpMethod != null) && ((routeConfiguration.respondsToMethodsMask & httpMethod.bit) != 0);
+  }
+
+  boolean respondsTo(RequestedMediaType requestedMediaType)
+  {
+    int respondsToMediaMask = routeConfiguration.respondsToMediaMask;
+    return (respondsToMediaMask == 0) || ((requestedMediaType.mediaType != null) && ((respondsToMediaMask & requestedMediaType.mediaType.bit) != 0));
+  }
+
   @Override
   public int compareTo(Criteria other)
   {
@@ -200,83 +210,192 @@ class Criteria implements Comparable<Criteria>
     }
   }
 
-  static boolean matchSegments(int pathIndex, RequestPath path, int criteriaIndex, List<CriterionForPathSegment> criteria, RoutesConfiguration config, List<Matcher> matchers)
+  /*
+   * Routes without ** have one criterion for each segment (the caller has already checked the sizes).
+   */
+  static boolean matchSegments(RequestPath path, List<CriterionForPathSegment> criteria, RoutesConfiguration config, List<Object> matches)
   {
-    if ((pathIndex >= path.size()) && (criteriaIndex >= criteria.size()))
+    for (int i = 0; i < criteria.size(); i++)
     {
-      return true;
+      CriterionForPathSegment criterion = criteria.get(i);
+      if (criterion.type == RequestPathSegmentCrierionType.FIXED)
+      {
+        if (!path.segmentEquals(i, criterion.value, config.caseInsensitive))
+        {
+          return false;
+        }
+        matches.add(null);
+      }
+      else
+      {
+        Object match = criterion.matcher.match(path.get(i));
+        if (match == null)
+        {
+          return false;
+        }
+        matches.add(match);
+      }
     }
-    else if ((pathIndex >= path.size()) && (criteriaIndex < criteria.size()))
+    return true;
+  }
+
+  /*
+   * Routes with ** are matched from the end of the path back to the start. For each path index p the set of criteria c
+   * where criteria c... match segments p... is kept as bits of a long (the bit after the last criterion marks the end of
+   * the path) and is computed from the set of p + 1 alone:
+   *
+   *   fixed or pattern c matches at p if segment p matches c and c + 1 matches at p + 1
+   *   ** c matches at p if c + 1 matches at p (** takes no segment) or c matches at p + 1 (** takes segment p)
+   *
+   * This is O(segments x criteria) with each segment tested against each criterion at most once, the pass stops as soon
+   * as a set is empty (no earlier set can be non-empty then) and nothing is allocated on a miss. On a hit the sets are
+   * computed again into a table so the matches can be collected going forward. Each ** takes as few segments as possible
+   * (the first ** in the route the fewest) and adds one null match unless it is at the end of the route or the path.
+   * Routes with a single ** (the common case) don't need any of this and are matched directly.
+   */
+  static boolean matchMultiSegments(RequestPath path, List<CriterionForPathSegment> criteria, RoutesConfiguration config, List<Object> matches)
+  {
+    int multiIndex = -1;
+    for (int i = 0; i < criteria.size(); i++)
     {
-      for (int i = criteriaIndex; i < criteria.size(); i++)
+      if (criteria.get(i).type == RequestPathSegmentCrierionType.MULTI)
       {
-        if (criteria.get(i).type != RequestPathSegmentCrierionType.MULTI)
+        if (multiIndex != -1)
         {
-          return false;
+          multiIndex = -1;
+          break;
         }
+        multiIndex = i;
       }
-      return true;
     }
-    else if ((criteriaIndex >= criteria.size()))
+
+    if (multiIndex != -1)
+    {
+      return matchSingleMultiSegment(path, criteria, multiIndex, config, matches);
+    }
+
+    int numberSegments = path.size();
+    long suffixMatches = 0;
+    for (int pathIndex = numberSegments; pathIndex >= 0; pathIndex--)
+    {
+      suffixMatches = suffixMatches(pathIndex, path, criteria, config, suffixMatches);
+      if (suffixMatches == 0)
+      {
+        return false;
+      }
+    }
+
+    if ((suffixMatches & 1) == 0)
     {
       return false;
     }
-    else
+
+    long[] suffixMatchesAt = new long[numberSegments + 1];
+    suffixMatches = 0;
+    for (int pathIndex = numberSegments; pathIndex >= 0; pathIndex--)
+    {
+      suffixMatchesAt[pathIndex] = suffixMatches = suffixMatches(pathIndex, path, criteria, config, suffixMatches);
+    }
+
+    int numberCriteria = criteria.size();
+    int pathIndex = 0;
+    for (int criteriaIndex = 0; criteriaIndex < numberCriteria; criteriaIndex++)
     {
-      String segment = path.get(pathIndex);
       CriterionForPathSegment criterion = criteria.get(criteriaIndex);
-      
-      switch (criterion.type)
+      if (criterion.type == RequestPathSegmentCrierionType.MULTI)
       {
-        case FIXED:
-          if (config.caseInsensitive && !segment.equalsIgnoreCase(criterion.value))
-          {
-            return false;
-          }
-          else if (!config.caseInsensitive && !segment.equals(criterion.value))
-          {
-            return false;
-          }
-          else
-          {
-            matchers.add(null);
-            return matchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, config, matchers);
-          }
-  
-        case PATTERN:
-          Matcher matcher = criterion.pattern.matcher(segment);
-          if (!matcher.matches())
-          {
-            return false;
-          }
-          else
-          {
-            matchers.add(matcher);
-            return matchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, config, matchers);
-          }
-          
-        case MULTI:
-        default:
-          if (criteriaIndex == criteria.size() - 1)
-          {
-            return true;
-          }
-          else
-          {
-            int nextCriteriaIndex = criteriaIndex + 1;
-            for (int nextPathIndex = pathIndex; nextPathIndex < path.size(); nextPathIndex++)
-            {
-              List<Matcher> subMatchers = new ArrayList<Matcher>();
-              subMatchers.add(null);
-              if (matchSegments(nextPathIndex, path, nextCriteriaIndex, criteria, config, subMatchers))
-              {
-                matchers.addAll(subMatchers);
-                return true;
-              }
-            }
-            return false;
-          }
+        if ((criteriaIndex == (numberCriteria - 1)) || (pathIndex == numberSegments))
+        {
+          break;
+        }
+
+        long nextCriterionBit = 1L << (criteriaIndex + 1);
+        while ((suffixMatchesAt[pathIndex] & nextCriterionBit) == 0)
+        {
+          ++pathIndex;
+        }
+        matches.add(null);
+      }
+      else
+      {
+        matches.add(criterion.type == RequestPathSegmentCrierionType.FIXED ? null : criterion.matcher.match(path.get(pathIndex)));
+        ++pathIndex;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * With only one ** every other criterion matches exactly one segment so the ** takes whatever is left in between.
+   */
+  static boolean matchSingleMultiSegment(RequestPath path, List<CriterionForPathSegment> criteria, int multiIndex, RoutesConfiguration config, List<Object> matches)
+  {
+    int numberCriteria = criteria.size();
+    int multiLength = path.size() - (numberCriteria - 1);
+    if (multiLength < 0)
+    {
+      return false;
+    }
+
+    for (int criteriaIndex = 0; criteriaIndex < numberCriteria; criteriaIndex++)
+    {
+      if (criteriaIndex == multiIndex)
+      {
+        if (criteriaIndex != (numberCriteria - 1))
+        {
+          matches.add(null);
+        }
+        continue;
+      }
+
+      CriterionForPathSegment criterion = criteria.get(criteriaIndex);
+      int pathIndex = criteriaIndex < multiIndex ? criteriaIndex : (criteriaIndex - 1 + multiLength);
+      if (criterion.type == RequestPathSegmentCrierionType.FIXED)
+      {
+        if (!path.segmentEquals(pathIndex, criterion.value, config.caseInsensitive))
+        {
+          return false;
+        }
+        matches.add(null);
+      }
+      else
+      {
+        Object match = criterion.matcher.match(path.get(pathIndex));
+        if (match == null)
+        {
+          return false;
+        }
+        matches.add(match);
+      }
+    }
+    return true;
+  }
+
+  private static long suffixMatches(int pathIndex, RequestPath path, List<CriterionForPathSegment> criteria, RoutesConfiguration config, long nextSuffixMatches)
+  {
+    int numberCriteria = criteria.size();
+    boolean endOfPath = pathIndex == path.size();
+    long suffixMatches = endOfPath ? (1L << numberCriteria) : 0;
+    for (int criteriaIndex = numberCriteria - 1; criteriaIndex >= 0; criteriaIndex--)
+    {
+      CriterionForPathSegment criterion = criteria.get(criteriaIndex);
+      long criterionBit = 1L << criteriaIndex;
+      if (criterion.type == RequestPathSegmentCrierionType.MULTI)
+      {
+        if (((suffixMatches & (criterionBit << 1)) != 0) || ((nextSuffixMatches & criterionBit) != 0))
+        {
+          suffixMatches |= criterionBit;
+        }
+      }
+      else if (!endOfPath && ((nextSuffixMatches & (criterionBit << 1)) != 0))
+      {
+        boolean segmentMatches = criterion.type == RequestPathSegmentCrierionType.FIXED ? path.segmentEquals(pathIndex, criterion.value, config.caseInsensitive) : (criterion.matcher.match(path.get(pathIndex)) != null);
+        if (segmentMatches)
+        {
+          suffixMatches |= criterionBit;
+        }
       }
     }
+    return suffixMatches;
   }
 }
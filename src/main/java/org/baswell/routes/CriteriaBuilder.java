@@ -26,12 +26,19 @@ import java.util.regex.PatternSyntaxException;
 
 import org.baswell.routes.CriterionForParameter.RequestParameterType;
 import org.baswell.routes.CriterionForPathSegment.RequestPathSegmentCrierionType;
+import org.baswell.routes.SegmentMatcher.PatternSegmentMatcher;
 
 class CriteriaBuilder
 {
+  /*
+   * Routes with ** are matched with one bit per path criterion (see Criteria.matchMultiSegments).
+   */
+  static final int MAX_MULTI_PATH_CRITERIA = 63;
+
   Criteria buildCriteria(Method method, ParsedRouteTree routeTree, RouteConfiguration routeConfiguration, RoutesConfiguration routesConfiguration) throws RoutesException
   {
     List<CriterionForPathSegment> pathCriteria = new ArrayList<CriterionForPathSegment>();
+    boolean hasMultiPathCriterion = false;
     int urlParameterIndex = 0;
     for (int i = 0; i < routeTree.pathTerminals.size(); i++)
     {
@@ -44,18 +51,19 @@ class CriteriaBuilder
       else if (pathTerminal instanceof ParsedPatternPathTerminal)
       {
         ParsedPatternPathTerminal patternTerminal = (ParsedPatternPathTerminal)pathTerminal;
-        CriterionForPathSegment patternCriteria = new CriterionForPathSegment(i, patternTerminal.pattern, RequestPathSegmentCrierionType.PATTERN, compile(patternTerminal.pattern, method));
+        CriterionForPathSegment patternCriteria = new CriterionForPathSegment(i, patternTerminal.pattern, RequestPathSegmentCrierionType.PATTERN, new PatternSegmentMatcher(compile(patternTerminal.pattern, method)));
         urlParameterIndex += Math.min(1, patternCriteria.numberPatternGroups);
         pathCriteria.add(patternCriteria);
       }
       else if (pathTerminal instanceof ParsedWildcardPathTerminal)
       {
         ++urlParameterIndex;
-        pathCriteria.add(new CriterionForPathSegment(i, "*", RequestPathSegmentCrierionType.PATTERN, compile(WILDCARD_PATTERN, method)));
+        pathCriteria.add(new CriterionForPathSegment(i, "*", RequestPathSegmentCrierionType.PATTERN, SegmentMatcher.STRING));
       }
       else if (pathTerminal instanceof ParsedDoubleWildcardPathTerminal)
       {
         ++urlParameterIndex;
+        hasMultiPathCriterion = true;
         pathCriteria.add(new CriterionForPathSegment(i, "**", RequestPathSegmentCrierionType.MULTI, null));
       }
       else if (pathTerminal instanceof ParsedMethodParameterPathTerminal)
@@ -68,10 +76,10 @@ class CriteriaBuilder
         else
         {
           Type parameter = parameterIndex.x;
-          if (typesToPatterns.containsKey(parameter))
+          SegmentMatcher matcher = (parameter instanceof Class) ? SegmentMatcher.forType((Class) parameter) : null;
+          if (matcher != null)
           {
-            String pattern = typesToPatterns.get(parameter);
-            pathCriteria.add(new CriterionForPathSegment(i, pattern, RequestPathSegmentCrierionType.PATTERN, compile(pattern, method), 0));
+            pathCriteria.add(new CriterionForPathSegment(i, typesToPatterns.get(parameter), RequestPathSegmentCrierionType.PATTERN, matcher));
           }
           else
           {
@@ -84,7 +92,7 @@ class CriteriaBuilder
         ParsedSymbolPathTerminal symbolTerminal = (ParsedSymbolPathTerminal)pathTerminal;
         if (routesConfiguration.symbolsToPatterns.containsKey(symbolTerminal.symbol))
         {
-          CriterionForPathSegment patternCriteria = new CriterionForPathSegment(i, symbolTerminal.symbol, RequestPathSegmentCrierionType.PATTERN, routesConfiguration.symbolsToPatterns.get(symbolTerminal.symbol));
+          CriterionForPathSegment patternCriteria = new CriterionForPathSegment(i, symbolTerminal.symbol, RequestPathSegmentCrierionType.PATTERN, new PatternSegmentMatcher(routesConfiguration.symbolsToPatterns.get(symbolTerminal.symbol)));
           urlParameterIndex += Math.min(1, patternCriteria.numberPatternGroups);
           pathCriteria.add(patternCriteria);
         }
@@ -98,6 +106,11 @@ class CriteriaBuilder
         throw new RoutesException("Unsupported PathTerminal class: " + pathTerminal.getClass());
       }
     }
+
+    if (hasMultiPathCriterion && (pathCriteria.size() > MAX_MULTI_PATH_CRITERIA))
+    {
+      throw new RoutesException("Routes with ** can have at most " + MAX_MULTI_PATH_CRITERIA + " path segments. Method: " + method);
+    }
     
     List<CriterionForParameter> parameterCriteria = new ArrayList<CriterionForParameter>();
     if (routeTree.parameterTerminals != null)
@@ -114,14 +127,14 @@ class CriteriaBuilder
         else if (parameterTerminal instanceof ParsedPatternParameterTerminal)
         {
           ParsedPatternParameterTerminal patternParameter = (ParsedPatternParameterTerminal)parameterTerminal;
-          CriterionForParameter parameterCriterion = new CriterionForParameter(patternParameter.name, patternParameter.pattern, RequestParameterType.PATTERN, !parameterTerminal.optional, compile(patternParameter.pattern, method));
+          CriterionForParameter parameterCriterion = new CriterionForParameter(patternParameter.name, patternParameter.pattern, RequestParameterType.PATTERN, !parameterTerminal.optional, new PatternSegmentMatcher(compile(patternParameter.pattern, method)));
           urlParameterIndex += Math.min(1, parameterCriterion.numberPatternGroups);
           parameterCriteria.add(parameterCriterion);
         }
         else if (parameterTerminal instanceof ParsedWildcardParameterTerminal)
         {
           ++urlParameterIndex;
-          parameterCriteria.add(new CriterionForParameter(parameterTerminal.name, "*", RequestParameterType.PATTERN, !parameterTerminal.optional, compile(WILDCARD_PATTERN, method)));
+          parameterCriteria.add(new CriterionForParameter(parameterTerminal.name, "*", RequestParameterType.PATTERN, !parameterTerminal.optional, SegmentMatcher.STRING));
         }
         else if (parameterTerminal instanceof ParsedMethodParameterParameterTerminal)
         {
@@ -139,10 +152,10 @@ class CriteriaBuilder
               parameterClass = getListSingleParameterType(parameter);
             }
             
-            if ((parameterClass != null) && typesToPatterns.containsKey(parameterClass))
+            SegmentMatcher matcher = (parameterClass == null) ? null : SegmentMatcher.forType(parameterClass);
+            if (matcher != null)
             {
-              String pattern = typesToPatterns.get(parameterClass);
-              parameterCriteria.add(new CriterionForParameter(parameterTerminal.name, pattern, RequestParameterType.PATTERN, !parameterTerminal.optional, compile(pattern, method), 0));
+              parameterCriteria.add(new CriterionForParameter(parameterTerminal.name, typesToPatterns.get(parameterClass), RequestParameterType.PATTERN, !parameterTerminal.optional, matcher));
             }
             else
             {
@@ -155,7 +168,7 @@ class CriteriaBuilder
           ParsedSymbolParameterTerminal symbolTerminal = (ParsedSymbolParameterTerminal)parameterTerminal;
           if (routesConfiguration.symbolsToPatterns.containsKey(symbolTerminal.symbol))
           {
-            CriterionForParameter parameterCriterion = new CriterionForParameter(parameterTerminal.name, "", RequestParameterType.PATTERN, !parameterTerminal.optional, routesConfiguration.symbolsToPatterns.get(symbolTerminal.symbol));
+            CriterionForParameter parameterCriterion = new CriterionForParameter(parameterTerminal.name, "", RequestParameterType.PATTERN, !parameterTerminal.optional, new PatternSegmentMatcher(routesConfiguration.symbolsToPatterns.get(symbolTerminal.symbol)));
             urlParameterIndex += Math.min(1, parameterCriterion.numberPatternGroups);
             parameterCriteria.add(parameterCriterion);
           }
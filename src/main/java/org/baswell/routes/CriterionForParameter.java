@@ -15,8 +15,6 @@
  */
 package org.baswell.routes;
 
-import java.util.regex.Pattern;
-
 class CriterionForParameter
 {
   static enum RequestParameterType
@@ -33,23 +31,18 @@ class CriterionForParameter
 
   final boolean presenceRequired;
 
-  final Pattern pattern;
+  final SegmentMatcher matcher;
 
   final int numberPatternGroups;
   
-  CriterionForParameter(String name, String value, RequestParameterType type, boolean presenceRequired, Pattern pattern)
-  {
-    this(name, value, type, presenceRequired, pattern, pattern == null ? 0 : pattern.matcher("").groupCount());
-  }
-
-  CriterionForParameter(String name, String value, RequestParameterType type, boolean presenceRequired, Pattern pattern, int numberPatternGroups)
+  CriterionForParameter(String name, String value, RequestParameterType type, boolean presenceRequired, SegmentMatcher matcher)
   {
     this.name = name;
     this.value = value;
     this.type = type;
     this.presenceRequired = presenceRequired;
-    this.pattern = pattern;
-    this.numberPatternGroups = numberPatternGroups;
+    this.matcher = matcher;
+    this.numberPatternGroups = matcher == null ? 0 : matcher.groupCount();
   }
 
 }
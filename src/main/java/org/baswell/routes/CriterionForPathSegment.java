@@ -15,8 +15,6 @@
  */
 package org.baswell.routes;
 
-import java.util.regex.Pattern;
-
 class CriterionForPathSegment
 {
   static enum RequestPathSegmentCrierionType
@@ -32,22 +30,17 @@ class CriterionForPathSegment
 
   final RequestPathSegmentCrierionType type;
 
-  final Pattern pattern;
+  final SegmentMatcher matcher;
 
   final int numberPatternGroups;
   
-  CriterionForPathSegment(int index, String value, RequestPathSegmentCrierionType type, Pattern pattern)
-  {
-    this(index, value, type, pattern, pattern == null ? 0 : pattern.matcher("").groupCount());
-  }
-
-  CriterionForPathSegment(int index, String value, RequestPathSegmentCrierionType type, Pattern pattern, int numberPatternGroups)
+  CriterionForPathSegment(int index, String value, RequestPathSegmentCrierionType type, SegmentMatcher matcher)
   {
     this.index = index;
     this.value = value;
     this.type = type;
-    this.pattern = pattern;
-    this.numberPatternGroups = numberPatternGroups;
+    this.matcher = matcher;
+    this.numberPatternGroups = matcher == null ? 0 : matcher.groupCount();
   }
 
 }
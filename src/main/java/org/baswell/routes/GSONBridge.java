@@ -16,22 +16,91 @@
 package org.baswell.routes;
 
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
+import static org.baswell.routes.RoutesMethods.*;
+
+/*
+ * Gson instances are thread safe so all requests share one (see RoutesConfiguration.gson). The type adapters of the routes
+ * are resolved when the routing table is built and passed back here as Objects so classes outside this one can be loaded
+ * without Gson on the classpath. Content is streamed through JsonReader and JsonWriter instead of going through a String.
+ */
 public class GSONBridge
 {
-  static <RequestContentType extends Object> RequestContentType parseGson(byte[] contentBytes, Type contentType)
+  private static final Gson DEFAULT_GSON = new Gson();
+
+  static Gson getGson(RoutesConfiguration configuration) throws RoutesException
   {
-    return (RequestContentType) new Gson().fromJson(new String(contentBytes), contentType);
+    if (configuration.gson == null)
+    {
+      return DEFAULT_GSON;
+    }
+    else if (configuration.gson instanceof Gson)
+    {
+      return (Gson) configuration.gson;
+    }
+    else
+    {
+      throw new RoutesException("RoutesConfiguration.gson must be a " + Gson.class.getName() + " not a " + configuration.gson.getClass().getName());
+    }
   }
 
-  static void sendGson(Object response, HttpServletResponse servletResponse) throws IOException
+  /*
+   * Gson caches the adapter of each type so the reader only has to hold the type. Content is read with Gson.fromJson to keep
+   * its lenient parsing and its check that nothing follows the JSON document.
+   */
+  static Object createReader(RoutesConfiguration configuration, Type contentType) throws RoutesException
   {
-    servletResponse.getWriter().write(new Gson().toJson(response));
+    getGson(configuration);
+    return TypeToken.get(contentType);
   }
 
+  /*
+   * An adapter fixed to the declared type is only used when the runtime type can't be a subclass with more fields (a final
+   * class) or the declared type carries generic information the runtime type doesn't (ex. List<Order>).
+   */
+  static Object createWriter(RoutesConfiguration configuration, Type responseType) throws RoutesException
+  {
+    Gson gson = getGson(configuration);
+    if ((responseType instanceof ParameterizedType) || ((responseType instanceof Class) && Modifier.isFinal(((Class) responseType).getModifiers())))
+    {
+      return gson.getAdapter(TypeToken.get(responseType));
+    }
+    else
+    {
+      return null;
+    }
+  }
 
+  /*
+   * The content is decoded with the character encoding of the request (UTF-8 if the request doesn't have one).
+   */
+  static <RequestContentType extends Object> RequestContentType parseGson(RoutesConfiguration configuration, Object reader, InputStream inputStream, Type contentType, String characterEncoding) throws IOException
+  {
+    Gson gson = getGson(configuration);
+    TypeToken typeToken = (reader == null) ? TypeToken.get(contentType) : (TypeToken) reader;
+    InputStreamReader inputStreamReader = hasContent(characterEncoding) ? new InputStreamReader(inputStream, characterEncoding) : new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    return (RequestContentType) gson.fromJson(inputStreamReader, typeToken.getType());
+  }
+
+  static void sendGson(RoutesConfiguration configuration, Object writer, Object response, HttpServletResponse servletResponse) throws IOException
+  {
+    Gson gson = getGson(configuration);
+    TypeAdapter typeAdapter = (writer == null) ? gson.getAdapter(response.getClass()) : (TypeAdapter) writer;
+    JsonWriter jsonWriter = gson.newJsonWriter(new OutputStreamWriter(servletResponse.getOutputStream(), StandardCharsets.UTF_8));
+    typeAdapter.write(jsonWriter, response);
+    jsonWriter.flush();
+  }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+/**
+ * <p>
+ * Implemented by the classes the routes-processor annotation processor generates at compile time for each class with
+ * {@link Routes}, {@link Route}, {@link BeforeRoute} or {@link AfterRoute} annotations. The generated class is named after the
+ * routes class with the {@link #CLASS_NAME_SUFFIX} appended (nested class names joined with an underscore) and is placed in
+ * the same package. When {@link RoutesConfiguration#useGeneratedRoutes} is set the route, before and after methods that the
+ * routing table can't bind to a spun call site (for example methods of classes loaded by a web application's class loader,
+ * static methods or methods with more than ten parameters) are called directly through the generated class instead of through
+ * a method handle.
+ * </p>
+ *
+ * <p>
+ * Only the method calls are generated. The routing table still finds the route methods with reflection and parses the
+ * routes and builds their criteria when it's built (routes depend on the {@link RoutesConfiguration} and on the classes the
+ * routes classes are added with, neither of which is known at compile time). Methods that aren't found in the generated class
+ * (for example methods added after the class was compiled in development mode or methods the generated class can't access)
+ * are called the same way they are without a generated class.
+ * </p>
+ *
+ * @see RoutesConfiguration#useGeneratedRoutes
+ */
+public interface GeneratedRoutes
+{
+  String CLASS_NAME_SUFFIX = "_GeneratedRoutes";
+
+  /**
+   * @param methodSignature The method name followed by the comma separated parameter type names in parenthesis, for
+   *                        example {@code getUser(int,java.lang.String)}. Type names are as returned by {@link Class#getTypeName()}.
+   * @return The index used to call the method with {@link #invoke(int, Object, Object[])} or -1 if the method isn't available.
+   */
+  int getMethodIndex(String methodSignature);
+
+  /**
+   * Calls the method with the given index.
+   *
+   * @param methodIndex The index returned from {@link #getMethodIndex(String)}.
+   * @param routeInstance The instance of the routes class (ignored for static methods).
+   * @param parameters The method parameters.
+   * @return The returned value or null if the method returns void.
+   * @throws Throwable Thrown by the method.
+   */
+  Object invoke(int methodIndex, Object routeInstance, Object[] parameters) throws Throwable;
+}
@@ -23,6 +23,11 @@ public enum HttpMethod
   DELETE,
   HEAD;
 
+  /*
+   * This method's bit in the respondsToMethods mask of a route.
+   */
+  final int bit = 1 << ordinal();
+
   /**
    *
    * @param servletMethod
@@ -31,13 +36,40 @@ public enum HttpMethod
    */
   static public HttpMethod fromServletMethod(String servletMethod)
   {
-    for (HttpMethod httpMethod : values())
+    if (servletMethod == null)
+    {
+      return null;
+    }
+
+    switch (servletMethod)
     {
-      if (httpMethod.toString().equalsIgnoreCase(servletMethod))
-      {
-        return httpMethod;
-      }
+      case "GET":
+        return GET;
+
+      case "POST":
+        return POST;
+
+      case "PUT":
+        return PUT;
+
+      case "DELETE":
+        return DELETE;
+
+      case "HEAD":
+        return HEAD;
+
+      default:
+        /*
+         * Containers pass the method as sent which is almost always upper case.
+         */
+        for (HttpMethod httpMethod : values())
+        {
+          if (httpMethod.toString().equalsIgnoreCase(servletMethod))
+          {
+            return httpMethod;
+          }
+        }
+        return null;
     }
-    return null;
   }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/*
+ * The JAXBContext of one content class and pools of its marshallers and unmarshallers. Creating the context is one of the
+ * most expensive JAXB operations so the bridges of the RequestContent and return types of the routes are created when the
+ * routing table is built.
+ */
+class JAXBBridge implements ContentReader
+{
+  final Class contentClass;
+
+  private final JAXBContext context;
+
+  private final ConverterPool<Marshaller> marshallers;
+
+  private final ConverterPool<Unmarshaller> unmarshallers;
+
+  JAXBBridge(final Class contentClass, int poolSize) throws RoutesException
+  {
+    this.contentClass = contentClass;
+
+    try
+    {
+      context = JAXBContext.newInstance(contentClass);
+    }
+    catch (JAXBException e)
+    {
+      throw new RoutesException("Unable to create JAXBContext for: " + contentClass.getName(), e);
+    }
+
+    marshallers = new ConverterPool<Marshaller>(poolSize)
+    {
+      @Override
+      Marshaller create() throws RoutesException
+      {
+        try
+        {
+          return context.createMarshaller();
+        }
+        catch (JAXBException e)
+        {
+          throw new RoutesException("Unable to create JAXB marshaller for: " + contentClass.getName(), e);
+        }
+      }
+    };
+
+    unmarshallers = new ConverterPool<Unmarshaller>(poolSize)
+    {
+      @Override
+      Unmarshaller create() throws RoutesException
+      {
+        try
+        {
+          return context.createUnmarshaller();
+        }
+        catch (JAXBException e)
+        {
+          throw new RoutesException("Unable to create JAXB unmarshaller for: " + contentClass.getName(), e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Object read(InputStream inputStream, Class contentClass) throws RoutesException
+  {
+    Unmarshaller unmarshaller = unmarshallers.borrow();
+    Object content;
+    try
+    {
+      content = unmarshaller.unmarshal(inputStream);
+    }
+    catch (JAXBException e)
+    {
+      throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
+    }
+    finally
+    {
+      unmarshallers.release(unmarshaller);
+    }
+
+    return content;
+  }
+
+  void marshal(Object content, OutputStream outputStream) throws JAXBException
+  {
+    Marshaller marshaller = marshallers.borrow();
+    try
+    {
+      marshaller.marshal(content, outputStream);
+    }
+    finally
+    {
+      marshallers.release(marshaller);
+    }
+  }
+}
@@ -23,31 +23,58 @@ import org.jdom2.output.XMLOutputter;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
 
-public class JDOMBridge
+/*
+ * SAX builders keep the XML parser they create between builds but aren't thread safe so they are pooled. Outputters are
+ * thread safe so one is shared by all responses.
+ */
+public class JDOMBridge implements ContentReader
 {
-  static <RequestContentType extends Object> RequestContentType parseRequestContent(byte[] contentBytes, ContentConversionType contentConversionType, Class<RequestContentType> contentClass) throws IOException
+  private static final XMLOutputter XML_OUTPUTTER = new XMLOutputter();
+
+  final ConverterPool<SAXBuilder> saxBuilders;
+
+  JDOMBridge(int poolSize)
+  {
+    saxBuilders = new ConverterPool<SAXBuilder>(poolSize)
+    {
+      @Override
+      SAXBuilder create()
+      {
+        return new SAXBuilder();
+      }
+    };
+  }
+
+  @Override
+  public Object read(InputStream inputStream, Class contentClass) throws IOException, RoutesException
   {
+    SAXBuilder saxBuilder = saxBuilders.borrow();
+    Document document;
     try
     {
-      Document document = new SAXBuilder().build(new StringReader(new String(contentBytes)));
-      return (RequestContentType) ((contentConversionType == ContentConversionType.JDOM2_DOCUMENT) ? document : document.getRootElement());
+      document = saxBuilder.build(inputStream);
     }
     catch (JDOMException e)
     {
       throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
     }
+    finally
+    {
+      saxBuilders.release(saxBuilder);
+    }
+
+    return (contentClass == Element.class) ? document.getRootElement() : document;
   }
 
- static void sendJdom2Document(Object response, HttpServletResponse servletResponse) throws IOException
+  static void sendJdom2Document(Object response, HttpServletResponse servletResponse) throws IOException
   {
-    new XMLOutputter().output((Document)response, servletResponse.getWriter());
+    XML_OUTPUTTER.output((Document) response, servletResponse.getWriter());
   }
 
   static void sendJdom2Element(Object response, HttpServletResponse servletResponse) throws IOException
   {
-    new XMLOutputter().output((Element)response, servletResponse.getWriter());
+    XML_OUTPUTTER.output((Element) response, servletResponse.getWriter());
   }
-
 }
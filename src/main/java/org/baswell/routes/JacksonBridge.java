@@ -15,22 +15,81 @@
  */
 package org.baswell.routes;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
+/*
+ * Object mappers are expensive to create and thread safe once configured so all requests share one (see
+ * RoutesConfiguration.jacksonObjectMapper). The readers and writers of the routes are created when the routing table is
+ * built and passed back here as Objects so classes outside this one can be loaded without Jackson on the classpath.
+ */
 public class JacksonBridge
 {
-  static <RequestContentType extends Object> RequestContentType parseJackson(byte[] contentBytes, Type contentType) throws IOException
+  private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+  static ObjectMapper getObjectMapper(RoutesConfiguration configuration) throws RoutesException
+  {
+    if (configuration.jacksonObjectMapper == null)
+    {
+      return DEFAULT_OBJECT_MAPPER;
+    }
+    else if (configuration.jacksonObjectMapper instanceof ObjectMapper)
+    {
+      return (ObjectMapper) configuration.jacksonObjectMapper;
+    }
+    else
+    {
+      throw new RoutesException("RoutesConfiguration.jacksonObjectMapper must be a " + ObjectMapper.class.getName() + " not a " + configuration.jacksonObjectMapper.getClass().getName());
+    }
+  }
+
+  static Object createReader(RoutesConfiguration configuration, Type contentType) throws RoutesException
+  {
+    ObjectMapper objectMapper = getObjectMapper(configuration);
+    return objectMapper.readerFor(objectMapper.getTypeFactory().constructType(contentType));
+  }
+
+  /*
+   * A writer fixed to the declared type is only used when the runtime type can't be a subclass with more properties (a final
+   * class) or the declared type carries generic information the runtime type doesn't (ex. List<Order>).
+   */
+  static Object createWriter(RoutesConfiguration configuration, Type responseType) throws RoutesException
+  {
+    ObjectMapper objectMapper = getObjectMapper(configuration);
+    if ((responseType instanceof ParameterizedType) || ((responseType instanceof Class) && Modifier.isFinal(((Class) responseType).getModifiers())))
+    {
+      JavaType javaType = objectMapper.getTypeFactory().constructType(responseType);
+      return objectMapper.writerFor(javaType);
+    }
+    else
+    {
+      return objectMapper.writer();
+    }
+  }
+
+  static <RequestContentType extends Object> RequestContentType parseJackson(RoutesConfiguration configuration, Object reader, InputStream inputStream, Type contentType) throws IOException
+  {
+    ObjectReader objectReader = (reader == null) ? (ObjectReader) createReader(configuration, contentType) : (ObjectReader) reader;
+    return (RequestContentType) objectReader.readValue(inputStream);
+  }
+
+  static Object createParser(RoutesConfiguration configuration, InputStream inputStream) throws IOException
   {
-    return (RequestContentType) new ObjectMapper().readValue(contentBytes, TypeFactory.defaultInstance().constructType(contentType));
+    return getObjectMapper(configuration).getFactory().createParser(inputStream);
   }
 
-  static void sendJackson(Object response, HttpServletResponse servletResponse) throws IOException
+  static void sendJackson(RoutesConfiguration configuration, Object writer, Object response, HttpServletResponse servletResponse) throws IOException
   {
-    new ObjectMapper().writeValue(servletResponse.getWriter(), response);
+    ObjectWriter objectWriter = (writer == null) ? getObjectMapper(configuration).writer() : (ObjectWriter) writer;
+    objectWriter.writeValue(servletResponse.getOutputStream(), response);
   }
 }
@@ -17,20 +17,19 @@ package org.baswell.routes;
 
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 class MatchedRoute
 {
   final RouteNode routeNode;
 
-  final List<Matcher> pathMatchers;
+  final List<Object> pathMatches;
 
-  final Map<String, Matcher> parameterMatchers;
+  final Map<String, Object> parameterMatches;
 
-  public MatchedRoute(RouteNode routeNode, List<Matcher> pathMatchers, Map<String, Matcher> parameterMatchers)
+  public MatchedRoute(RouteNode routeNode, List<Object> pathMatches, Map<String, Object> parameterMatches)
   {
     this.routeNode = routeNode;
-    this.pathMatchers = pathMatchers;
-    this.parameterMatchers = parameterMatchers;
+    this.pathMatches = pathMatches;
+    this.parameterMatches = parameterMatches;
   }
 }
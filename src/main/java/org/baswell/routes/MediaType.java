@@ -62,6 +62,11 @@ public enum MediaType
    */
   public final List<String> extensions;
 
+  /*
+   * This media type's bit in the respondsToMedia mask of a route.
+   */
+  final int bit = 1 << ordinal();
+
   /**
    *
    * @param mimeTypes A comma delimitted list of mime types
@@ -16,11 +16,12 @@
 package org.baswell.routes;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,47 +35,189 @@ class MethodPipeline
 
   final RoutesLogger logger;
 
-  MethodPipeline(RoutesConfiguration routesConfiguration)
+  MethodPipeline(RoutingTable routingTable)
   {
-    this.routesConfiguration = routesConfiguration;
-    responseProcessor = new ResponseProcessor(routesConfiguration);
+    routesConfiguration = routingTable.routesConfiguration;
+    responseProcessor = new ResponseProcessor(routingTable);
     logger = routesConfiguration.logger;
   }
   
-  void invoke(RouteNode routeNode, HttpServletRequest servletRequest, HttpServletResponse servletResponse, HttpMethod httpMethod,
-              RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters, RequestContent requestContent, List<Matcher> pathMatchers, Map<String, Matcher> parameterMatchers) throws IOException, ServletException, RouteInstanceBorrowException
+  /*
+   * Returns true if the pipeline is finished asynchronously (the route method returned a CompletionStage) in which case the
+   * pipeline completes the request's AsyncContext.
+   */
+  boolean invoke(RouteNode routeNode, HttpServletRequest servletRequest, HttpServletResponse servletResponse, HttpMethod httpMethod,
+              RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters, RequestContent requestContent, List<Object> pathMatches, Map<String, Object> parameterMatches) throws IOException, ServletException, RouteInstanceBorrowException
   {
     MethodInvoker invoker = new MethodInvoker(servletRequest, servletResponse, httpMethod, path, parameters, requestedMediaType, requestContent, routeNode.routeConfiguration);
     Object routeInstance = routeNode.instance.create();
 
-    int afterRouteMethodIndex = 0; // If an exception thrown from @AfterRoute method, don't call it again in the exception handling logic below
+    boolean completesAsync = false;
     try
     {
-      for (BeforeRouteNode beforeNode : routeNode.beforeRouteNodes)
+      Object response;
+      try
       {
-        Object beforeResponse = invoker.invoke(routeInstance, beforeNode.method, beforeNode.parameters, pathMatchers, parameterMatchers);
-        if (beforeNode.returnsBoolean && (beforeResponse != null) && (!(Boolean)beforeResponse))
+        for (BeforeRouteNode beforeNode : routeNode.beforeRouteNodes)
         {
-          return;
+          Object beforeResponse = invoker.invoke(routeInstance, beforeNode.invoker, beforeNode.binders, pathMatches, parameterMatches);
+          if (beforeNode.returnsBoolean && (beforeResponse != null) && (!(Boolean)beforeResponse))
+          {
+            return false;
+          }
+        }
+
+        // If provided set the configured content type. A route method can override this by setting HttpServletResponse.setContentType since we do it before the call.
+        if (routeNode.routeConfiguration.contentType != null)
+        {
+          servletResponse.setContentType(routeNode.routeConfiguration.contentType);
+        }
+
+        for (Map.Entry<String, List<String>> entry : routeNode.routeConfiguration.defaultParameters.entrySet())
+        {
+          if (!parameters.contains(entry.getKey()))
+          {
+            parameters.set(entry.getKey(), entry.getValue());
+          }
         }
+
+        response = invoker.invoke(routeInstance, routeNode.invoker, routeNode.binders, pathMatches, parameterMatches);
+      }
+      catch (Error error)
+      {
+        // Errors aren't handled by the pipeline (no after nodes are run) and go straight to the container.
+        throw error;
+      }
+      catch (Throwable exception)
+      {
+        complete(routeNode, invoker, routeInstance, null, exception, pathMatches, parameterMatches);
+        return false;
+      }
+
+      if (routeNode.returnsCompletionStage && (response != null))
+      {
+        completesAsync = completeAsync(routeNode, invoker, routeInstance, (CompletionStage<?>) response, pathMatches, parameterMatches);
+      }
+      else
+      {
+        complete(routeNode, invoker, routeInstance, response, null, pathMatches, parameterMatches);
+      }
+      return completesAsync;
+    }
+    finally
+    {
+      if (!completesAsync)
+      {
+        returnRouteInstance(routeNode, routeInstance);
       }
+    }
+  }
 
-      // If provided set the configured content type. A route method can override this by setting HttpServletResponse.setContentType since we do it before the call.
-      if (routeNode.routeConfiguration.contentType != null)
+  /*
+   * Puts the request in asynchronous mode and finishes the pipeline when the stage completes. If the request times out or
+   * fails before the stage completes the container side finishes the request (see AsyncExchange) and the stage's result is
+   * ignored. If the request doesn't support asynchronous processing the current thread waits for the stage to complete
+   * instead. Returns true if the pipeline will be finished asynchronously.
+   */
+  boolean completeAsync(final RouteNode routeNode, final MethodInvoker invoker, final Object routeInstance, CompletionStage<?> completionStage, final List<Object> pathMatches, final Map<String, Object> parameterMatches) throws IOException, ServletException
+  {
+    final HttpServletRequest servletRequest = invoker.request;
+    if (!servletRequest.isAsyncSupported())
+    {
+      Object response = null;
+      Throwable exception = null;
+      try
+      {
+        response = completionStage.toCompletableFuture().get();
+      }
+      catch (ExecutionException e)
+      {
+        exception = e.getCause();
+      }
+      catch (InterruptedException e)
       {
-        servletResponse.setContentType(routeNode.routeConfiguration.contentType);
+        Thread.currentThread().interrupt();
+        exception = e;
       }
 
-      for (Map.Entry<String, List<String>> entry : routeNode.routeConfiguration.defaultParameters.entrySet())
+      complete(routeNode, invoker, routeInstance, response, exception, pathMatches, parameterMatches);
+      return false;
+    }
+
+    final AsyncExchange exchange = new AsyncExchange(servletRequest, invoker.response, routesConfiguration, new Runnable()
+    {
+      @Override
+      public void run()
       {
-        if (!parameters.contains(entry.getKey()))
+        returnRouteInstance(routeNode, routeInstance);
+      }
+    });
+
+    completionStage.whenComplete(new BiConsumer<Object, Throwable>()
+    {
+      @Override
+      public void accept(Object response, Throwable exception)
+      {
+        // The request timed out or failed first and has already been completed by the container.
+        if (!exchange.finish())
         {
-          parameters.set(entry.getKey(), entry.getValue());
+          return;
+        }
+
+        try
+        {
+          if (exception instanceof CompletionException)
+          {
+            exception = exception.getCause();
+          }
+
+          complete(routeNode, invoker, routeInstance, response, exception, pathMatches, parameterMatches);
+        }
+        catch (Throwable e)
+        {
+          if (logger != null)
+          {
+            logger.logError("Route method: " + routeNode.method + " completed with exception.", (e instanceof Exception) ? (Exception) e : new RuntimeException(e));
+          }
+
+          try
+          {
+            if (!invoker.response.isCommitted())
+            {
+              invoker.response.sendError(500);
+            }
+          }
+          catch (Exception exc)
+          {}
+        }
+        finally
+        {
+          returnRouteInstance(routeNode, routeInstance);
+          exchange.complete();
         }
       }
+    });
 
-      Object response = invoker.invoke(routeInstance, routeNode.method, routeNode.parameters, pathMatchers, parameterMatchers);
-      responseProcessor.processResponse(routeNode.responseType, routeNode.contentConversionType, response, routeNode.routeConfiguration.contentType, routeNode.routeConfiguration, servletRequest, servletResponse);
+    return true;
+  }
+
+  /*
+   * Processes the route method response (or the exception thrown by the before or route method) and runs the after nodes.
+   */
+  void complete(RouteNode routeNode, MethodInvoker invoker, Object routeInstance, Object response, Throwable exception, List<Object> pathMatches, Map<String, Object> parameterMatches) throws IOException, ServletException
+  {
+    HttpServletRequest servletRequest = invoker.request;
+    HttpServletResponse servletResponse = invoker.response;
+
+    int afterRouteMethodIndex = 0; // If an exception thrown from @AfterRoute method, don't call it again in the exception handling logic below
+    try
+    {
+      if (exception != null)
+      {
+        throw exception;
+      }
+
+      responseProcessor.processResponse(routeNode.responseType, routeNode.contentConversionType, routeNode.responseContentWriter, response, routeNode.routeConfiguration.contentType, routeNode.routeConfiguration, servletRequest, servletResponse);
 
       boolean success = getStatus(servletResponse) < 300;
       for (AfterRouteNode afterNode : routeNode.afterRouteNodes)
@@ -85,13 +228,11 @@ class MethodPipeline
           continue;
         }
 
-        invoker.invoke(routeInstance, afterNode.method, afterNode.parameters, pathMatchers, parameterMatchers);
+        invoker.invoke(routeInstance, afterNode.invoker, afterNode.binders, pathMatches, parameterMatches);
       }
     }
-    catch (InvocationTargetException e)
+    catch (Throwable targetException)
     {
-      Throwable targetException = e.getTargetException();
-
       if (targetException instanceof HaltPipeline)
       {
         return;
@@ -130,13 +271,13 @@ class MethodPipeline
         {
           try
           {
-            invoker.invoke(routeInstance, afterNode.method, afterNode.parameters, pathMatchers, parameterMatchers);
+            invoker.invoke(routeInstance, afterNode.invoker, afterNode.binders, pathMatches, parameterMatches);
           }
-          catch (Exception exc)
+          catch (Throwable exc)
           {
             if (logger != null)
             {
-              logger.logError("AfterRoute method: " + afterNode.method + " threw exception.", exc);
+              logger.logError("AfterRoute method: " + afterNode.method + " threw exception.", (exc instanceof Exception) ? (Exception) exc : new RuntimeException(exc));
             }
           }
         }
@@ -144,7 +285,15 @@ class MethodPipeline
 
       if (!exceptionHandled)
       {
-        if (targetException instanceof RuntimeException)
+        if (targetException instanceof IOException)
+        {
+          throw (IOException) targetException;
+        }
+        else if (targetException instanceof ServletException)
+        {
+          throw (ServletException) targetException;
+        }
+        else if (targetException instanceof RuntimeException)
         {
           throw (RuntimeException) targetException;
         }
@@ -158,30 +307,23 @@ class MethodPipeline
         }
       }
     }
-    finally
+  }
+
+  void returnRouteInstance(RouteNode routeNode, Object routeInstance)
+  {
+    if (routeNode.instance.createdFromFactory)
     {
-      if (routeNode.instance.createdFromFactory)
+      try
       {
-        try
-        {
-          routeNode.instance.factory.returnRouteInstance(routeInstance);
-        }
-        catch (Exception e)
-        {}
+        routeNode.instance.factory.returnRouteInstance(routeInstance);
       }
+      catch (Exception e)
+      {}
     }
   }
 
   static int getStatus(HttpServletResponse response)
   {
-    try
-    {
-      Method method = response.getClass().getMethod("getStatus");
-      return (Integer)method.invoke(response);
-    }
-    catch (Exception e)
-    {
-      return 0;
-    }
+    return response.getStatus();
   }
 }
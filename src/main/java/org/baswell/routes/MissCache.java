@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * Remembers requests that didn't match any route so the next identical request (same {@link RoutesCacheKey}) can skip the
+ * route lookup. The cache is a fixed size array of keys indexed by the key's hash. A new miss simply replaces whatever key
+ * was in its slot so every operation is one array read or write, the cache never grows past its size and it never takes a
+ * lock. A request is only reported as a known miss if the key in its slot is equal to the request's key so a collision can
+ * cost a lookup but never hide a route.
+ * </p>
+ *
+ * <p>
+ * The routing table creates a new (empty) miss cache every time its routes are indexed.
+ * </p>
+ *
+ * @see RoutesConfiguration#missCacheSize
+ */
+class MissCache
+{
+  private final AtomicReferenceArray<RoutesCacheKey> keys;
+
+  private final int slotMask;
+
+  MissCache(int size)
+  {
+    int numberSlots = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+    keys = new AtomicReferenceArray<RoutesCacheKey>(numberSlots);
+    slotMask = numberSlots - 1;
+  }
+
+  boolean contains(RoutesCacheKey key)
+  {
+    RoutesCacheKey cachedKey = keys.get(slot(key));
+    return (cachedKey != null) && cachedKey.equals(key);
+  }
+
+  void add(RoutesCacheKey key)
+  {
+    keys.lazySet(slot(key), key);
+  }
+
+  private int slot(RoutesCacheKey key)
+  {
+    int hash = key.hashCode() * 0x9e3779b9;
+    return (hash ^ (hash >>> 16)) & slotMask;
+  }
+}
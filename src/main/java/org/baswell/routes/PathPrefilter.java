@@ -0,0 +1,429 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.baswell.routes.CriterionForPathSegment.RequestPathSegmentCrierionType.*;
+
+/**
+ * <p>
+ * Decides with a single pass over the request URI (no substring, no regular expression) whether a request passed to the
+ * {@link RoutesFilter} can be routed at all. The fixed leading path segments of every route of one {@link RoutingSnapshot}
+ * and the {@link RoutesConfiguration#routesMetaPath} are compiled into a character trie. The <code>ONLY</code> and
+ * <code>EXCEPT</code> patterns of the filter that are literals or literal prefixes (<code>/api/.*</code>) are compiled into
+ * the same trie. Requests whose path leaves the trie before reaching the end of a route prefix can't match any route.
+ * </p>
+ *
+ * <p>
+ * The trie is walked with two cursors: one for the route prefixes (case folded if {@link RoutesConfiguration#caseInsensitive})
+ * and one for the filter patterns (always case sensitive like the regular expressions they replace). <code>ONLY</code> and
+ * <code>EXCEPT</code> patterns that are literal suffixes (<code>.*\.html</code>) are checked with
+ * {@link String#regionMatches(int, String, int, int)}. All other patterns are still matched as regular expressions but only
+ * when the trie didn't already decide the request.
+ * </p>
+ *
+ * <p>
+ * The trie only ever errs on the side of routing: paths with escapes ('%' or '+', the route matching is done on the decoded
+ * path) are always candidates for routes and paths with characters outside of printable ASCII are checked the way the
+ * filter always checked them.
+ * </p>
+ */
+class PathPrefilter
+{
+  static final int ROUTE_PREFIX = 1;
+
+  static final int ROUTE_EXACT = 2;
+
+  static final int ONLY_PREFIX = 4;
+
+  static final int ONLY_EXACT = 8;
+
+  static final int EXCEPT_PREFIX = 16;
+
+  static final int EXCEPT_EXACT = 32;
+
+  final RoutingSnapshot snapshot;
+
+  private final Node root = new Node();
+
+  private final boolean caseInsensitive;
+
+  private final List<Pattern> onlyPatterns;
+
+  private final List<Pattern> exceptPatterns;
+
+  private final boolean hasOnly;
+
+  private final String[] onlySuffixes;
+
+  private final String[] exceptSuffixes;
+
+  /*
+   * The ONLY and EXCEPT patterns that are neither literals, literal prefixes nor literal suffixes.
+   */
+  private final List<Pattern> onlyFallbackPatterns;
+
+  private final List<Pattern> exceptFallbackPatterns;
+
+  /**
+   * @param onlyPatterns The ONLY patterns of the filter or null if none.
+   * @param exceptPatterns The EXCEPT patterns of the filter or null if none.
+   */
+  PathPrefilter(RoutingSnapshot snapshot, RoutesConfiguration routesConfiguration, List<Pattern> onlyPatterns, List<Pattern> exceptPatterns)
+  {
+    this.snapshot = snapshot;
+    caseInsensitive = routesConfiguration.caseInsensitive;
+    this.onlyPatterns = onlyPatterns;
+    this.exceptPatterns = exceptPatterns;
+
+    for (RouteNode routeNode : snapshot.routeNodes)
+    {
+      List<String> fixedSegments = new ArrayList<String>();
+      boolean exact = true;
+      if (routeNode.criteria.pathCriteria != null)
+      {
+        for (CriterionForPathSegment criterion : routeNode.criteria.pathCriteria)
+        {
+          if (criterion.type != FIXED)
+          {
+            exact = false;
+            break;
+          }
+          fixedSegments.add(criterion.value);
+        }
+      }
+      addRoutePrefix(fixedSegments, exact);
+    }
+
+    if (routesConfiguration.hasRoutesMetaPath())
+    {
+      addRoutePrefix(RequestPath.parseUrlSegments(routesConfiguration.routesMetaPath), false);
+    }
+
+    hasOnly = onlyPatterns != null;
+    List<String> onlySuffixes = new ArrayList<String>();
+    onlyFallbackPatterns = compilePatterns(onlyPatterns, ONLY_PREFIX, ONLY_EXACT, onlySuffixes);
+    this.onlySuffixes = onlySuffixes.toArray(new String[onlySuffixes.size()]);
+
+    List<String> exceptSuffixes = new ArrayList<String>();
+    exceptFallbackPatterns = compilePatterns(exceptPatterns, EXCEPT_PREFIX, EXCEPT_EXACT, exceptSuffixes);
+    this.exceptSuffixes = exceptSuffixes.toArray(new String[exceptSuffixes.size()]);
+  }
+
+  /*
+   * Segments that can't be case folded the same way String.regionMatches(true, ...) folds them (non ASCII) end the prefix.
+   */
+  void addRoutePrefix(List<String> segments, boolean exact)
+  {
+    StringBuilder prefix = new StringBuilder();
+    for (String segment : segments)
+    {
+      if (caseInsensitive && !isAscii(segment))
+      {
+        exact = false;
+        break;
+      }
+
+      prefix.append('/');
+      for (int i = 0; i < segment.length(); i++)
+      {
+        prefix.append(caseInsensitive ? toLowerCaseAscii(segment.charAt(i)) : segment.charAt(i));
+      }
+    }
+    root.add(prefix, exact ? ROUTE_EXACT : ROUTE_PREFIX);
+  }
+
+  /**
+   * @return False if the request can't be routed (filtered by ONLY or EXCEPT or no route can match its path).
+   */
+  boolean accepts(String uri, String contextPath)
+  {
+    int start = contextPath.length();
+    int end = uri.length();
+    if (start > end)
+    {
+      return acceptsByPatterns(uri, contextPath);
+    }
+
+    boolean routeCandidate = !uri.startsWith(contextPath) || ((start < end) && (uri.charAt(start) != '/'));
+    boolean onlyMatched = false;
+    boolean exceptMatched = false;
+
+    Node routeCursor = routeCandidate ? null : root;
+    Node filterCursor = root;
+    for (int i = start; ; i++)
+    {
+      boolean atEnd = i == end;
+      if (routeCursor != null)
+      {
+        int flags = routeCursor.flags;
+        if (((flags & ROUTE_PREFIX) != 0) && (atEnd || (uri.charAt(i) == '/')))
+        {
+          routeCandidate = true;
+        }
+        else if (((flags & ROUTE_EXACT) != 0) && (atEnd || ((i == (end - 1)) && (uri.charAt(i) == '/'))))
+        {
+          routeCandidate = true;
+        }
+      }
+
+      if (filterCursor != null)
+      {
+        int flags = filterCursor.flags;
+        if (((flags & ONLY_PREFIX) != 0) || (atEnd && ((flags & ONLY_EXACT) != 0)))
+        {
+          onlyMatched = true;
+        }
+        if (((flags & EXCEPT_PREFIX) != 0) || (atEnd && ((flags & EXCEPT_EXACT) != 0)))
+        {
+          exceptMatched = true;
+        }
+      }
+
+      if (atEnd)
+      {
+        break;
+      }
+
+      char c = uri.charAt(i);
+      if ((c <= ' ') || (c >= 0x7f))
+      {
+        return acceptsByPatterns(uri, contextPath);
+      }
+      else if ((c == '%') || (c == '+'))
+      {
+        routeCandidate = true;
+      }
+
+      if (routeCursor != null)
+      {
+        routeCursor = routeCandidate ? null : routeCursor.child(caseInsensitive ? toLowerCaseAscii(c) : c);
+      }
+      if (filterCursor != null)
+      {
+        filterCursor = filterCursor.child(c);
+      }
+    }
+
+    if (!routeCandidate || exceptMatched)
+    {
+      return false;
+    }
+
+    if (hasOnly && !onlyMatched)
+    {
+      onlyMatched = endsWithOne(uri, start, onlySuffixes) || matchesOne(uri, contextPath, onlyFallbackPatterns);
+      if (!onlyMatched)
+      {
+        return false;
+      }
+    }
+
+    return !endsWithOne(uri, start, exceptSuffixes) && !matchesOne(uri, contextPath, exceptFallbackPatterns);
+  }
+
+  /*
+   * The checks the filter always did (for paths the trie can't decide).
+   */
+  boolean acceptsByPatterns(String uri, String contextPath)
+  {
+    if ((onlyPatterns == null) && (exceptPatterns == null))
+    {
+      return true;
+    }
+
+    String requestPath = uri.substring(contextPath.length());
+    return ((onlyPatterns == null) || matchesOne(requestPath, onlyPatterns)) && ((exceptPatterns == null) || !matchesOne(requestPath, exceptPatterns));
+  }
+
+  /*
+   * Adds the literals and literal prefixes to the trie and the literal suffixes to the given list. Returns the patterns that
+   * are none of these (null if none).
+   */
+  List<Pattern> compilePatterns(List<Pattern> patterns, int prefixFlag, int exactFlag, List<String> suffixes)
+  {
+    if (patterns == null)
+    {
+      return null;
+    }
+
+    List<Pattern> fallbackPatterns = new ArrayList<Pattern>();
+    for (Pattern pattern : patterns)
+    {
+      String expression = pattern.pattern();
+      if (pattern.flags() != 0)
+      {
+        fallbackPatterns.add(pattern);
+        continue;
+      }
+
+      int start = expression.startsWith("^") ? 1 : 0;
+      int end = (expression.endsWith("$") && !expression.endsWith("\\$")) ? expression.length() - 1 : expression.length();
+      boolean anyPrefix = expression.startsWith(".*", start);
+      boolean anySuffix = (end - start >= 2) && expression.startsWith(".*", end - 2) && !expression.startsWith("\\.*", end - 3);
+      if (anyPrefix)
+      {
+        start += 2;
+      }
+      if (anySuffix && (end - 2 >= start))
+      {
+        end -= 2;
+      }
+      else
+      {
+        anySuffix = false;
+      }
+
+      String literal = literal(expression, start, end);
+      if ((literal == null) || (anyPrefix && anySuffix))
+      {
+        fallbackPatterns.add(pattern);
+      }
+      else if (anyPrefix)
+      {
+        suffixes.add(literal);
+      }
+      else
+      {
+        root.add(literal, anySuffix ? prefixFlag : exactFlag);
+      }
+    }
+    return fallbackPatterns.isEmpty() ? null : fallbackPatterns;
+  }
+
+  /*
+   * The text the given part of the regular expression matches or null if it isn't a literal (escaped punctuation is allowed).
+   */
+  static String literal(String expression, int start, int end)
+  {
+    StringBuilder literal = new StringBuilder();
+    for (int i = start; i < end; i++)
+    {
+      char c = expression.charAt(i);
+      if (c == '\\')
+      {
+        if ((++i == end) || Character.isLetterOrDigit(expression.charAt(i)))
+        {
+          return null;
+        }
+        literal.append(expression.charAt(i));
+      }
+      else if ((c <= ' ') || (c >= 0x7f) || ("^$.|?*+()[]{}".indexOf(c) != -1))
+      {
+        return null;
+      }
+      else
+      {
+        literal.append(c);
+      }
+    }
+    return literal.toString();
+  }
+
+  static char toLowerCaseAscii(char c)
+  {
+    return ((c >= 'A') && (c <= 'Z')) ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  static boolean isAscii(String value)
+  {
+    for (int i = 0; i < value.length(); i++)
+    {
+      if (value.charAt(i) >= 0x80)
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean endsWithOne(String uri, int start, String[] suffixes)
+  {
+    for (String suffix : suffixes)
+    {
+      if (((uri.length() - start) >= suffix.length()) && uri.regionMatches(uri.length() - suffix.length(), suffix, 0, suffix.length()))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean matchesOne(String uri, String contextPath, List<Pattern> patterns)
+  {
+    return (patterns != null) && matchesOne(uri.substring(contextPath.length()), patterns);
+  }
+
+  static boolean matchesOne(String requestPath, List<Pattern> patterns)
+  {
+    for (Pattern pattern : patterns)
+    {
+      if (pattern.matcher(requestPath).matches())
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Children are kept in parallel arrays sorted by character.
+   */
+  static class Node
+  {
+    char[] characters = new char[0];
+
+    Node[] children = new Node[0];
+
+    int flags;
+
+    Node child(char c)
+    {
+      int index = Arrays.binarySearch(characters, c);
+      return index < 0 ? null : children[index];
+    }
+
+    void add(CharSequence key, int flag)
+    {
+      Node node = this;
+      for (int i = 0; i < key.length(); i++)
+      {
+        char c = key.charAt(i);
+        int childIndex = Arrays.binarySearch(node.characters, c);
+        if (childIndex < 0)
+        {
+          childIndex = -(childIndex + 1);
+          char[] characters = new char[node.characters.length + 1];
+          Node[] children = new Node[node.children.length + 1];
+          System.arraycopy(node.characters, 0, characters, 0, childIndex);
+          System.arraycopy(node.children, 0, children, 0, childIndex);
+          characters[childIndex] = c;
+          children[childIndex] = new Node();
+          System.arraycopy(node.characters, childIndex, characters, childIndex + 1, node.characters.length - childIndex);
+          System.arraycopy(node.children, childIndex, children, childIndex + 1, node.children.length - childIndex);
+          node.characters = characters;
+          node.children = children;
+        }
+        node = node.children[childIndex];
+      }
+      node.flags |= flag;
+    }
+  }
+}
@@ -15,13 +15,7 @@
  */
 package org.baswell.routes;
 
-import org.xml.sax.SAXException;
-
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.JAXBException;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -30,8 +24,16 @@ import static org.baswell.routes.ContentConversionType.*;
 import static org.baswell.routes.RoutesMethods.*;
 
 /**
+ * <p>
  * Convenience class for accessing the content of a request.
+ * </p>
  *
+ * <p>
+ * Routes that consume the content sequentially can declare a {@code RequestContent<java.io.InputStream>},
+ * {@code RequestContent<java.io.Reader>} or {@code RequestContent<com.fasterxml.jackson.core.JsonParser>}. None of these
+ * buffer the content. The reader uses the character encoding of the request, or UTF-8 if the request doesn't have one.
+ * {@link #get()} returns null for all of them if the request has no content.
+ * </p>
  *
  * @param <ContentType>
  */
@@ -51,11 +53,15 @@ public class RequestContent<ContentType extends Object>
 
   private final AvailableLibraries availableLibraries;
 
+  private final ContentBridges contentBridges;
+
+  private final Object contentReader;
+
   private ContentType content;
 
   private boolean contentLoaded;
 
-  RequestContent(RoutesConfiguration configuration, HttpServletRequest request, Type contentType, MediaType expectedMediaType, String mimeType, AvailableLibraries availableLibraries)
+  RequestContent(RoutesConfiguration configuration, HttpServletRequest request, Type contentType, MediaType expectedMediaType, String mimeType, AvailableLibraries availableLibraries, ContentBridges contentBridges, Object contentReader)
   {
     this.configuration = configuration;
     this.request = request;
@@ -63,6 +69,8 @@ public class RequestContent<ContentType extends Object>
     this.expectedMediaType = expectedMediaType;
     this.mimeType = mimeType;
     this.availableLibraries = availableLibraries;
+    this.contentBridges = contentBridges;
+    this.contentReader = contentReader;
 
     contentClass = getClassFromType(contentType);
   }
@@ -76,17 +84,54 @@ public class RequestContent<ContentType extends Object>
     else
     {
       contentLoaded = true;
-      byte[] contentBytes = getContent();
 
-      if (contentBytes != null)
+      /*
+       * The conversion of JAXB classes and XML documents is decided by their type alone (see ContentConversionType) so there's
+       * no need to look at the content first.
+       */
+      if (contentReader instanceof ContentReader)
       {
-        MediaType mediaType = expectedMediaType;
+        InputStream inputStream = openContent();
+        if (inputStream != null)
+        {
+          content = (ContentType) ((ContentReader) contentReader).read(inputStream, contentClass);
+        }
+        return content;
+      }
+      else if (isStreamType(contentClass))
+      {
+        content = (ContentType) openStream();
+        return content;
+      }
+
+      MediaType mediaType = expectedMediaType;
 
-        if ((mediaType == null) && hasContent(mimeType))
+      if ((mediaType == null) && hasContent(mimeType))
+      {
+        mediaType = MediaType.findFromMimeType(mimeType);
+      }
+
+      /*
+       * JSON objects are deserialized straight from the request when the media type doesn't have to be guessed from the content.
+       */
+      if ((mediaType != null) && (contentClass != null) && (contentClass.getPackage() != null))
+      {
+        ContentConversionType contentConversionType = mapContentConversionType(contentClass, mediaType, availableLibraries);
+        if ((contentConversionType == JACKSON) || (contentConversionType == GSON))
         {
-          mediaType = MediaType.findFromMimeType(mimeType);
+          InputStream inputStream = openContent();
+          if (inputStream != null)
+          {
+            content = (contentConversionType == JACKSON) ? JacksonBridge.<ContentType>parseJackson(configuration, contentReader, inputStream, contentType) : GSONBridge.<ContentType>parseGson(configuration, contentReader, inputStream, contentType, request.getCharacterEncoding());
+          }
+          return content;
         }
+      }
+
+      byte[] contentBytes = getContent();
 
+      if (contentBytes != null)
+      {
         if (mediaType == null)
         {
           mediaType = MediaType.guessFromContent(new String(contentBytes));
@@ -110,31 +155,24 @@ public class RequestContent<ContentType extends Object>
               break;
 
             case GSON:
-              content = GSONBridge.parseGson(contentBytes, contentType);
+              content = GSONBridge.parseGson(configuration, contentReader, new ByteArrayInputStream(contentBytes), contentType, request.getCharacterEncoding());
               break;
 
             case JACKSON:
-              content = JacksonBridge.parseJackson(contentBytes, contentType);
+              content = JacksonBridge.parseJackson(configuration, contentReader, new ByteArrayInputStream(contentBytes), contentType);
               break;
 
             case JAXB:
-              try
-              {
-                content = (ContentType) JAXBContext.newInstance(contentClass).createUnmarshaller().unmarshal(new StringReader(new String(contentBytes)));
-              }
-              catch (JAXBException e)
-              {
-                throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
-              }
+              content = (ContentType) contentBridges.getJAXBBridge(contentClass).read(new ByteArrayInputStream(contentBytes), contentClass);
               break;
 
             case JDOM2_DOCUMENT:
             case JDOM2_ELEMENT:
-              content = parseJDOM(contentBytes, contentConversionType);
+              content = (ContentType) contentBridges.getJDOMBridge().read(new ByteArrayInputStream(contentBytes), contentClass);
               break;
 
             case W3C_NODE:
-              content = parseNode(contentBytes);
+              content = (ContentType) contentBridges.w3cBridge.read(new ByteArrayInputStream(contentBytes), contentClass);
               break;
           }
         }
@@ -144,28 +182,59 @@ public class RequestContent<ContentType extends Object>
     }
   }
 
-  ContentType parseJDOM(byte[] contentBytes, ContentConversionType contentConversionType) throws IOException
+  /*
+   * RequestContent types that give the route the request content to consume itself.
+   */
+  static boolean isStreamType(Class contentClass)
   {
-    return (ContentType)JDOMBridge.parseRequestContent(contentBytes, contentConversionType, contentClass);
+    return (contentClass == InputStream.class) || (contentClass == Reader.class) || ((contentClass != null) && contentClass.getName().equals("com.fasterxml.jackson.core.JsonParser"));
   }
 
-  ContentType parseNode(byte[] contentBytes) throws IOException
+  Object openStream() throws IOException
   {
-    try
+    InputStream inputStream = openContent();
+    if (inputStream == null)
     {
-      org.w3c.dom.Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(contentBytes));
-      return (ContentType) (contentType == org.w3c.dom.Document.class ? document : document.getDocumentElement());
+      return null;
     }
-    catch (ParserConfigurationException e)
+    else if (contentClass == InputStream.class)
     {
-      throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
+      return inputStream;
     }
-    catch (SAXException e)
+    else if (contentClass == Reader.class)
     {
-      throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
+      String characterEncoding = request.getCharacterEncoding();
+      return new InputStreamReader(inputStream, hasContent(characterEncoding) ? characterEncoding : "UTF-8");
+    }
+    else
+    {
+      return JacksonBridge.createParser(configuration, inputStream);
     }
   }
 
+  /*
+   * The request content stream or null if the request has no content.
+   */
+  InputStream openContent() throws IOException
+  {
+    InputStream inputStream = request.getInputStream();
+    if (inputStream == null)
+    {
+      return null;
+    }
+
+    PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, 1);
+    int firstByte = pushbackInputStream.read();
+    if (firstByte == -1)
+    {
+      return null;
+    }
+    else
+    {
+      pushbackInputStream.unread(firstByte);
+      return pushbackInputStream;
+    }
+  }
 
   byte[] getContent() throws IOException
   {
@@ -25,14 +25,30 @@ import jakarta.servlet.http.HttpServletRequest;
 import static org.baswell.routes.RoutesMethods.*;
 
 /**
+ * <p>
  * The parameters from an HTTP request. Default parameters for a route ({@link org.baswell.routes.Route#defaultParameters()})
  * will be present for any parameters not explicitly set in the HTTP request.
+ * </p>
+ *
+ * <p>
+ * Parameters created from a servlet parameter map are read straight from that map. A copy is only made the first time the
+ * parameters are modified ({@link #put(String, Object)}, {@link #remove(String)}) and the query string is only built
+ * when asked for.
+ * </p>
  */
 public class RequestParameters
 {
-  final Map<String, List<String>> parameters;
+  /*
+   * The parameter map given at construction. Never modified.
+   */
+  private final Map<String, String[]> parameterMap;
+
+  /*
+   * Null until the parameters are modified.
+   */
+  private Map<String, List<String>> parameters;
 
-  final String queryString;
+  private String queryString;
 
   public RequestParameters(HttpServletRequest request)
   {
@@ -41,26 +57,12 @@ public class RequestParameters
 
   public RequestParameters(Map<String, String[]> parameterMap)
   {
-    parameters = new HashMap<String, List<String>>();
-    StringBuilder queryStringBuilder = new StringBuilder();
-    int index = 0;
-    for (Entry<String, String[]> entry : parameterMap.entrySet())
-    {
-      String key = entry.getKey();
-      String[] values = entry.getValue();
-      parameters.put(key, new ArrayList<String>(Arrays.asList(values)));
-      for (String value : values)
-      {
-        if (index > 0) queryStringBuilder.append('&');
-        ++index;
-        queryStringBuilder.append(key).append('=').append(value);
-      }
-    }
-    queryString = queryStringBuilder.toString();
+    this.parameterMap = parameterMap;
   }
 
   public RequestParameters(String queryString)
   {
+    parameterMap = null;
     parameters = new HashMap<String, List<String>>();
     String[] parameterValues = queryString.split("&");
     for (String parameterValue : parameterValues)
@@ -89,7 +91,7 @@ public class RequestParameters
    */
   public boolean hasParameters()
   {
-    return !parameters.isEmpty();
+    return (parameters == null) ? !parameterMap.isEmpty() : !parameters.isEmpty();
   }
 
   /**
@@ -98,7 +100,7 @@ public class RequestParameters
    */
   public int size()
   {
-    return parameters.size();
+    return (parameters == null) ? parameterMap.size() : parameters.size();
   }
 
   /**
@@ -119,7 +121,7 @@ public class RequestParameters
    */
   public boolean contains(String name)
   {
-    return parameters.containsKey(name);
+    return (parameters == null) ? parameterMap.containsKey(name) : parameters.containsKey(name);
   }
 
   /**
@@ -129,25 +131,19 @@ public class RequestParameters
    */
   public boolean containsContent(String name)
   {
-    if (parameters.containsKey(name))
+    List<String> values = valueList(name);
+    if (values != null)
     {
-      List<String> values = parameters.get(name);
-      if (values != null)
+      for (int i = 0; i < values.size(); i++)
       {
-        for (String value : values)
+        String value = values.get(i);
+        if (value != null && !value.trim().isEmpty())
         {
-          if (value != null && !value.trim().isEmpty())
-          {
-            return true;
-          }
+          return true;
         }
       }
-      return false;
-    }
-    else
-    {
-      return false;
     }
+    return false;
   }
 
   /**
@@ -156,7 +152,7 @@ public class RequestParameters
    */
   public Map<String, List<String>> getParameterListMap()
   {
-    return new HashMap<String, List<String>>(parameters);
+    return new HashMap<String, List<String>>(materialized());
   }
 
   /**
@@ -166,12 +162,22 @@ public class RequestParameters
    */
   public Map<String, String> getParameterMap()
   {
-    Map<String, String> parameterMap = new HashMap<String, String>();
-    for (Entry<String, List<String>> entry : parameters.entrySet())
+    Map<String, String> singleValueMap = new HashMap<String, String>();
+    if (parameters == null)
+    {
+      for (Entry<String, String[]> entry : parameterMap.entrySet())
+      {
+        singleValueMap.put(entry.getKey(), entry.getValue()[0]);
+      }
+    }
+    else
     {
-      parameterMap.put(entry.getKey(), entry.getValue().get(0));
+      for (Entry<String, List<String>> entry : parameters.entrySet())
+      {
+        singleValueMap.put(entry.getKey(), entry.getValue().get(0));
+      }
     }
-    return parameterMap;
+    return singleValueMap;
   }
 
   /**
@@ -180,7 +186,7 @@ public class RequestParameters
    */
   public List<String> getParameterNames()
   {
-    return new ArrayList<String>(parameters.keySet());
+    return new ArrayList<String>((parameters == null) ? parameterMap.keySet() : parameters.keySet());
   }
 
   /**
@@ -201,10 +207,12 @@ public class RequestParameters
    */
   public String get(String name, @NotNull String defaultValue)
   {
-    if (parameters.containsKey(name))
+    List<String> values = valueList(name);
+    if (values != null)
     {
-      for (String value : parameters.get(name))
+      for (int i = 0; i < values.size(); i++)
       {
+        String value = values.get(i);
         if (hasContent(value))
         {
           return value;
@@ -217,10 +225,12 @@ public class RequestParameters
 
   public @Nullable String getOptionalString(String name, @Nullable String defaultValue)
   {
-    if (parameters.containsKey(name))
+    List<String> values = valueList(name);
+    if (values != null)
     {
-      for (String value : parameters.get(name))
+      for (int i = 0; i < values.size(); i++)
       {
+        String value = values.get(i);
         if (hasContent(value))
         {
           return value;
@@ -240,9 +250,10 @@ public class RequestParameters
   public List<String> getValues(String name)
   {
     List<String> values = new ArrayList<String>();
-    if (parameters.containsKey(name))
+    List<String> currentValues = valueList(name);
+    if (currentValues != null)
     {
-      values.addAll(parameters.get(name));
+      values.addAll(currentValues);
     }
     return values;
   }
@@ -265,9 +276,10 @@ public class RequestParameters
    */
   public Character getCharacter(String name, Character defaultValue)
   {
-    if (parameters.containsKey(name))
+    List<String> values = valueList(name);
+    if (values != null)
     {
-      return parameters.get(name).get(0).charAt(0);
+      return values.get(0).charAt(0);
     }
     else
     {
@@ -283,9 +295,10 @@ public class RequestParameters
   public List<Character> getCharacters(String name)
   {
     List<Character> values = new ArrayList<Character>();
-    if (parameters.containsKey(name))
+    List<String> currentValues = valueList(name);
+    if (currentValues != null)
     {
-      for (String value : parameters.get(name)) if (!values.isEmpty()) values.add(value.charAt(0));
+      for (String value : currentValues) if (!values.isEmpty()) values.add(value.charAt(0));
     }
     return values;
   }
@@ -784,7 +797,7 @@ public class RequestParameters
    */
   public void remove(String name)
   {
-    parameters.remove(name);
+    materialized().remove(name);
   }
 
   /**
@@ -808,6 +821,7 @@ public class RequestParameters
       values.add(value.toString());
     }
 
+    Map<String, List<String>> parameters = materialized();
     if (parameters.containsKey(name))
     {
       parameters.get(name).addAll(values);
@@ -818,15 +832,88 @@ public class RequestParameters
     }
   }
 
+  /**
+   * @return The parameters as a query string (without the leading '?'). Modifications made after construction are not included.
+   */
   @Override
   public String toString()
   {
+    String queryString = this.queryString;
+    if (queryString == null)
+    {
+      StringBuilder queryStringBuilder = new StringBuilder();
+      int index = 0;
+      for (Entry<String, String[]> entry : parameterMap.entrySet())
+      {
+        String key = entry.getKey();
+        for (String value : entry.getValue())
+        {
+          if (index > 0) queryStringBuilder.append('&');
+          ++index;
+          queryStringBuilder.append(key).append('=').append(value);
+        }
+      }
+      this.queryString = queryString = queryStringBuilder.toString();
+    }
     return queryString;
   }
 
   void set(String name, List<String> values)
   {
-    parameters.put(name, values);
+    materialized().put(name, values);
+  }
+
+  /*
+   * The current values of the given parameter without copying or null if not present. Must not be modified.
+   */
+  List<String> valueList(String name)
+  {
+    if (parameters == null)
+    {
+      String[] values = parameterMap.get(name);
+      return (values == null) ? null : Arrays.asList(values);
+    }
+    else
+    {
+      return parameters.get(name);
+    }
+  }
+
+  private Map<String, List<String>> materialized()
+  {
+    if (parameters == null)
+    {
+      Map<String, List<String>> parameters = new HashMap<String, List<String>>();
+      for (Entry<String, String[]> entry : parameterMap.entrySet())
+      {
+        parameters.put(entry.getKey(), new ArrayList<String>(Arrays.asList(entry.getValue())));
+      }
+      this.parameters = parameters;
+    }
+    return parameters;
+  }
+
+  /*
+   * A copy that doesn't share the parameter map given at construction (or anything else) with these parameters.
+   */
+  RequestParameters detach()
+  {
+    Map<String, String[]> detachedMap = new HashMap<String, String[]>();
+    if (parameters == null)
+    {
+      for (Entry<String, String[]> entry : parameterMap.entrySet())
+      {
+        detachedMap.put(entry.getKey(), entry.getValue().clone());
+      }
+    }
+    else
+    {
+      for (Entry<String, List<String>> entry : parameters.entrySet())
+      {
+        detachedMap.put(entry.getKey(), entry.getValue().toArray(new String[entry.getValue().size()]));
+      }
+    }
+    return new RequestParameters(detachedMap);
   }
 
   private String getNumber(String name) { return get(name).replace(",", "").trim(); }
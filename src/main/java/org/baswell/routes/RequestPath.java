@@ -18,6 +18,7 @@ package org.baswell.routes;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -41,29 +42,128 @@ import java.util.List;
  */
 public class RequestPath
 {
-  private final List<String> segments;
+  /*
+   * The decoded path the segment bounds point into. This is the request URI itself when there is nothing to decode.
+   */
+  private final String source;
+
+  /*
+   * Start (inclusive) and end (exclusive) offsets into source of each segment, two entries per segment. The bounds and the
+   * segment strings are shared with the views returned by pop and substring which only differ in first and size.
+   */
+  private final int[] bounds;
+
+  /*
+   * Segment strings, created the first time a segment is asked for.
+   */
+  private final String[] segmentStrings;
+
+  private final int first;
+
+  private final int size;
+
+  /*
+   * The raw request URI as given by the servlet container. Null for paths not created directly from a request.
+   */
+  final String uri;
 
-  private final String path;
+  private String path;
+
+  private int hash;
 
   RequestPath(HttpServletRequest servletRequest)
   {
-    this(parseUrlSegments(servletRequest.getRequestURI(), servletRequest.getContextPath()));
+    this(servletRequest.getRequestURI(), servletRequest.getContextPath(), true);
   }
 
   RequestPath(String path)
   {
-    this(parseUrlSegments(path, ""));
+    this(path, "", false);
   }
 
   RequestPath(List<String> segments)
   {
-    this.segments = segments == null ? new ArrayList<String>() : segments;
-    StringBuilder pathBuilder = new StringBuilder();
-    for (int i = 0; i < segments.size(); i++)
+    int size = segments == null ? 0 : segments.size();
+    StringBuilder sourceBuilder = new StringBuilder();
+    bounds = new int[size * 2];
+    segmentStrings = new String[size];
+    for (int i = 0; i < size; i++)
     {
-      pathBuilder.append('/').append(segments.get(i));
+      String segment = segments.get(i);
+      sourceBuilder.append('/');
+      bounds[i * 2] = sourceBuilder.length();
+      sourceBuilder.append(segment);
+      bounds[(i * 2) + 1] = sourceBuilder.length();
+      segmentStrings[i] = segment;
     }
-    path = pathBuilder.toString();
+    source = sourceBuilder.toString();
+    first = 0;
+    this.size = size;
+    uri = null;
+  }
+
+  /*
+   * Single pass over the path that only records where each segment starts and ends. Paths with escapes are decoded once
+   * first (with the same URLDecoder.decode call the routes have always used) and the bounds point into the decoded copy.
+   */
+  private RequestPath(String url, String contextPath, boolean fromRequest)
+  {
+    int start = url.startsWith(contextPath) ? contextPath.length() : 0;
+    String source = url;
+    if ((url.indexOf('%', start) != -1) || (url.indexOf('+', start) != -1))
+    {
+      source = URLDecoder.decode(url.substring(start));
+      start = 0;
+    }
+
+    int end = source.length();
+    while ((start < end) && (source.charAt(start) <= ' '))
+    {
+      ++start;
+    }
+    while ((end > start) && (source.charAt(end - 1) <= ' '))
+    {
+      --end;
+    }
+    if ((start < end) && (source.charAt(start) == '/'))
+    {
+      ++start;
+    }
+
+    int[] bounds = new int[16];
+    int size = 0;
+    int segmentStart = start;
+    for (int i = start; i <= end; i++)
+    {
+      if ((i == end) ? (segmentStart < end) : (source.charAt(i) == '/'))
+      {
+        if (bounds.length == (size * 2))
+        {
+          bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[size * 2] = segmentStart;
+        bounds[(size * 2) + 1] = i;
+        ++size;
+        segmentStart = i + 1;
+      }
+    }
+
+    this.source = source;
+    this.bounds = bounds;
+    segmentStrings = new String[size];
+    first = 0;
+    this.size = size;
+    uri = fromRequest ? url : null;
+  }
+
+  private RequestPath(RequestPath parent, int first, int size)
+  {
+    source = parent.source;
+    bounds = parent.bounds;
+    segmentStrings = parent.segmentStrings;
+    this.first = first;
+    this.size = size;
+    uri = null;
   }
 
   /**
@@ -72,7 +172,7 @@ public class RequestPath
    */
   public int size()
   {
-    return segments.size();
+    return size;
   }
 
   /**
@@ -83,7 +183,13 @@ public class RequestPath
    */
   public String get(int index) throws IndexOutOfBoundsException
   {
-    return segments.get(index);
+    int segmentIndex = segmentIndex(index);
+    String segment = segmentStrings[segmentIndex];
+    if (segment == null)
+    {
+      segmentStrings[segmentIndex] = segment = source.substring(bounds[segmentIndex * 2], bounds[(segmentIndex * 2) + 1]);
+    }
+    return segment;
   }
 
   /**
@@ -94,7 +200,13 @@ public class RequestPath
    */
   public char getCharacter(int index) throws IndexOutOfBoundsException
   {
-    return segments.get(index).charAt(0);
+    int segmentIndex = segmentIndex(index);
+    int start = bounds[segmentIndex * 2];
+    if (start == bounds[(segmentIndex * 2) + 1])
+    {
+      throw new StringIndexOutOfBoundsException("Segment at index " + index + " is empty.");
+    }
+    return source.charAt(start);
   }
 
   /**
@@ -105,7 +217,9 @@ public class RequestPath
    */
   public boolean getBoolean(int index) throws IndexOutOfBoundsException
   {
-    return Boolean.parseBoolean(get(index));
+    int segmentIndex = segmentIndex(index);
+    int start = bounds[segmentIndex * 2];
+    return ((bounds[(segmentIndex * 2) + 1] - start) == 4) && source.regionMatches(true, start, "true", 0, 4);
   }
 
   /**
@@ -117,7 +231,12 @@ public class RequestPath
    */
   public byte getByte(int index) throws IndexOutOfBoundsException, NumberFormatException
   {
-    return Byte.parseByte(get(index));
+    int value = getInteger(index);
+    if ((value < Byte.MIN_VALUE) || (value > Byte.MAX_VALUE))
+    {
+      throw new NumberFormatException("Value out of range. Value:\"" + get(index) + "\" Radix:10");
+    }
+    return (byte) value;
   }
 
   /**
@@ -129,7 +248,12 @@ public class RequestPath
    */
   public short getShort(int index) throws IndexOutOfBoundsException, NumberFormatException
   {
-    return Short.parseShort(get(index));
+    int value = getInteger(index);
+    if ((value < Short.MIN_VALUE) || (value > Short.MAX_VALUE))
+    {
+      throw new NumberFormatException("Value out of range. Value:\"" + get(index) + "\" Radix:10");
+    }
+    return (short) value;
   }
 
   /**
@@ -141,7 +265,8 @@ public class RequestPath
    */
   public int getInteger(int index) throws IndexOutOfBoundsException, NumberFormatException
   {
-    return Integer.parseInt(get(index));
+    int segmentIndex = segmentIndex(index);
+    return Integer.parseInt(source, bounds[segmentIndex * 2], bounds[(segmentIndex * 2) + 1], 10);
   }
 
   /**
@@ -153,7 +278,8 @@ public class RequestPath
    */
   public long getLong(int index) throws IndexOutOfBoundsException, NumberFormatException
   {
-    return Long.parseLong(get(index));
+    int segmentIndex = segmentIndex(index);
+    return Long.parseLong(source, bounds[segmentIndex * 2], bounds[(segmentIndex * 2) + 1], 10);
   }
 
   /**
@@ -187,7 +313,7 @@ public class RequestPath
    */
   public boolean startsWith(String path)
   {
-    return startsWith(parseUrlSegments(path));
+    return matches(path, true);
   }
 
 
@@ -198,7 +324,7 @@ public class RequestPath
    */
   public boolean startsWith(List<String> segments)
   {
-    if (segments.size() > this.segments.size())
+    if (segments.size() > size)
     {
       return false;
     }
@@ -206,7 +332,8 @@ public class RequestPath
     {
       for (int i = 0; i < segments.size(); i++)
       {
-        if (!segments.get(i).equals(this.segments.get(i)))
+        String segment = segments.get(i);
+        if (!segmentEquals(i, segment, 0, segment.length()))
         {
           return false;
         }
@@ -234,7 +361,11 @@ public class RequestPath
    */
   public RequestPath pop(int numberSegments) throws IndexOutOfBoundsException
   {
-    return new RequestPath(segments.subList(numberSegments, segments.size()));
+    if ((numberSegments < 0) || (numberSegments > size))
+    {
+      throw new IndexOutOfBoundsException("numberSegments: " + numberSegments + ", size: " + size);
+    }
+    return new RequestPath(this, first + numberSegments, size - numberSegments);
   }
 
   /**
@@ -257,16 +388,7 @@ public class RequestPath
    */
   public String getFileName()
   {
-    if (segments.isEmpty())
-    {
-      return null;
-    }
-    else
-    {
-      String fileNameCandidate = segments.get(segments.size() - 1);
-      int lastIndex = fileNameCandidate.lastIndexOf('.');
-      return lastIndex > 0 && lastIndex < fileNameCandidate.length() ? fileNameCandidate : null;
-    }
+    return fileExtensionIndex() == -1 ? null : get(size - 1);
   }
 
   /**
@@ -276,15 +398,8 @@ public class RequestPath
    */
   public String getFileExtension()
   {
-    String fileName = getFileName();
-    if (fileName != null)
-    {
-      return fileName.substring(fileName.lastIndexOf('.') + 1, fileName.length());
-    }
-    else
-    {
-      return null;
-    }
+    int extensionIndex = fileExtensionIndex();
+    return extensionIndex == -1 ? null : source.substring(extensionIndex, bounds[((first + size - 1) * 2) + 1]);
   }
 
   /**
@@ -295,7 +410,24 @@ public class RequestPath
    */
   public RequestPath substring(int index) throws IndexOutOfBoundsException
   {
-    return new RequestPath(path.substring(index));
+    /*
+     * The index is a character index into toString(). When it falls on either side of a segment's leading slash (or at the
+     * end) the result is a view of the remaining segments. Otherwise it cuts a segment in two and the remainder is parsed.
+     */
+    int position = 0;
+    for (int i = 0; i <= size; i++)
+    {
+      if ((index == position) || ((index == (position + 1)) && (i < size)))
+      {
+        return new RequestPath(this, first + i, size - i);
+      }
+      else if ((index < position) || (i == size))
+      {
+        break;
+      }
+      position += 1 + segmentLength(i);
+    }
+    return new RequestPath(toString().substring(index));
   }
 
   /**
@@ -305,7 +437,7 @@ public class RequestPath
    */
   public boolean equals(String path)
   {
-    return equals(parseUrlSegments(path));
+    return matches(path, false);
   }
 
   /**
@@ -315,53 +447,181 @@ public class RequestPath
    */
   public boolean equals(List<String> segments)
   {
-    return this.segments.equals(segments);
+    return (segments.size() == size) && startsWith(segments);
   }
 
   @Override
   public boolean equals(Object object)
   {
-    return (object instanceof RequestPath) && ((RequestPath)object).segments.equals(segments);
+    if (object == this)
+    {
+      return true;
+    }
+    else if (!(object instanceof RequestPath))
+    {
+      return false;
+    }
+
+    RequestPath otherPath = (RequestPath) object;
+    if (otherPath.size != size)
+    {
+      return false;
+    }
+
+    for (int i = 0; i < size; i++)
+    {
+      int otherSegmentIndex = otherPath.first + i;
+      if (!segmentEquals(i, otherPath.source, otherPath.bounds[otherSegmentIndex * 2], otherPath.bounds[(otherSegmentIndex * 2) + 1]))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Same value as {@code toString().hashCode()} but computed from the segment characters without building the path string.
+   */
+  @Override
+  public int hashCode()
+  {
+    int hash = this.hash;
+    if ((hash == 0) && (size > 0))
+    {
+      for (int i = first; i < (first + size); i++)
+      {
+        hash = (31 * hash) + '/';
+        for (int j = bounds[i * 2]; j < bounds[(i * 2) + 1]; j++)
+        {
+          hash = (31 * hash) + source.charAt(j);
+        }
+      }
+      this.hash = hash;
+    }
+    return hash;
   }
 
   @Override
   public String toString()
   {
+    String path = this.path;
+    if (path == null)
+    {
+      StringBuilder pathBuilder = new StringBuilder();
+      for (int i = first; i < (first + size); i++)
+      {
+        pathBuilder.append('/').append(source, bounds[i * 2], bounds[(i * 2) + 1]);
+      }
+      this.path = path = pathBuilder.toString();
+    }
     return path;
   }
 
-  static List<String> parseUrlSegments(String url)
+  private int segmentIndex(int index)
   {
-    return parseUrlSegments(url, "");
+    if ((index < 0) || (index >= size))
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return first + index;
   }
 
-  static List<String> parseUrlSegments(String url, String contextPath)
+  private int segmentLength(int index)
+  {
+    int segmentIndex = first + index;
+    return bounds[(segmentIndex * 2) + 1] - bounds[segmentIndex * 2];
+  }
+
+  /*
+   * Compares the segment at the given index to the given value without creating the segment string.
+   */
+  boolean segmentEquals(int index, String value, boolean ignoreCase)
+  {
+    int segmentIndex = segmentIndex(index);
+    int start = bounds[segmentIndex * 2];
+    return ((bounds[(segmentIndex * 2) + 1] - start) == value.length()) && source.regionMatches(ignoreCase, start, value, 0, value.length());
+  }
+
+  private boolean segmentEquals(int index, String other, int otherStart, int otherEnd)
   {
-    if (url.startsWith(contextPath))
+    if ((index >= size) || (segmentLength(index) != (otherEnd - otherStart)))
     {
-      url = url.substring(contextPath.length(), url.length());
+      return false;
+    }
+    return source.regionMatches(bounds[(first + index) * 2], other, otherStart, otherEnd - otherStart);
+  }
+
+  /*
+   * Index into source of the file extension of the last segment or -1 if the last segment has no '.' after its first character.
+   */
+  private int fileExtensionIndex()
+  {
+    if (size == 0)
+    {
+      return -1;
+    }
+
+    int segmentIndex = first + size - 1;
+    int start = bounds[segmentIndex * 2];
+    int dotIndex = source.lastIndexOf('.', bounds[(segmentIndex * 2) + 1] - 1);
+    return dotIndex > start ? dotIndex + 1 : -1;
+  }
+
+  /*
+   * Compares the segments of the given path to this path without splitting it (unless it has escapes to decode).
+   */
+  private boolean matches(String path, boolean prefix)
+  {
+    if ((path.indexOf('%') != -1) || (path.indexOf('+') != -1))
+    {
+      List<String> segments = parseUrlSegments(path);
+      return prefix ? startsWith(segments) : equals(segments);
+    }
+
+    int start = 0;
+    int end = path.length();
+    while ((start < end) && (path.charAt(start) <= ' '))
+    {
+      ++start;
     }
-    
-    url = URLDecoder.decode(url).trim();
-    List<String> urlSegments = new ArrayList<String>();
-    if (url.startsWith("/"))
+    while ((end > start) && (path.charAt(end - 1) <= ' '))
     {
-      url = url.substring(1, url.length());
+      --end;
     }
-    
-    int index = url.indexOf('/');
-    while (index != -1)
+    if ((start < end) && (path.charAt(start) == '/'))
     {
-      urlSegments.add(url.substring(0, index));
-      url = url.substring((index + 1), url.length());
-      index = url.indexOf('/');
+      ++start;
     }
-    
-    if (url.length() > 0)
+
+    int index = 0;
+    int segmentStart = start;
+    for (int i = start; i <= end; i++)
+    {
+      if ((i == end) ? (segmentStart < end) : (path.charAt(i) == '/'))
+      {
+        if (!segmentEquals(index++, path, segmentStart, i))
+        {
+          return false;
+        }
+        segmentStart = i + 1;
+      }
+    }
+    return prefix || (index == size);
+  }
+
+  static List<String> parseUrlSegments(String url)
+  {
+    return parseUrlSegments(url, "");
+  }
+
+  static List<String> parseUrlSegments(String url, String contextPath)
+  {
+    RequestPath path = new RequestPath(url, contextPath, false);
+    List<String> urlSegments = new ArrayList<String>(path.size);
+    for (int i = 0; i < path.size; i++)
     {
-      urlSegments.add(url);
+      urlSegments.add(path.get(i));
     }
-    
     return urlSegments;
   }
 
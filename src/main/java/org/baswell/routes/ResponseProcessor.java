@@ -22,16 +22,11 @@ import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
-
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.w3c.dom.Node;
 
@@ -40,17 +35,24 @@ import static org.baswell.routes.RoutesMethods.*;
 
 class ResponseProcessor
 {
+  private final RoutingTable routingTable;
+
   private final RoutesConfiguration routesConfiguration;
 
   private final AvailableLibraries availableLibraries;
 
-  ResponseProcessor(RoutesConfiguration routesConfiguration)
+  /*
+   * XML responses (and JAXB responses whose class isn't known until the route returns) go through the content bridges of
+   * the routing table's last build so they share the JAXB contexts and converter pools of the request content.
+   */
+  ResponseProcessor(RoutingTable routingTable)
   {
-    this.routesConfiguration = routesConfiguration;
+    this.routingTable = routingTable;
+    routesConfiguration = routingTable.routesConfiguration;
     availableLibraries = new AvailableLibraries(routesConfiguration);
   }
   
-  void processResponse(ResponseType responseType, ContentConversionType contentConversionType, Object response, String contentType, RouteConfiguration routeConfiguration, HttpServletRequest servletRequest, HttpServletResponse servletResponse) throws IOException, ServletException
+  void processResponse(ResponseType responseType, ContentConversionType contentConversionType, Object contentWriter, Object response, String contentType, RouteConfiguration routeConfiguration, HttpServletRequest servletRequest, HttpServletResponse servletResponse) throws IOException, ServletException
   {
     if (response != null)
     {
@@ -94,11 +96,11 @@ class ResponseProcessor
           switch(contentConversionType)
           {
             case JACKSON:
-              JacksonBridge.sendJackson(response, servletResponse);
+              JacksonBridge.sendJackson(routesConfiguration, contentWriter, response, servletResponse);
               break;
 
             case GSON:
-              GSONBridge.sendGson(response, servletResponse);
+              GSONBridge.sendGson(routesConfiguration, contentWriter, response, servletResponse);
               break;
 
             case W3C_NODE:
@@ -106,7 +108,7 @@ class ResponseProcessor
               break;
 
             case JAXB:
-              sendJaxb(response, servletResponse);
+              sendJaxb(response, contentWriter, servletResponse);
               break;
 
             case JDOM2_DOCUMENT:
@@ -149,7 +151,15 @@ class ResponseProcessor
         path = routeConfiguration.forwardPath + path;
       }
 
-      servletRequest.getRequestDispatcher(path).forward(servletRequest, servletResponse);
+      if (servletRequest.isAsyncStarted())
+      {
+        // Completing a CompletionStage route off of the container thread so the forward has to be dispatched back to the container.
+        servletRequest.getAsyncContext().dispatch(path);
+      }
+      else
+      {
+        servletRequest.getRequestDispatcher(path).forward(servletRequest, servletResponse);
+      }
     }
   }
 
@@ -157,7 +167,7 @@ class ResponseProcessor
   {
     try
     {
-      TransformerFactory.newInstance().newTransformer().transform(new DOMSource((Node) response), new StreamResult(servletResponse.getOutputStream()));
+      routingTable.contentBridges.w3cBridge.write((Node) response, servletResponse.getOutputStream());
     }
     catch (TransformerException e)
     {
@@ -165,11 +175,21 @@ class ResponseProcessor
     }
   }
 
-  void sendJaxb(Object response, HttpServletResponse servletResponse) throws IOException
+  void sendJaxb(Object response, Object contentWriter, HttpServletResponse servletResponse) throws IOException
   {
     try
     {
-      JAXBContext.newInstance(response.getClass()).createMarshaller().marshal(response, servletResponse.getOutputStream());
+      JAXBBridge jaxbBridge;
+      if ((contentWriter instanceof JAXBBridge) && (((JAXBBridge) contentWriter).contentClass == response.getClass()))
+      {
+        jaxbBridge = (JAXBBridge) contentWriter;
+      }
+      else
+      {
+        jaxbBridge = routingTable.contentBridges.getJAXBBridge(response.getClass());
+      }
+
+      jaxbBridge.marshal(response, servletResponse.getOutputStream());
     }
     catch (JAXBException e)
     {
@@ -99,4 +99,20 @@ public @interface Route
    *
    */
   String[] tags() default {};
+
+  /**
+   * <p>
+   * Should this route method be run on a virtual thread instead of the servlet container's request thread? The HTTP request is put
+   * in asynchronous mode and the container thread is released while the route method runs, so routes that block on I/O don't
+   * tie up the container's thread pool. The servlet or filter must be configured with async support, otherwise the route is run
+   * on the request thread.
+   * </p>
+   *
+   * <p>This should be used as a single value. Only the first value in the array will be used.</p>
+   *
+   * @see Routes#defaultRunOnVirtualThread()
+   * @see org.baswell.routes.RoutesConfiguration#defaultRunOnVirtualThread
+   * @see org.baswell.routes.RoutesConfiguration#virtualThreadExecutor
+   */
+  boolean[] runOnVirtualThread() default {};
 }
@@ -32,12 +32,22 @@ class RouteConfiguration
   
   final List<MediaType> respondsToMedia;
 
+  /*
+   * Bit masks of respondsToMethods and respondsToMedia so matching a request's method and media type doesn't search the
+   * lists. A media mask of zero means the route responds to any media type.
+   */
+  final int respondsToMethodsMask;
+
+  final int respondsToMediaMask;
+
   final MediaType expectedMediaType;
   
   String contentType;
   
   final boolean returnedStringIsContent;
 
+  final boolean runOnVirtualThread;
+
   final Map<String, List<String>> defaultParameters;
   
   final Set<String> tags;
@@ -94,6 +104,7 @@ class RouteConfiguration
       expectedMediaType = null;
       contentType = ((routes == null) || (routes.defaultContentType().length() == 0)) ? routesConfiguration.defaultContentType : routes.defaultContentType();
       returnedStringIsContent = ((routes == null) || (routes.defaultReturnedStringIsContent().length == 0)) ? routesConfiguration.defaultReturnedStringIsContent : routes.defaultReturnedStringIsContent()[0];
+      runOnVirtualThread = ((routes == null) || (routes.defaultRunOnVirtualThread().length == 0)) ? routesConfiguration.defaultRunOnVirtualThread : routes.defaultRunOnVirtualThread()[0];
     }
     else
     {
@@ -145,9 +156,32 @@ class RouteConfiguration
         returnedStringIsContent = ((routes == null) || (routes.defaultReturnedStringIsContent().length == 0)) ? routesConfiguration.defaultReturnedStringIsContent : routes.defaultReturnedStringIsContent()[0];
       }
 
+      if (route.runOnVirtualThread().length > 0)
+      {
+        runOnVirtualThread = route.runOnVirtualThread()[0];
+      }
+      else
+      {
+        runOnVirtualThread = ((routes == null) || (routes.defaultRunOnVirtualThread().length == 0)) ? routesConfiguration.defaultRunOnVirtualThread : routes.defaultRunOnVirtualThread()[0];
+      }
+
       tags.addAll(Arrays.asList(route.tags()));
       respondsToMedia.addAll(Arrays.asList(route.respondsToMediaRequests()));
     }
+
+    int respondsToMethodsMask = 0;
+    for (HttpMethod httpMethod : respondsToMethods)
+    {
+      respondsToMethodsMask |= httpMethod.bit;
+    }
+    this.respondsToMethodsMask = respondsToMethodsMask;
+
+    int respondsToMediaMask = 0;
+    for (MediaType mediaType : respondsToMedia)
+    {
+      respondsToMediaMask |= mediaType.bit;
+    }
+    this.respondsToMediaMask = respondsToMediaMask;
   }
   
   static String buildRoutePath(String rootPath, Routes routes, Route route, Class routesClass, Method routeMethod, RouteByConvention routeByConvention, int routesPathIndex)
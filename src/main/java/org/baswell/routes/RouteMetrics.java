@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * <p>
+ * Execution counters for a route that runs on a virtual thread ({@link Route#runOnVirtualThread()}). Queue time is the time
+ * from the request being handed to the executor until its virtual thread starts running the route. Run time is the time the
+ * route's before, route and after methods and the response processing took on the virtual thread. For route methods that
+ * return a {@link java.util.concurrent.CompletionStage} the run time ends when the stage is returned.
+ * </p>
+ *
+ * <p>
+ * The counters are updated without locking and can be read at any time.
+ * </p>
+ *
+ * @see RoutingTable#getRouteMetrics()
+ */
+public class RouteMetrics
+{
+  static final LongBinaryOperator MAX = new LongBinaryOperator()
+  {
+    @Override
+    public long applyAsLong(long left, long right)
+    {
+      return Math.max(left, right);
+    }
+  };
+
+  /**
+   * The route method.
+   */
+  public final Method method;
+
+  /**
+   * The HTTP methods the route responds to.
+   */
+  public final List<HttpMethod> httpMethods;
+
+  /**
+   * The route path (ex. /users/{}).
+   */
+  public final String route;
+
+  final LongAdder executions = new LongAdder();
+
+  final LongAdder inFlight = new LongAdder();
+
+  final LongAdder queueNanos = new LongAdder();
+
+  final LongAccumulator maxQueueNanos = new LongAccumulator(MAX, 0);
+
+  final LongAdder runNanos = new LongAdder();
+
+  final LongAccumulator maxRunNanos = new LongAccumulator(MAX, 0);
+
+  RouteMetrics(Method method, List<HttpMethod> httpMethods, String route)
+  {
+    this.method = method;
+    this.httpMethods = httpMethods;
+    this.route = route;
+  }
+
+  /**
+   * @return The number of requests the route has finished running.
+   */
+  public long getExecutions()
+  {
+    return executions.sum();
+  }
+
+  /**
+   * @return The number of requests dispatched to the route that haven't finished running.
+   */
+  public long getInFlight()
+  {
+    return inFlight.sum();
+  }
+
+  /**
+   * @return The total time in nanoseconds requests waited to start running.
+   */
+  public long getTotalQueueNanos()
+  {
+    return queueNanos.sum();
+  }
+
+  /**
+   * @return The longest time in nanoseconds a request waited to start running.
+   */
+  public long getMaxQueueNanos()
+  {
+    return maxQueueNanos.get();
+  }
+
+  /**
+   * @return The average time in nanoseconds requests waited to start running.
+   */
+  public long getAverageQueueNanos()
+  {
+    long executions = getExecutions();
+    return (executions == 0) ? 0 : getTotalQueueNanos() / executions;
+  }
+
+  /**
+   * @return The total time in nanoseconds requests ran for.
+   */
+  public long getTotalRunNanos()
+  {
+    return runNanos.sum();
+  }
+
+  /**
+   * @return The longest time in nanoseconds a request ran for.
+   */
+  public long getMaxRunNanos()
+  {
+    return maxRunNanos.get();
+  }
+
+  /**
+   * @return The average time in nanoseconds requests ran for.
+   */
+  public long getAverageRunNanos()
+  {
+    long executions = getExecutions();
+    return (executions == 0) ? 0 : getTotalRunNanos() / executions;
+  }
+
+  /**
+   * Sets all counters except for the in flight count back to zero.
+   */
+  public void reset()
+  {
+    executions.reset();
+    queueNanos.reset();
+    maxQueueNanos.reset();
+    runNanos.reset();
+    maxRunNanos.reset();
+  }
+
+  void dispatched()
+  {
+    inFlight.increment();
+  }
+
+  void started(long queueTime)
+  {
+    queueNanos.add(queueTime);
+    maxQueueNanos.accumulate(queueTime);
+  }
+
+  void finished(long runTime)
+  {
+    runNanos.add(runTime);
+    maxRunNanos.accumulate(runTime);
+    executions.increment();
+    inFlight.decrement();
+  }
+
+  @Override
+  public String toString()
+  {
+    return httpMethods + " " + route + " executions: " + getExecutions() + ", in flight: " + getInFlight() + ", average queue nanos: " + getAverageQueueNanos() + ", average run nanos: " + getAverageRunNanos();
+  }
+}
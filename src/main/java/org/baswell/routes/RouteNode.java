@@ -18,12 +18,13 @@ package org.baswell.routes;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 class RouteNode implements Comparable<RouteNode>
 {
-  final int index;
-
   final Method method;
+
+  final CompiledInvoker invoker;
   
   final RouteConfiguration routeConfiguration;
 
@@ -32,6 +33,8 @@ class RouteNode implements Comparable<RouteNode>
   final Criteria criteria;
   
   final List<MethodParameter> parameters;
+
+  final ArgumentBinders binders;
   
   final ResponseType responseType;
 
@@ -41,21 +44,63 @@ class RouteNode implements Comparable<RouteNode>
 
   final List<AfterRouteNode> afterRouteNodes;
 
-  RouteNode(int index, Method method, RouteConfiguration routeConfiguration, RouteInstance instance, Criteria criteria, List<MethodParameter> parameters, ResponseType responseType, ContentConversionType contentConversionType, List<BeforeRouteNode> beforeRouteNodes, final List<AfterRouteNode> afterRouteNodes)
+  /*
+   * The type of the RequestContent parameter of the route, before or after methods. Null if none of the methods take one.
+   */
+  final Type requestContentType;
+
+  /*
+   * Created from the RoutesConfiguration when the route is built (ex. a Jackson ObjectReader for the request content type
+   * and ObjectWriter for the return type) and passed back to the bridge of the library they came from. Null if the content
+   * isn't converted by a library or the library couldn't be determined statically.
+   */
+  final Object requestContentReader;
+
+  final Object responseContentWriter;
+
+  /*
+   * Routes with only fixed path criteria are found through the exact path index. Only the other routes go through the
+   * routes cache.
+   */
+  final boolean exactPath;
+
+  /*
+   * The route method returns a CompletionStage. The response is processed and the after nodes run when it completes.
+   */
+  final boolean returnsCompletionStage;
+
+  /*
+   * Null unless the route runs on a virtual thread.
+   */
+  final RouteMetrics metrics;
+
+  RouteNode(Method method, CompiledInvoker invoker, RouteConfiguration routeConfiguration, RouteInstance instance, Criteria criteria, List<MethodParameter> parameters, ResponseType responseType, ContentConversionType contentConversionType, List<BeforeRouteNode> beforeRouteNodes, final List<AfterRouteNode> afterRouteNodes, Type requestContentType, Object requestContentReader, Object responseContentWriter)
   {
-    this.index = index;
     this.method = method;
+    this.invoker = invoker;
     this.routeConfiguration = routeConfiguration;
     this.instance = instance;
     this.criteria = criteria;
     this.parameters = parameters;
+    binders = ArgumentBinders.compile(method, parameters);
     this.responseType = responseType;
     this.contentConversionType = contentConversionType;
     this.beforeRouteNodes = beforeRouteNodes;
     this.afterRouteNodes = afterRouteNodes;
+    this.requestContentType = requestContentType;
+    this.requestContentReader = requestContentReader;
+    this.responseContentWriter = responseContentWriter;
+    exactPath = criteria.allCriteriaFixed;
+    returnsCompletionStage = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    metrics = routeConfiguration.runOnVirtualThread ? new RouteMetrics(method, routeConfiguration.respondsToMethods, routeConfiguration.route) : null;
   }
 
   Type getRequestContentType()
+  {
+    return requestContentType;
+  }
+
+  static Type findRequestContentType(List<MethodParameter> parameters, List<BeforeRouteNode> beforeRouteNodes, List<AfterRouteNode> afterRouteNodes)
   {
     for (MethodParameter parameter : parameters)
     {
@@ -93,14 +138,10 @@ class RouteNode implements Comparable<RouteNode>
   @Override
   public int compareTo(RouteNode routeNode)
   {
-    int criteriaCompare = criteria.compareTo(routeNode.criteria);
-    if (criteriaCompare == 0)
-    {
-      return index - routeNode.index;
-    }
-    else
-    {
-      return criteriaCompare;
-    }
+    /*
+     * Routes are sorted with a stable sort so routes with equal criteria stay in the order their classes were added. Lookups
+     * keep this order through the position of each route in the snapshot, not through this comparison (see RoutingTrie).
+     */
+    return criteria.compareTo(routeNode.criteria);
   }
 }
\ No newline at end of file
@@ -105,4 +105,18 @@ public @interface Routes
    */
   String[] tags() default {};
 
+  /**
+   * <p>
+   * If true by default routes of this annotated class are run on a virtual thread instead of the servlet container's request
+   * thread. This can be overridden in {@link Route#runOnVirtualThread()}.
+   * </p>
+   *
+   * <p>
+   * This should be used as a single value. Only the first value in the array will be used.
+   * </p>
+   *
+   * @see org.baswell.routes.RoutesConfiguration#defaultRunOnVirtualThread
+   * @see org.baswell.routes.Route#runOnVirtualThread()
+   */
+  boolean[] defaultRunOnVirtualThread() default {};
 }
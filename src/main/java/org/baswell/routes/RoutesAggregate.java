@@ -21,6 +21,8 @@ class RoutesAggregate implements Routes
 
   private final Boolean defaultReturnedStringIsContent;
 
+  private final Boolean defaultRunOnVirtualThread;
+
   private final List<String> tags;
 
   RoutesAggregate(Class clazz)
@@ -35,6 +37,7 @@ class RoutesAggregate implements Routes
       routeUnannotatedPublicMethods = null;
       defaultContentType = null;
       defaultReturnedStringIsContent = null;
+      defaultRunOnVirtualThread = null;
       tags = new ArrayList<String>();
     }
     else if (routeses.size() == 1)
@@ -46,6 +49,7 @@ class RoutesAggregate implements Routes
       routeUnannotatedPublicMethods = routes.routeUnannotatedPublicMethods().length == 0 ? null : routes.routeUnannotatedPublicMethods()[0];
       defaultContentType = routes.defaultContentType();
       defaultReturnedStringIsContent = routes.defaultReturnedStringIsContent().length == 0 ? null : routes.defaultReturnedStringIsContent()[0];
+      defaultRunOnVirtualThread = routes.defaultRunOnVirtualThread().length == 0 ? null : routes.defaultRunOnVirtualThread()[0];
       tags = Arrays.asList(routes.tags());
     }
     else
@@ -93,6 +97,7 @@ class RoutesAggregate implements Routes
       Boolean routeUnannotatedPublicMethods = null;
       String defaultContentType = null;
       Boolean defaultReturnedStringIsContent = null;
+      Boolean defaultRunOnVirtualThread = null;
       List<String> tags = new ArrayList<String>();
 
       for (Routes routes : routeses)
@@ -120,6 +125,11 @@ class RoutesAggregate implements Routes
           defaultReturnedStringIsContent = routes.defaultReturnedStringIsContent()[0];
         }
 
+        if (defaultRunOnVirtualThread == null && routes.defaultRunOnVirtualThread().length > 0)
+        {
+          defaultRunOnVirtualThread = routes.defaultRunOnVirtualThread()[0];
+        }
+
         for (String tag : routes.tags())
         {
           if (!tags.contains(tag))
@@ -133,6 +143,7 @@ class RoutesAggregate implements Routes
       this.routeUnannotatedPublicMethods = routeUnannotatedPublicMethods;
       this.defaultContentType = defaultContentType;
       this.defaultReturnedStringIsContent = defaultReturnedStringIsContent;
+      this.defaultRunOnVirtualThread = defaultRunOnVirtualThread;
       this.tags = tags;
     }
   }
@@ -173,6 +184,12 @@ class RoutesAggregate implements Routes
     return defaultReturnedStringIsContent == null ? new boolean[0] : new boolean[]{defaultReturnedStringIsContent};
   }
 
+  @Override
+  public boolean[] defaultRunOnVirtualThread()
+  {
+    return defaultRunOnVirtualThread == null ? new boolean[0] : new boolean[]{defaultRunOnVirtualThread};
+  }
+
   @Override
   public String[] tags()
   {
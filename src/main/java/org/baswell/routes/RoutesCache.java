@@ -47,4 +47,37 @@ public interface RoutesCache
    * @return The cached route instance or {@code null} on a cache miss.
    */
   Object get(HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters);
+
+  /**
+   * Called by the Routes engine instead of {@link #put(Object, HttpMethod, RequestedMediaType, RequestPath, RequestParameters)}.
+   * Implementations can store the route under the given key without building a key of their own. The default implementation
+   * calls the request parameter version.
+   *
+   * @param routeNode The route instance to be retrieved later from {@code get}.
+   * @param key The request key.
+   */
+  default void put(Object routeNode, RoutesCacheKey key)
+  {
+    put(routeNode, key.method, key.requestedMediaType, key.path, key.parameters);
+  }
+
+  /**
+   * Called by the Routes engine instead of {@link #get(HttpMethod, RequestedMediaType, RequestPath, RequestParameters)}. The
+   * default implementation calls the request parameter version.
+   *
+   * @param key The request key.
+   * @return The cached route instance or {@code null} on a cache miss.
+   */
+  default Object get(RoutesCacheKey key)
+  {
+    return get(key.method, key.requestedMediaType, key.path, key.parameters);
+  }
+
+  /**
+   * Called by the Routes engine every time the routing table publishes new routes (and when it's shutdown). None of the
+   * cached routes will be used again so implementations should drop them. The default implementation does nothing (the
+   * cached routes are ignored but stay in memory until the cache evicts them).
+   */
+  default void clear()
+  {}
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Identifies an HTTP request by everything the routing table uses to find a route: the HTTP method, the requested media type,
+ * the path segments and the values of the parameters that appear in route criteria. The key is built once per request
+ * without building any strings and can be used directly as a hash map key by {@link RoutesCache} implementations. The key
+ * also holds the generation of the routes it was built for so entries cached before the routing table was rebuilt are
+ * never found again.
+ * </p>
+ *
+ * <p>
+ * The request objects the key was built from are available so implementations can fall back on the other {@code RoutesCache}
+ * methods. The key given to {@link RoutesCache#put(Object, RoutesCacheKey)} is detached from the request: its parameters are
+ * a copy of the request parameters so a cached key never holds on to the parameter map of the servlet container (which
+ * containers recycle between requests).
+ * </p>
+ *
+ * @see RoutesCache#get(RoutesCacheKey)
+ * @see RoutesCache#put(Object, RoutesCacheKey)
+ */
+public final class RoutesCacheKey
+{
+  public final HttpMethod method;
+
+  public final RequestedMediaType requestedMediaType;
+
+  public final RequestPath path;
+
+  public final RequestParameters parameters;
+
+  /**
+   * Incremented every time the routing table is built.
+   */
+  public final long generation;
+
+  private final int mediaTypeOrdinal;
+
+  /*
+   * One entry for each routing parameter name: null if not present, the value if present once and a String[] otherwise.
+   */
+  private final Object[] parameterValues;
+
+  private final int hash;
+
+  RoutesCacheKey(HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters, String[] routingParameterNames, long generation)
+  {
+    this.method = method;
+    this.requestedMediaType = requestedMediaType;
+    this.path = path;
+    this.parameters = parameters;
+    this.generation = generation;
+    mediaTypeOrdinal = ((requestedMediaType == null) || (requestedMediaType.mediaType == null)) ? -1 : requestedMediaType.mediaType.ordinal();
+
+    if ((routingParameterNames == null) || (routingParameterNames.length == 0) || (parameters == null))
+    {
+      parameterValues = null;
+    }
+    else
+    {
+      parameterValues = new Object[routingParameterNames.length];
+      for (int i = 0; i < routingParameterNames.length; i++)
+      {
+        List<String> values = parameters.valueList(routingParameterNames[i]);
+        if ((values == null) || values.isEmpty())
+        {
+          parameterValues[i] = null;
+        }
+        else if (values.size() == 1)
+        {
+          parameterValues[i] = values.get(0);
+        }
+        else
+        {
+          parameterValues[i] = values.toArray(new String[values.size()]);
+        }
+      }
+    }
+
+    int hash = Long.hashCode(generation);
+    hash = (31 * hash) + method.ordinal();
+    hash = (31 * hash) + mediaTypeOrdinal;
+    hash = (31 * hash) + path.hashCode();
+    hash = (31 * hash) + Arrays.deepHashCode(parameterValues);
+    this.hash = hash;
+  }
+
+  private RoutesCacheKey(RoutesCacheKey key, RequestParameters parameters)
+  {
+    method = key.method;
+    requestedMediaType = key.requestedMediaType;
+    path = key.path;
+    this.parameters = parameters;
+    generation = key.generation;
+    mediaTypeOrdinal = key.mediaTypeOrdinal;
+    parameterValues = key.parameterValues;
+    hash = key.hash;
+  }
+
+  /*
+   * A copy of this key that can be kept after the request completes. Everything but the parameters is already immutable and
+   * not shared with the request (the parameter values of the key are copied when it's built).
+   */
+  RoutesCacheKey detach()
+  {
+    return new RoutesCacheKey(this, (parameters == null) ? null : parameters.detach());
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object)
+  {
+    if (object == this)
+    {
+      return true;
+    }
+    else if (!(object instanceof RoutesCacheKey))
+    {
+      return false;
+    }
+
+    RoutesCacheKey key = (RoutesCacheKey) object;
+    return (hash == key.hash) && (generation == key.generation) && (method == key.method) && (mediaTypeOrdinal == key.mediaTypeOrdinal) && samePath(key.path) && Arrays.deepEquals(parameterValues, key.parameterValues);
+  }
+
+  @Override
+  public String toString()
+  {
+    StringBuilder builder = new StringBuilder(method.toString()).append(':').append(requestedMediaType).append(':').append(path);
+    if (parameterValues != null)
+    {
+      builder.append(':').append(Arrays.deepToString(parameterValues));
+    }
+    return builder.toString();
+  }
+
+  private boolean samePath(RequestPath otherPath)
+  {
+    if (path == otherPath)
+    {
+      return true;
+    }
+    else if ((path.uri != null) && (path.uri == otherPath.uri))
+    {
+      return true;
+    }
+    else
+    {
+      return path.equals(otherPath);
+    }
+  }
+}
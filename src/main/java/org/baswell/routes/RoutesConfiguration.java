@@ -17,6 +17,7 @@ package org.baswell.routes;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -28,15 +29,16 @@ import static org.baswell.routes.RoutesMethods.typesToPatterns;
 public class RoutesConfiguration
 {
   /**
-   * If true the {@link org.baswell.routes.RoutingTable} will spawn a thread that rebuilds the routing table every
-   * {@link #developmentReloadCycleSeconds}.
+   * If true the {@link org.baswell.routes.RoutingTable} will spawn a thread that checks the class files of the route classes
+   * every {@link #developmentReloadCycleSeconds} and rebuilds the routes of the classes whose class files (or super class
+   * class files) changed. Routes of classes loaded from jars are not reloaded.
    *
    * Default value: {@code false}
    */
   public boolean developmentMode;
 
   /**
-   * The number of seconds between development mode reloads of the {@link org.baswell.routes.RoutingTable}. If {@link #developmentMode}
+   * The number of seconds between development mode checks for changed route classes. If {@link #developmentMode}
    * is false this property is not used.
    *
    * Default value: 5
@@ -110,9 +112,53 @@ public class RoutesConfiguration
    * The routes cache implementation. No cache will be used if null.
    *
    * Default value: <status>null</status>
+   *
+   * @see org.baswell.routes.TinyLFURoutesCache
+   * @see org.baswell.routes.SimpleRoutesCache
    */
   public RoutesCache routesCache;
 
+  /**
+   * The number of unmatched requests to remember. A request that didn't match any route (for example a static asset
+   * passed through by a {@link RoutesFilter} mapped to /*) skips the route lookup when the same request (HTTP method, requested
+   * media type, path and the values of parameters used in routes) is seen again. The remembered requests are forgotten
+   * every time the routing table is built. No unmatched requests are remembered if 0.
+   *
+   * Default value: <status>0</status>
+   *
+   * @see RoutesStatistics#getMissCacheHitRate()
+   */
+  public int missCacheSize;
+
+  /**
+   * If true by default route methods are run on a virtual thread instead of the servlet container's request thread. This
+   * can be overridden in {@link Routes#defaultRunOnVirtualThread()} or {@link Route#runOnVirtualThread()}.
+   *
+   * Default value: <status>false</status>
+   *
+   * @see #virtualThreadExecutor
+   * @see RoutingTable#getRouteMetrics()
+   */
+  public boolean defaultRunOnVirtualThread;
+
+  /**
+   * The executor routes that run on a virtual thread are dispatched to. If null and any route runs on a virtual thread
+   * {@code Executors.newVirtualThreadPerTaskExecutor()} is used, which requires Java 21 or later.
+   *
+   * Default value: <status>null</status>
+   */
+  public Executor virtualThreadExecutor;
+
+  /**
+   * The timeout in milliseconds of requests that are processed asynchronously (route methods that return a
+   * {@link java.util.concurrent.CompletionStage} or run on a virtual thread). When the timeout expires before the route
+   * finishes the request is completed with a 503 status and the result of the route is ignored. If 0 the request never
+   * times out. If less than 0 the servlet container's default timeout is used.
+   *
+   * Default value: <status>-1</status>
+   */
+  public long asyncTimeout = -1;
+
   /**
    * The path (relative to context path) to access the Routes meta page. If this value is null then the Routes meta
    * page will not be accessible. If there is a collision between this path and a routes path, the routes path will
@@ -139,6 +185,37 @@ public class RoutesConfiguration
    */
   public boolean routeUnannotatedPublicMethods;
 
+  /**
+   * The number of threads the routes of the added route classes are built with. Each class is built on its own fork/join
+   * task and the routes are ordered the same way no matter which thread built them. The routes are built on the thread
+   * calling {@link RoutingTable#build()} if 1 or less. The build threads use the context class loader of the thread
+   * calling {@link RoutingTable#build()}. Set to Runtime.getRuntime().availableProcessors() to speed up building a large
+   * number of route classes.
+   *
+   * Default value: <status>1</status>
+   */
+  public int buildParallelism = 1;
+
+  /**
+   * The maximum number of idle content converters that aren't thread safe (ex. JAXB marshallers and unmarshallers) kept
+   * for reuse for each content class. Converters are created as needed when none are idle so this doesn't limit the number
+   * of requests converting content at the same time.
+   *
+   * Default value: <status>Runtime.getRuntime().availableProcessors() * 2</status>
+   */
+  public int converterPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+  /**
+   * If true the {@link GeneratedRoutes} class of each routes class compiled with the routes-processor annotation processor is
+   * loaded when the routing table is built. Route, before and after methods that can't be bound to a spun call site (see
+   * {@link GeneratedRoutes}) are then called through the generated class instead of a method handle. Everything else about
+   * building the routes (reflection over the routes classes, parsing the routes and building their criteria) is the same
+   * either way. If false (or the routes class has no generated class) those methods are called through a method handle.
+   *
+   * Default value: <status>false</status>
+   */
+  public boolean useGeneratedRoutes;
+
   /**
    * Logger Routes uses for error messages. Set to {@code null} to suppress all logging. By default {@link org.baswell.routes.SystemErrLogger}.
    */
@@ -156,6 +233,28 @@ public class RoutesConfiguration
    */
   public boolean useGSONForJSON;
 
+  /**
+   * <p>The {@code com.fasterxml.jackson.databind.ObjectMapper} used for Jackson JSON serialization. The object readers and writers
+   * for the {@link RequestContent} types and return types of the routes are created from this mapper when the routing table is
+   * built so any configuration of the mapper must be done before then. If null a shared, default configured mapper is used.</p>
+   *
+   * <p>This property is typed as {@code Object} so this class can be loaded without Jackson on the classpath.</p>
+   *
+   * Default value: <status>null</status>
+   */
+  public Object jacksonObjectMapper;
+
+  /**
+   * <p>The {@code com.google.gson.Gson} used for GSON JSON serialization. The type adapters for the {@link RequestContent} types
+   * and return types of the routes are resolved from this instance when the routing table is built. If null a shared, default
+   * configured instance is used.</p>
+   *
+   * <p>This property is typed as {@code Object} so this class can be loaded without GSON on the classpath.</p>
+   *
+   * Default value: <status>null</status>
+   */
+  public Object gson;
+
   public RoutesRedirectHandler redirectHandler = new AddContextPathRedirectHandler();
 
   final Map<String, Pattern> symbolsToPatterns = new HashMap<String, Pattern>();
@@ -179,6 +278,8 @@ public class RoutesConfiguration
    *   <li>double</li>
    *   <li>Boolean</li>
    *   <li>boolean</li>
+   *   <li>Character</li>
+   *   <li>char</li>
    *   <li>String</li>
    * </ul>
    *
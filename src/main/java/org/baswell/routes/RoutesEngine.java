@@ -20,6 +20,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * <p>
@@ -66,7 +68,7 @@ public class RoutesEngine
 
     availableLibraries = new AvailableLibraries(routingTable.routesConfiguration);
 
-    pipeline = new MethodPipeline(routingTable.routesConfiguration);
+    pipeline = new MethodPipeline(routingTable);
     if (routingTable.routesConfiguration.hasRoutesMetaPath())
     {
       metaHandler = new MetaHandler(routingTable, routingTable.routesConfiguration);
@@ -94,67 +96,135 @@ public class RoutesEngine
     assert servletRequest != null;
     assert servletResponse != null;
 
-    if (!routingTable.built)
-    {
-      synchronized (this)
-      {
-        if (!routingTable.built)
-        {
-          routingTable.build();
-        }
-      }
-    }
+    routingTable.ensureBuilt();
 
     RequestPath requestPath = new RequestPath(servletRequest);
     RequestParameters requestParameters = new RequestParameters(servletRequest);
     HttpMethod httpMethod = HttpMethod.fromServletMethod(servletRequest.getMethod());
     RequestedMediaType requestedMediaType = new RequestedMediaType(servletRequest.getHeader("Accept"), requestPath, requestParameters);
-    RequestContent requestContent = null;
-
 
-    MatchedRoute matchedRoute = null;
+    MatchedRoute matchedRoute = routingTable.find(requestPath, requestParameters, httpMethod, requestedMediaType);
 
-    if (routingTable.routesConfiguration.routesCache != null)
+    if (matchedRoute != null)
+    {
+      if (matchedRoute.routeNode.routeConfiguration.runOnVirtualThread && servletRequest.isAsyncSupported())
+      {
+        dispatchToVirtualThread(matchedRoute, servletRequest, servletResponse, httpMethod, requestedMediaType, requestPath, requestParameters);
+      }
+      else
+      {
+        invoke(matchedRoute, servletRequest, servletResponse, httpMethod, requestedMediaType, requestPath, requestParameters);
+      }
+      return true;
+    }
+    else
     {
-      matchedRoute = (MatchedRoute) routingTable.routesConfiguration.routesCache.get(httpMethod, requestedMediaType, requestPath, requestParameters);
+      return ((metaHandler != null) && metaHandler.handled(servletRequest, servletResponse, requestPath, requestParameters, httpMethod, requestedMediaType));
     }
+  }
 
-    if (matchedRoute == null)
+  /*
+   * Returns true if the pipeline completes the request asynchronously.
+   */
+  boolean invoke(MatchedRoute matchedRoute, HttpServletRequest servletRequest, HttpServletResponse servletResponse, HttpMethod httpMethod, RequestedMediaType requestedMediaType, RequestPath requestPath, RequestParameters requestParameters) throws IOException, ServletException
+  {
+    RequestContent requestContent = null;
+    Type requestContentType = matchedRoute.routeNode.getRequestContentType();
+    if (requestContentType != null)
     {
-      matchedRoute = routingTable.find(requestPath, requestParameters, httpMethod, requestedMediaType);
+      requestContent = new RequestContent(routingTable.routesConfiguration, servletRequest, requestContentType, matchedRoute.routeNode.routeConfiguration.expectedMediaType, servletRequest.getContentType(), availableLibraries, routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
     }
 
-    if (matchedRoute != null)
+    try
     {
-      Type requestContentType = matchedRoute.routeNode.getRequestContentType();
-      if (requestContentType != null)
+      return pipeline.invoke(matchedRoute.routeNode, servletRequest, servletResponse, httpMethod, requestedMediaType, requestPath, requestParameters, requestContent, matchedRoute.pathMatches, matchedRoute.parameterMatches);
+    }
+    catch (RouteInstanceBorrowException e)
+    {
+      if (logger != null)
       {
-        requestContent = new RequestContent(routingTable.routesConfiguration, servletRequest, requestContentType, matchedRoute.routeNode.routeConfiguration.expectedMediaType, servletRequest.getContentType(), availableLibraries);
+        logger.logError("Unable to create route instance for class: " + matchedRoute.routeNode.instance.clazz, e);
       }
+      throw new ServletException(e);
+    }
+  }
 
-      try
-      {
-        pipeline.invoke(matchedRoute.routeNode, servletRequest, servletResponse, httpMethod, requestedMediaType, requestPath, requestParameters, requestContent, matchedRoute.pathMatchers, matchedRoute.parameterMatchers);
+  /*
+   * Releases the container thread and runs the route (including reading the request content) on the virtual thread executor.
+   * If the executor rejects the request (or has been shutdown) it's run on the container thread. If the request times out
+   * or fails in the container before the route returns the container side finishes the request (see AsyncExchange).
+   */
+  void dispatchToVirtualThread(final MatchedRoute matchedRoute, final HttpServletRequest servletRequest, final HttpServletResponse servletResponse, final HttpMethod httpMethod, final RequestedMediaType requestedMediaType, final RequestPath requestPath, final RequestParameters requestParameters) throws IOException, ServletException
+  {
+    final RouteMetrics metrics = matchedRoute.routeNode.metrics;
+    final AsyncExchange exchange = new AsyncExchange(servletRequest, servletResponse, routingTable.routesConfiguration, null);
+    final long dispatchedAt = System.nanoTime();
+    metrics.dispatched();
 
-        if (routingTable.routesConfiguration.routesCache != null)
+    Runnable runRoute = new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        long startedAt = System.nanoTime();
+        metrics.started(startedAt - dispatchedAt);
+        boolean completesAsync = false;
+        try
         {
-          routingTable.routesConfiguration.routesCache.put(matchedRoute, httpMethod, requestedMediaType, requestPath, requestParameters);
+          // Don't run the route at all if the request timed out while it was queued.
+          if (!exchange.isFinished())
+          {
+            completesAsync = invoke(matchedRoute, servletRequest, servletResponse, httpMethod, requestedMediaType, requestPath, requestParameters);
+          }
         }
-
-        return true;
-      }
-      catch (RouteInstanceBorrowException e)
-      {
-        if (logger != null)
+        catch (Throwable e)
+        {
+          // Already finished with an error status if the request timed out or failed in the container.
+          if (!exchange.isFinished())
+          {
+            if (logger != null)
+            {
+              logger.logError("Route method: " + matchedRoute.routeNode.method + " threw exception.", (e instanceof Exception) ? (Exception) e : new RuntimeException(e));
+            }
+
+            try
+            {
+              if (!servletResponse.isCommitted())
+              {
+                servletResponse.sendError(500);
+              }
+            }
+            catch (Exception exc)
+            {}
+          }
+        }
+        finally
         {
-          logger.logError("Unable to create route instance for class: " + matchedRoute.routeNode.instance.clazz, e);
+          metrics.finished(System.nanoTime() - startedAt);
+
+          // If the route completes asynchronously the pipeline's own exchange finishes the request.
+          if (exchange.finish() && !completesAsync)
+          {
+            exchange.complete();
+          }
         }
-        throw new ServletException(e);
       }
+    };
+
+    Executor executor = routingTable.virtualThreadExecutor;
+    if (executor == null)
+    {
+      runRoute.run();
+      return;
     }
-    else
+
+    try
     {
-      return ((metaHandler != null) && metaHandler.handled(servletRequest, servletResponse, requestPath, requestParameters, httpMethod, requestedMediaType));
+      executor.execute(runRoute);
+    }
+    catch (RejectedExecutionException e)
+    {
+      runRoute.run();
     }
   }
 }
@@ -81,6 +81,13 @@ import static org.baswell.routes.RoutingTable.*;
  * If both <code>ONLY</code> and <code>EXCEPT</code> are specified then the route methods will not be checked if the <code>ONLY</code> pattern does not match or the <code>EXCEPT</code> pattern does match.
  * </p>
  *
+ * <p>
+ * Request paths that can't match any route (their path doesn't start with the fixed leading segments of any route or the
+ * routes meta path) are passed down the chain without being checked against the route methods. This check and the
+ * <code>ONLY</code> and <code>EXCEPT</code> patterns that are literals (<code>/index.html</code>), literal prefixes
+ * (<code>/api/.*</code>) or literal suffixes (<code>.*\.html</code>) don't use regular expressions.
+ * </p>
+ *
  * @see org.baswell.routes.RoutesServlet
  * @see org.baswell.routes.RoutesEngine
  */
@@ -93,6 +100,8 @@ public class RoutesFilter implements Filter
   private List<Pattern> exceptPatterns;
 
   private volatile RoutesEngine routesEngine;
+
+  private volatile PathPrefilter prefilter;
   
   @Override
   public void init(FilterConfig filterConfig) throws ServletException
@@ -136,44 +145,15 @@ public class RoutesFilter implements Filter
     HttpServletRequest servletRequest = (HttpServletRequest)request;
     HttpServletResponse servletResponse = (HttpServletResponse)response;
 
-    if (onlyPatterns != null || exceptPatterns != null)
-    {
-      String requestPath = servletRequest.getRequestURI().substring(servletRequest.getContextPath().length());
-
-      if (onlyPatterns != null)
-      {
-        boolean matchFound = false;
-        for (Pattern onlyPattern : onlyPatterns)
-        {
-          if (onlyPattern.matcher(requestPath).matches())
-          {
-            matchFound = true;
-            break;
-          }
-        }
-
-        if (!matchFound)
-        {
-          chain.doFilter(servletRequest, servletResponse);
-          return;
-        }
-      }
+    assert theRoutingTable != null;
 
-      if (exceptPatterns != null)
-      {
-        for (Pattern exceptPattern : exceptPatterns)
-        {
-          if (exceptPattern.matcher(requestPath).matches())
-          {
-            chain.doFilter(servletRequest, servletResponse);
-            return;
-          }
-        }
-      }
+    theRoutingTable.ensureBuilt();
+    if (!getPrefilter(theRoutingTable).accepts(servletRequest.getRequestURI(), servletRequest.getContextPath()))
+    {
+      chain.doFilter(servletRequest, servletResponse);
+      return;
     }
 
-    assert theRoutingTable != null;
-
     if (routesEngine == null)
     {
       synchronized (this)
@@ -191,6 +171,21 @@ public class RoutesFilter implements Filter
     }
   }
 
+  /*
+   * Compiled again whenever the routing table publishes a new snapshot.
+   */
+  PathPrefilter getPrefilter(RoutingTable routingTable)
+  {
+    RoutingSnapshot snapshot = routingTable.getSnapshot();
+    PathPrefilter prefilter = this.prefilter;
+    if ((prefilter == null) || (prefilter.snapshot != snapshot))
+    {
+      prefilter = new PathPrefilter(snapshot, routingTable.routesConfiguration, onlyPatterns, exceptPatterns);
+      this.prefilter = prefilter;
+    }
+    return prefilter;
+  }
+
   @Override
   public void destroy()
   {}
@@ -170,6 +170,8 @@ class RoutesMethods
     typesToPatterns.put(double.class, DOUBLE_PATTERN);
     typesToPatterns.put(Boolean.class, BOOLEAN_PATTERN);
     typesToPatterns.put(boolean.class, BOOLEAN_PATTERN);
+    typesToPatterns.put(Character.class, CHAR_PATTERN);
+    typesToPatterns.put(char.class, CHAR_PATTERN);
     typesToPatterns.put(String.class, STRING_PATTERN);
   }
   
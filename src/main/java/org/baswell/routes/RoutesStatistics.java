@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Hit and miss counters for the route lookup tiers of a {@link RoutingTable}:
+ * </p>
+ *
+ * <ol>
+ *   <li>Exact: routes whose path criteria are all fixed, indexed by their path.</li>
+ *   <li>Miss cache: requests known not to match any route (if {@link RoutesConfiguration#missCacheSize} is set).</li>
+ *   <li>Cache: the {@link RoutesConfiguration#routesCache} (if one is configured) which only holds routes with pattern or
+ *   wildcard path criteria.</li>
+ * </ol>
+ *
+ * <p>
+ * Requests missed by all tiers are matched by a full lookup. The counters are updated without locking and can be read at
+ * any time.
+ * </p>
+ *
+ * @see RoutingTable#getStatistics()
+ */
+public class RoutesStatistics
+{
+  final LongAdder exactHits = new LongAdder();
+
+  final LongAdder exactMisses = new LongAdder();
+
+  final LongAdder missCacheHits = new LongAdder();
+
+  final LongAdder missCacheMisses = new LongAdder();
+
+  final LongAdder cacheHits = new LongAdder();
+
+  final LongAdder cacheMisses = new LongAdder();
+
+  /**
+   * @return The number of requests matched to a route through the exact path index.
+   */
+  public long getExactHits()
+  {
+    return exactHits.sum();
+  }
+
+  /**
+   * @return The number of requests not matched through the exact path index.
+   */
+  public long getExactMisses()
+  {
+    return exactMisses.sum();
+  }
+
+  /**
+   * @return The number of requests found in the miss cache (not matched to any route without a lookup).
+   */
+  public long getMissCacheHits()
+  {
+    return missCacheHits.sum();
+  }
+
+  /**
+   * @return The number of requests that were looked up in the miss cache and not found.
+   */
+  public long getMissCacheMisses()
+  {
+    return missCacheMisses.sum();
+  }
+
+  /**
+   * @return The fraction (0 to 1) of miss cache look ups that were found in the miss cache or 0 if there have been none.
+   */
+  public double getMissCacheHitRate()
+  {
+    long hits = getMissCacheHits();
+    long lookUps = hits + getMissCacheMisses();
+    return lookUps == 0 ? 0 : (double) hits / lookUps;
+  }
+
+  /**
+   * @return The number of requests matched to a route from the routes cache.
+   */
+  public long getCacheHits()
+  {
+    return cacheHits.sum();
+  }
+
+  /**
+   * @return The number of requests that were looked up in the routes cache and not matched.
+   */
+  public long getCacheMisses()
+  {
+    return cacheMisses.sum();
+  }
+
+  /**
+   * Sets all counters back to zero.
+   */
+  public void reset()
+  {
+    exactHits.reset();
+    exactMisses.reset();
+    missCacheHits.reset();
+    missCacheMisses.reset();
+    cacheHits.reset();
+    cacheMisses.reset();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "exact hits: " + getExactHits() + ", exact misses: " + getExactMisses() + ", miss cache hits: " + getMissCacheHits() + ", miss cache misses: " + getMissCacheMisses() + ", cache hits: " + getCacheHits() + ", cache misses: " + getCacheMisses();
+  }
+}
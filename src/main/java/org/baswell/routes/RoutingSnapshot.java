@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * One compiled version of the routes of a {@link RoutingTable}: the sorted routes, the exact path index and routing trie
+ * of each HTTP method, the names of the parameters used in routing and the miss cache. Nothing in a snapshot (other than the
+ * contents of its miss cache) changes after it is created and nothing it shares with other snapshots is written by it.
+ * Every build creates a new snapshot with the next generation and publishes it with a single volatile write so a lookup
+ * reads the snapshot once and sees one consistent set of routes from start to finish without taking a lock, while a build
+ * never has to wait for lookups in progress.
+ * </p>
+ *
+ * <p>
+ * The generation is part of every {@link RoutesCacheKey} so routes cached from a previous snapshot are never found again. A
+ * route returned by a cache that builds its own keys is only used if it's one of the routes of this snapshot (see
+ * {@link #contains(RouteNode)}). Route nodes of classes that didn't change are shared with the next snapshot by a development
+ * mode reload so nothing about which snapshots a route is part of is kept on the route itself.
+ * </p>
+ */
+class RoutingSnapshot
+{
+  final long generation;
+
+  final List<RouteNode> routeNodes;
+
+  /*
+   * The exact path index and routing trie are partitioned by HTTP method. A route is in the partition of every method it
+   * responds to so a lookup never looks at routes that don't respond to the request's method.
+   */
+  final Map<HttpMethod, Map<RequestPath, List<RouteNode>>> exactRoutes;
+
+  final Map<HttpMethod, RoutingTrie> routingTries;
+
+  /*
+   * The names of all parameters used in route criteria. Part of the routes cache key.
+   */
+  final String[] routingParameterNames;
+
+  /*
+   * Null if not configured. Every snapshot starts with an empty miss cache so misses of the previous routes are forgotten.
+   */
+  final MissCache missCache;
+
+  private final Set<RouteNode> routeNodeSet;
+
+  /**
+   * @param routeNodes The sorted routes of this snapshot.
+   */
+  RoutingSnapshot(long generation, List<RouteNode> routeNodes, RoutesConfiguration routesConfiguration)
+  {
+    this.generation = generation;
+    this.routeNodes = Collections.unmodifiableList(new ArrayList<RouteNode>(routeNodes));
+    routeNodeSet = Collections.newSetFromMap(new IdentityHashMap<RouteNode, Boolean>(routeNodes.size()));
+    routeNodeSet.addAll(routeNodes);
+
+    Map<HttpMethod, Map<RequestPath, List<RouteNode>>> exactRoutes = new EnumMap<HttpMethod, Map<RequestPath, List<RouteNode>>>(HttpMethod.class);
+    Map<HttpMethod, RoutingTrie> routingTries = new EnumMap<HttpMethod, RoutingTrie>(HttpMethod.class);
+
+    for (HttpMethod httpMethod : HttpMethod.values())
+    {
+      Map<RequestPath, List<RouteNode>> methodExactRoutes = new HashMap<RequestPath, List<RouteNode>>();
+      List<RouteNode> methodInexactRoutes = new ArrayList<RouteNode>();
+      for (RouteNode routeNode : routeNodes)
+      {
+        if (!routeNode.criteria.respondsTo(httpMethod))
+        {
+          continue;
+        }
+        else if (routeNode.exactPath)
+        {
+          List<String> exactPath = new ArrayList<String>();
+          if (routeNode.criteria.pathCriteria != null)
+          {
+            for (CriterionForPathSegment criterion : routeNode.criteria.pathCriteria)
+            {
+              exactPath.add(routesConfiguration.caseInsensitive ? criterion.value.toLowerCase() : criterion.value);
+            }
+          }
+
+          RequestPath exactRequestPath = new RequestPath(exactPath);
+          List<RouteNode> exactPathRoutes = methodExactRoutes.get(exactRequestPath);
+          if (exactPathRoutes == null)
+          {
+            exactPathRoutes = new ArrayList<RouteNode>();
+            methodExactRoutes.put(exactRequestPath, exactPathRoutes);
+          }
+          exactPathRoutes.add(routeNode);
+        }
+        else
+        {
+          methodInexactRoutes.add(routeNode);
+        }
+      }
+
+      exactRoutes.put(httpMethod, methodExactRoutes);
+      routingTries.put(httpMethod, new RoutingTrie(methodInexactRoutes, routesConfiguration.caseInsensitive));
+    }
+
+    this.exactRoutes = exactRoutes;
+    this.routingTries = routingTries;
+    routingParameterNames = RoutingTable.getRoutingParameterNames(routeNodes);
+    missCache = routesConfiguration.missCacheSize > 0 ? new MissCache(routesConfiguration.missCacheSize) : null;
+  }
+
+  /**
+   * @return True if the given route is one of the routes of this snapshot.
+   */
+  boolean contains(RouteNode routeNode)
+  {
+    return routeNodeSet.contains(routeNode);
+  }
+}
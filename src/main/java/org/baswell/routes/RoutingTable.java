@@ -15,18 +15,36 @@
  */
 package org.baswell.routes;
 
+import java.io.File;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.baswell.routes.ContentConversionType.*;
 import static org.baswell.routes.RoutesMethods.*;
@@ -62,6 +80,11 @@ import static org.baswell.routes.RoutesMethods.*;
  */
 public class RoutingTable
 {
+  /*
+   * The class files modified time of routes whose class files can't be timestamped (see classFilesModified).
+   */
+  static final long UNKNOWN_MODIFIED = -1;
+
   static RoutingTable theRoutingTable;
 
   final RoutesConfiguration routesConfiguration;
@@ -70,7 +93,45 @@ public class RoutingTable
 
   private List<Object> addedObjects = new ArrayList<Object>();
   
-  private List<RouteNode> routeNodes;
+  /*
+   * Replaced as a whole by every build. Lookups read it once and never lock.
+   */
+  private volatile RoutingSnapshot snapshot;
+
+  /*
+   * The generation of the last published snapshot. Only changed while holding this table's lock.
+   */
+  private long generation;
+
+  /*
+   * The bridges of the last build. Used for request content of routes that weren't given a reader when they were built.
+   */
+  volatile ContentBridges contentBridges;
+
+  /*
+   * The routes built for each added object by the last build or reload.
+   */
+  private Map<Object, BuiltRoutes> builtRoutes = new IdentityHashMap<Object, BuiltRoutes>();
+
+  /*
+   * Set while a request thread rebuilds the routes (see ensureBuilt).
+   */
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+  /*
+   * Set by shutdown until the next build. The snapshot published by shutdown has no routes so requests wait for the
+   * rebuild instead of being served from it (see ensureBuilt).
+   */
+  private volatile boolean shutdown;
+
+  private final RoutesStatistics statistics = new RoutesStatistics();
+
+  /*
+   * Only set once a route that runs on a virtual thread is built.
+   */
+  volatile Executor virtualThreadExecutor;
+
+  private ExecutorService createdVirtualThreadExecutor;
 
   private Thread developmentModeThread;
 
@@ -85,6 +146,8 @@ public class RoutingTable
   public RoutingTable(RoutesConfiguration routesConfiguration)
   {
     this.routesConfiguration = routesConfiguration == null ? new RoutesConfiguration() : routesConfiguration;
+    snapshot = new RoutingSnapshot(0, new ArrayList<RouteNode>(), this.routesConfiguration);
+    contentBridges = new ContentBridges(this.routesConfiguration);
     RoutingTable.theRoutingTable = this;
   }
 
@@ -146,210 +209,695 @@ public class RoutingTable
    *
    * @throws RoutesException If an added route is configured incorrectly.
    */
-  public void build() throws RoutesException
+  public synchronized void build() throws RoutesException
   {
-    Parser parser = new Parser();
-    CriteriaBuilder criteriaBuilder = new CriteriaBuilder();
-    MethodParametersBuilder parametersBuilder = new MethodParametersBuilder();
-    AvailableLibraries availableLibraries = new AvailableLibraries(routesConfiguration);
+    Map<Object, BuiltRoutes> builtRoutes = new IdentityHashMap<Object, BuiltRoutes>();
+    buildAllRoutes(addedObjects, builtRoutes);
+    publish(builtRoutes);
 
-    List<RouteNode> routeNodes = new ArrayList<RouteNode>();
-    for (Object addedObject : addedObjects)
+    if (!built)
     {
-      boolean instanceIsClass = (addedObject instanceof Class);
-      Class routesClass = instanceIsClass ? (Class) addedObject : addedObject.getClass();
-
-      List<BeforeRouteNode> classBeforeNodes = getBeforeRouteNodes(routesClass);
-      List<AfterRouteNode> classAfterNodes = getAfterRouteNodes(routesClass);
-
-      Routes routesAnnotation = new RoutesAggregate(routesClass);
-
-      int numRoutesPaths;
-      boolean routeUnannotatedPublicMethods;
-
-      if (routesAnnotation == null)
+      built = true;
+      if (routesConfiguration.developmentMode)
       {
-        numRoutesPaths = 1;
-        if (routesConfiguration.routeUnannotatedPublicMethods)
+        if (routesConfiguration.logger != null)
         {
-          routeUnannotatedPublicMethods = true;
+          routesConfiguration.logger.logError("Routes is running in development mode.");
         }
-        else
+        developmentModeThread = new Thread(new Runnable()
         {
-          /*
-           * If this an empty class with no Route annotations then we're going to route the public methods since it
-           * was added to the RoutingTable
-           */
-          boolean routeAnnotationFound = false;
-          for (Method method : routesClass.getMethods())
+          @Override
+          public void run()
           {
-            if (method.getAnnotation(Route.class) != null)
+            try
             {
-              routeAnnotationFound = true;
-              break;
+              while (developmentModeThread == Thread.currentThread())
+              {
+                Thread.sleep(routesConfiguration.developmentReloadCycleSeconds * 1000);
+
+                reloadChangedRoutes();
+              }
+            }
+            catch (Exception e)
+            {
+              if (routesConfiguration.logger != null)
+              {
+                routesConfiguration.logger.logError("Routes development mode thread crashed.", e);
+              }
             }
           }
-          routeUnannotatedPublicMethods = !routeAnnotationFound;
+        }, "Routes Development Reloading");
+
+        developmentModeThread.setDaemon(true);
+        developmentModeThread.start();
+      }
+    }
+  }
+
+  /*
+   * Rebuilds only the routes of the added objects whose class files changed since they were last built and publishes a new
+   * snapshot with them in place of their old routes. Routes whose class files can't be timestamped are always rebuilt.
+   * Nothing is built or published if no class file changed. Called by the development mode thread.
+   *
+   * @return True if any routes were rebuilt.
+   */
+  synchronized boolean reloadChangedRoutes() throws RoutesException
+  {
+    List<Object> changedObjects = new ArrayList<Object>();
+    for (Object addedObject : addedObjects)
+    {
+      BuiltRoutes objectRoutes = builtRoutes.get(addedObject);
+      if ((objectRoutes == null) || (objectRoutes.classFilesModified == UNKNOWN_MODIFIED) || (objectRoutes.classFilesModified != classFilesModified(routesClass(addedObject))))
+      {
+        changedObjects.add(addedObject);
+      }
+    }
+
+    if (changedObjects.isEmpty())
+    {
+      return false;
+    }
+    else
+    {
+      Map<Object, BuiltRoutes> builtRoutes = new IdentityHashMap<Object, BuiltRoutes>(this.builtRoutes);
+      buildAllRoutes(changedObjects, builtRoutes);
+      publish(builtRoutes);
+      return true;
+    }
+  }
+
+  /*
+   * Called for every request. Until the first build (or the first build after a shutdown) requests wait for the routes to be
+   * built. After that a rebuild (routes added since the last build) is done by the first request that sees it's needed while
+   * all other requests keep using the current snapshot.
+   */
+  void ensureBuilt() throws RoutesException
+  {
+    if (built)
+    {
+      return;
+    }
+    else if ((snapshot.generation == 0) || shutdown)
+    {
+      synchronized (this)
+      {
+        if (!built)
+        {
+          build();
         }
       }
-      else
+    }
+    else if (rebuilding.compareAndSet(false, true))
+    {
+      try
       {
-        numRoutesPaths = Math.max(1, routesAnnotation.value().length);
-        routeUnannotatedPublicMethods = routesAnnotation.routeUnannotatedPublicMethods().length == 0 ? routesConfiguration.routeUnannotatedPublicMethods : routesAnnotation.routeUnannotatedPublicMethods()[0];
+        if (!built)
+        {
+          build();
+        }
+      }
+      finally
+      {
+        rebuilding.set(false);
       }
+    }
+  }
 
-      List<RouteNode> classRoutes = new ArrayList<RouteNode>();
+  public synchronized void shutdown()
+  {
+    developmentModeThread = null;
+    built = false;
+    shutdown = true;
+    snapshot = new RoutingSnapshot(++generation, new ArrayList<RouteNode>(), routesConfiguration);
+    if (routesConfiguration.routesCache != null)
+    {
+      routesConfiguration.routesCache.clear();
+    }
+
+    if (createdVirtualThreadExecutor != null)
+    {
+      createdVirtualThreadExecutor.shutdown();
+      createdVirtualThreadExecutor = null;
+    }
+    virtualThreadExecutor = null;
+  }
 
-      for (Method method : routesClass.getMethods())
+  /**
+   * @return The hit and miss counters of the route lookup tiers.
+   */
+  public RoutesStatistics getStatistics()
+  {
+    return statistics;
+  }
+
+  /**
+   * @return The execution counters of every route that runs on a virtual thread.
+   * @see Route#runOnVirtualThread()
+   */
+  public List<RouteMetrics> getRouteMetrics()
+  {
+    List<RouteMetrics> routeMetrics = new ArrayList<RouteMetrics>();
+    for (RouteNode routeNode : snapshot.routeNodes)
+    {
+      if (routeNode.metrics != null)
       {
-        if (isMain(method)) continue;
+        routeMetrics.add(routeNode.metrics);
+      }
+    }
+    return routeMetrics;
+  }
+
+  /**
+   * Routes with only fixed path criteria sort ahead of all other routes so a match from the exact path index always wins.
+   * Otherwise the miss cache (if configured) is checked for a request that matched nothing last time, the routes cache (if
+   * configured) is checked for the route this request matched last time and then all remaining routes are checked. Only
+   * routes with pattern or wildcard path criteria are put in the routes cache.
+   */
+  MatchedRoute find(RequestPath path, RequestParameters parameters, HttpMethod httpMethod, RequestedMediaType requestedMediaType)
+  {
+    if (httpMethod == null)
+    {
+      return null;
+    }
 
-        Route routeAnnotation = method.getAnnotation(Route.class);
-        if ((routeAnnotation != null) || (routeUnannotatedPublicMethods && Modifier.isPublic(method.getModifiers()) && (method.getDeclaringClass() == routesClass)))
+    RoutingSnapshot snapshot = this.snapshot;
+    MissCache missCache = snapshot.missCache;
+
+    MatchedRoute matchedRoute = findExact(snapshot, path, parameters, httpMethod, requestedMediaType);
+    if (matchedRoute != null)
+    {
+      return matchedRoute;
+    }
+
+    RoutesCacheKey routesCacheKey = null;
+    if (missCache != null)
+    {
+      routesCacheKey = new RoutesCacheKey(httpMethod, requestedMediaType, path, parameters, snapshot.routingParameterNames, snapshot.generation);
+      if (missCache.contains(routesCacheKey))
+      {
+        statistics.missCacheHits.increment();
+        return null;
+      }
+      statistics.missCacheMisses.increment();
+    }
+
+    RoutesCache routesCache = routesConfiguration.routesCache;
+    if (routesCache != null)
+    {
+      if (routesCacheKey == null)
+      {
+        routesCacheKey = new RoutesCacheKey(httpMethod, requestedMediaType, path, parameters, snapshot.routingParameterNames, snapshot.generation);
+      }
+      matchedRoute = findCompiled(snapshot, routesCache, routesCacheKey);
+      if (matchedRoute != null)
+      {
+        return matchedRoute;
+      }
+    }
+
+    List<RouteNode> candidates = snapshot.routingTries.get(httpMethod).findCandidates(path, requestedMediaType);
+    for (RouteNode routeNode : candidates)
+    {
+      matchedRoute = match(routeNode, path, parameters, httpMethod, requestedMediaType);
+      if (matchedRoute != null)
+      {
+        if (routesCache != null)
         {
+          routesCache.put(routeNode, routesCacheKey.detach());
+        }
+        return matchedRoute;
+      }
+    }
 
-          for (int i = 0; i < numRoutesPaths; i++)
-          {
-            RouteConfiguration routeConfiguration = new RouteConfiguration(routesClass, method, routesConfiguration, routesAnnotation, routeAnnotation, i);
-            ParsedRouteTree tree = parser.parse(routeConfiguration.route);
-            RouteInstance routeInstance = instanceIsClass ? new RouteInstance(routesClass, routesConfiguration.routeInstancePool) : new RouteInstance(addedObject);
-            Criteria criteria = criteriaBuilder.buildCriteria(method, tree, routeConfiguration, routesConfiguration);
-            List<MethodParameter> parameters = parametersBuilder.buildParameters(method, criteria);
-            ResponseType responseType = mapResponseType(method, routeConfiguration);
-            ContentConversionType contentConversionType;
-
-            /*
-             * Try to map the content version type statically. If the method is strongly typed this should work. If it's more dynamic (for example returns a java.lang.Object) then
-             * we won't be able to map it here and will have to map it dyanmically on each request.
-             */
-            if (responseType == ResponseType.STRING_CONTENT)
-            {
-              MediaType mediaType = null;
-              if (hasContent(routeConfiguration.contentType))
-              {
-                mediaType = MediaType.findFromMimeType(routeConfiguration.contentType);
-              }
+    if (missCache != null)
+    {
+      missCache.add(routesCacheKey.detach());
+    }
+    return null;
+  }
 
-              if ((mediaType == null) && (routeConfiguration.respondsToMedia.size() == 1))
-              {
-                mediaType = routeConfiguration.respondsToMedia.get(0);
-              }
+  MatchedRoute findExact(RoutingSnapshot snapshot, RequestPath path, RequestParameters parameters, HttpMethod httpMethod, RequestedMediaType requestedMediaType)
+  {
+    RequestPath exactPath = path;
+    if (routesConfiguration.caseInsensitive)
+    {
+      List<String> lowerCaseSegments = new ArrayList<String>(path.size());
+      for (int i = 0; i < path.size(); i++)
+      {
+        lowerCaseSegments.add(path.get(i).toLowerCase());
+      }
+      exactPath = new RequestPath(lowerCaseSegments);
+    }
 
-              contentConversionType = mapContentConversionType(method.getReturnType(), mediaType, availableLibraries);
-              if ((contentConversionType != null) && nullEmpty(routeConfiguration.contentType))
-              {
-                routeConfiguration.contentType = contentConversionType.mimeType;
-              }
-            }
-            else
-            {
-              contentConversionType = null;
-            }
+    List<RouteNode> exactPathRoutes = snapshot.exactRoutes.get(httpMethod).get(exactPath);
+    if (exactPathRoutes != null)
+    {
+      for (RouteNode routeNode : exactPathRoutes)
+      {
+        MatchedRoute matchedRoute = match(routeNode, path, parameters, httpMethod, requestedMediaType);
+        if (matchedRoute != null)
+        {
+          statistics.exactHits.increment();
+          return matchedRoute;
+        }
+      }
+    }
 
-            List<BeforeRouteNode> beforeNodes = new ArrayList<BeforeRouteNode>();
-            for (BeforeRouteNode beforeNode : classBeforeNodes)
-            {
-              if ((beforeNode.onlyTags.isEmpty() || containsOne(beforeNode.onlyTags, routeConfiguration.tags)) && (beforeNode.exceptTags.isEmpty() || !containsOne(beforeNode.exceptTags, routeConfiguration.tags)))
-              {
-                beforeNodes.add(beforeNode);
-              }
-            }
+    statistics.exactMisses.increment();
+    return null;
+  }
 
-            List<AfterRouteNode> afterNodes = new ArrayList<AfterRouteNode>();
-            for (AfterRouteNode afterNode : classAfterNodes)
-            {
-              if ((afterNode.onlyTags.isEmpty() || containsOne(afterNode.onlyTags, routeConfiguration.tags)) && (afterNode.exceptTags.isEmpty() || !containsOne(afterNode.exceptTags, routeConfiguration.tags)))
-              {
-                afterNodes.add(afterNode);
-              }
-            }
+  /*
+   * The cache holds the compiled route, not the match. The route is matched again against this request to get this request's
+   * matchers (and in case the cache returned a stale route). A route from an older snapshot is never used even if a cache
+   * that builds its own keys returns one.
+   */
+  MatchedRoute findCompiled(RoutingSnapshot snapshot, RoutesCache routesCache, RoutesCacheKey routesCacheKey)
+  {
+    Object cached = routesCache.get(routesCacheKey);
+    if ((cached instanceof RouteNode) && snapshot.contains((RouteNode) cached))
+    {
+      MatchedRoute matchedRoute = match((RouteNode) cached, routesCacheKey.path, routesCacheKey.parameters, routesCacheKey.method, routesCacheKey.requestedMediaType);
+      if (matchedRoute != null)
+      {
+        statistics.cacheHits.increment();
+        return matchedRoute;
+      }
+    }
 
-            classRoutes.add(new RouteNode(routeNodes.size(), method, routeConfiguration, routeInstance, criteria, parameters, responseType, contentConversionType, beforeNodes, afterNodes));
-          }
+    statistics.cacheMisses.increment();
+    return null;
+  }
+
+  static MatchedRoute match(RouteNode routeNode, RequestPath path, RequestParameters parameters, HttpMethod httpMethod, RequestedMediaType requestedMediaType)
+  {
+    if (!routeNode.criteria.respondsTo(requestedMediaType))
+    {
+      return null;
+    }
+
+    List<Object> pathMatches = new ArrayList<Object>();
+    Map<String, Object> parameterMatches = new HashMap<String, Object>();
+    if (routeNode.criteria.matches(httpMethod, requestedMediaType, path, parameters, pathMatches, parameterMatches))
+    {
+      return new MatchedRoute(routeNode, pathMatches, parameterMatches);
+    }
+    else
+    {
+      return null;
+    }
+  }
+
+  /*
+   * Sorts the routes of all added objects (in the order the objects were added, the sort is stable so routes with equal
+   * criteria keep that order) and publishes them as the next snapshot.
+   */
+  private void publish(Map<Object, BuiltRoutes> builtRoutes)
+  {
+    long generation = this.generation + 1;
+    List<RouteNode> routeNodes = new ArrayList<RouteNode>();
+    for (Object addedObject : addedObjects)
+    {
+      routeNodes.addAll(builtRoutes.get(addedObject).routeNodes);
+    }
+    Collections.sort(routeNodes);
+
+    for (RouteNode routeNode : routeNodes)
+    {
+      if (routeNode.routeConfiguration.runOnVirtualThread && (virtualThreadExecutor == null))
+      {
+        if (routesConfiguration.virtualThreadExecutor != null)
+        {
+          virtualThreadExecutor = routesConfiguration.virtualThreadExecutor;
+        }
+        else
+        {
+          createdVirtualThreadExecutor = newVirtualThreadExecutor();
+          virtualThreadExecutor = createdVirtualThreadExecutor;
         }
       }
+    }
+
+    this.builtRoutes = builtRoutes;
+    snapshot = new RoutingSnapshot(generation, routeNodes, routesConfiguration);
+    this.generation = generation;
+    shutdown = false;
+
+    /*
+     * Routes cached from the previous snapshot are never used again (see findCompiled) so don't leave them taking up the
+     * cache until they're evicted.
+     */
+    if (routesConfiguration.routesCache != null)
+    {
+      routesConfiguration.routesCache.clear();
+    }
+  }
 
-      if (!classRoutes.isEmpty())
+  /*
+   * Builds the routes of the given objects into builtRoutes. The objects are built in parallel on a fork/join pool of
+   * RoutesConfiguration.buildParallelism threads. The result doesn't depend on the order the objects finish in (publish
+   * orders the routes by the order the objects were added). If more than one object fails to build the exception of the
+   * first one added is thrown. The pool threads get the context class loader of the calling thread since building can
+   * look up classes through it (ex. JAXBContext.newInstance).
+   */
+  private void buildAllRoutes(List<Object> objects, Map<Object, BuiltRoutes> builtRoutes) throws RoutesException
+  {
+    final RouteBuilders routeBuilders = new RouteBuilders();
+    contentBridges = routeBuilders.contentBridges;
+    int parallelism = Math.min(routesConfiguration.buildParallelism, objects.size());
+    if (parallelism <= 1)
+    {
+      for (Object object : objects)
       {
-        routeNodes.addAll(classRoutes);
+        builtRoutes.put(object, buildRoutes(object, routeBuilders));
+      }
+      return;
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism, new ContextClassLoaderThreadFactory(Thread.currentThread().getContextClassLoader()), null, false);
+    try
+    {
+      List<ForkJoinTask<BuiltRoutes>> tasks = new ArrayList<ForkJoinTask<BuiltRoutes>>(objects.size());
+      for (final Object object : objects)
+      {
+        tasks.add(pool.submit(new Callable<BuiltRoutes>()
+        {
+          @Override
+          public BuiltRoutes call() throws Exception
+          {
+            return buildRoutes(object, routeBuilders);
+          }
+        }));
+      }
+
+      for (int i = 0; i < objects.size(); i++)
+      {
+        builtRoutes.put(objects.get(i), tasks.get(i).get());
+      }
+    }
+    catch (ExecutionException e)
+    {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+      {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error)
+      {
+        throw (Error) cause;
       }
       else
       {
-        throw new RoutesException("Route class: " + routesClass + " has no routes.");
+        throw new RoutesException("Unable to build routes.", cause);
       }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new RoutesException("Interrupted while building routes.", e);
+    }
+    finally
+    {
+      pool.shutdownNow();
+    }
+  }
+
+  /*
+   * Fork/join worker threads don't inherit the context class loader of the thread that created the pool.
+   */
+  static class ContextClassLoaderThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory
+  {
+    final ClassLoader contextClassLoader;
 
+    ContextClassLoaderThreadFactory(ClassLoader contextClassLoader)
+    {
+      this.contextClassLoader = contextClassLoader;
     }
-    Collections.sort(routeNodes);
 
-    this.routeNodes = routeNodes;
-    if (!built)
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool)
     {
-      built = true;
-      if (routesConfiguration.developmentMode)
+      ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool)
+      {};
+      thread.setContextClassLoader(contextClassLoader);
+      return thread;
+    }
+  }
+
+  private BuiltRoutes buildRoutes(Object addedObject, RouteBuilders routeBuilders) throws RoutesException
+  {
+    Class routesClass = routesClass(addedObject);
+    long classFilesModified = routesConfiguration.developmentMode ? classFilesModified(routesClass) : 0;
+    return new BuiltRoutes(buildRouteNodes(addedObject, routeBuilders), classFilesModified);
+  }
+
+  private List<RouteNode> buildRouteNodes(Object addedObject, RouteBuilders routeBuilders) throws RoutesException
+  {
+    Parser parser = routeBuilders.parser;
+    CriteriaBuilder criteriaBuilder = routeBuilders.criteriaBuilder;
+    MethodParametersBuilder parametersBuilder = routeBuilders.parametersBuilder;
+    AvailableLibraries availableLibraries = routeBuilders.availableLibraries;
+
+    boolean instanceIsClass = (addedObject instanceof Class);
+    Class routesClass = routesClass(addedObject);
+
+    GeneratedRoutes generatedRoutes = routesConfiguration.useGeneratedRoutes ? loadGeneratedRoutes(routesClass) : null;
+    List<BeforeRouteNode> classBeforeNodes = getBeforeRouteNodes(routesClass, generatedRoutes);
+    List<AfterRouteNode> classAfterNodes = getAfterRouteNodes(routesClass, generatedRoutes);
+
+    Routes routesAnnotation = new RoutesAggregate(routesClass);
+
+    int numRoutesPaths;
+    boolean routeUnannotatedPublicMethods;
+
+    if (routesAnnotation == null)
+    {
+      numRoutesPaths = 1;
+      if (routesConfiguration.routeUnannotatedPublicMethods)
       {
-        if (routesConfiguration.logger != null)
+        routeUnannotatedPublicMethods = true;
+      }
+      else
+      {
+        /*
+         * If this an empty class with no Route annotations then we're going to route the public methods since it
+         * was added to the RoutingTable
+         */
+        boolean routeAnnotationFound = false;
+        for (Method method : routesClass.getMethods())
         {
-          routesConfiguration.logger.logError("Routes is running in development mode.");
+          if (method.getAnnotation(Route.class) != null)
+          {
+            routeAnnotationFound = true;
+            break;
+          }
         }
-        developmentModeThread = new Thread(new Runnable()
+        routeUnannotatedPublicMethods = !routeAnnotationFound;
+      }
+    }
+    else
+    {
+      numRoutesPaths = Math.max(1, routesAnnotation.value().length);
+      routeUnannotatedPublicMethods = routesAnnotation.routeUnannotatedPublicMethods().length == 0 ? routesConfiguration.routeUnannotatedPublicMethods : routesAnnotation.routeUnannotatedPublicMethods()[0];
+    }
+
+    List<RouteNode> classRoutes = new ArrayList<RouteNode>();
+
+    for (Method method : routesClass.getMethods())
+    {
+      if (isMain(method)) continue;
+
+      Route routeAnnotation = method.getAnnotation(Route.class);
+      if ((routeAnnotation != null) || (routeUnannotatedPublicMethods && Modifier.isPublic(method.getModifiers()) && (method.getDeclaringClass() == routesClass)))
+      {
+        CompiledInvoker invoker = new CompiledInvoker(method, generatedRoutes);
+
+        for (int i = 0; i < numRoutesPaths; i++)
         {
-          @Override
-          public void run()
+          RouteConfiguration routeConfiguration = new RouteConfiguration(routesClass, method, routesConfiguration, routesAnnotation, routeAnnotation, i);
+          ParsedRouteTree tree = parser.parse(routeConfiguration.route);
+          RouteInstance routeInstance = instanceIsClass ? new RouteInstance(routesClass, routesConfiguration.routeInstancePool) : new RouteInstance(addedObject);
+          Criteria criteria = criteriaBuilder.buildCriteria(method, tree, routeConfiguration, routesConfiguration);
+          List<MethodParameter> parameters = parametersBuilder.buildParameters(method, criteria);
+          ResponseType responseType = mapResponseType(method, routeConfiguration);
+          ContentConversionType contentConversionType;
+
+          /*
+           * Try to map the content version type statically. If the method is strongly typed this should work. If it's more dynamic (for example returns a java.lang.Object) then
+           * we won't be able to map it here and will have to map it dyanmically on each request.
+           */
+          if (responseType == ResponseType.STRING_CONTENT)
           {
-            try
+            MediaType mediaType = null;
+            if (hasContent(routeConfiguration.contentType))
             {
-              while (developmentModeThread == Thread.currentThread())
-              {
-                Thread.sleep(routesConfiguration.developmentReloadCycleSeconds * 1000);
+              mediaType = MediaType.findFromMimeType(routeConfiguration.contentType);
+            }
 
-                build();
-              }
+            if ((mediaType == null) && (routeConfiguration.respondsToMedia.size() == 1))
+            {
+              mediaType = routeConfiguration.respondsToMedia.get(0);
             }
-            catch (Exception e)
+
+            contentConversionType = mapContentConversionType(getResponseClass(method), mediaType, availableLibraries);
+            if ((contentConversionType != null) && nullEmpty(routeConfiguration.contentType))
             {
-              if (routesConfiguration.logger != null)
-              {
-                routesConfiguration.logger.logError("Routes development mode thread crashed.", e);
-              }
+              routeConfiguration.contentType = contentConversionType.mimeType;
             }
           }
-        }, "Routes Development Reloading");
+          else
+          {
+            contentConversionType = null;
+          }
 
-        developmentModeThread.setDaemon(true);
-        developmentModeThread.start();
+          List<BeforeRouteNode> beforeNodes = new ArrayList<BeforeRouteNode>();
+          for (BeforeRouteNode beforeNode : classBeforeNodes)
+          {
+            if ((beforeNode.onlyTags.isEmpty() || containsOne(beforeNode.onlyTags, routeConfiguration.tags)) && (beforeNode.exceptTags.isEmpty() || !containsOne(beforeNode.exceptTags, routeConfiguration.tags)))
+            {
+              beforeNodes.add(beforeNode);
+            }
+          }
+
+          List<AfterRouteNode> afterNodes = new ArrayList<AfterRouteNode>();
+          for (AfterRouteNode afterNode : classAfterNodes)
+          {
+            if ((afterNode.onlyTags.isEmpty() || containsOne(afterNode.onlyTags, routeConfiguration.tags)) && (afterNode.exceptTags.isEmpty() || !containsOne(afterNode.exceptTags, routeConfiguration.tags)))
+            {
+              afterNodes.add(afterNode);
+            }
+          }
+
+          Type requestContentType = RouteNode.findRequestContentType(parameters, beforeNodes, afterNodes);
+          Object requestContentReader = (requestContentType == null) ? null : routeBuilders.getRequestContentReader(requestContentType);
+          Object responseContentWriter = (contentConversionType == null) ? null : routeBuilders.getResponseContentWriter(getResponseType(method), contentConversionType);
+
+          classRoutes.add(new RouteNode(method, invoker, routeConfiguration, routeInstance, criteria, parameters, responseType, contentConversionType, beforeNodes, afterNodes, requestContentType, requestContentReader, responseContentWriter));
+        }
       }
     }
+
+    if (classRoutes.isEmpty())
+    {
+      throw new RoutesException("Route class: " + routesClass + " has no routes.");
+    }
+    return classRoutes;
   }
 
-  public void shutdown()
+  static Class routesClass(Object addedObject)
   {
-    developmentModeThread = null;
-    built = false;
-    routeNodes.clear();;
+    return (addedObject instanceof Class) ? (Class) addedObject : addedObject.getClass();
   }
 
-  MatchedRoute find(RequestPath path, RequestParameters parameters, HttpMethod httpMethod, RequestedMediaType requestedMediaType)
+  /*
+   * The class generated for the given routes class by the routes-processor annotation processor or null if the class wasn't
+   * compiled with the processor.
+   */
+  static GeneratedRoutes loadGeneratedRoutes(Class routesClass) throws RoutesException
   {
-    List<Matcher> pathMatchers = new ArrayList<Matcher>();
-    Map<String, Matcher> parameterMatchers = new HashMap<String, Matcher>();
-    for (RouteNode routeNode : routeNodes)
+    String className = routesClass.getName();
+    int packageEnd = className.lastIndexOf('.') + 1;
+    String generatedClassName = className.substring(0, packageEnd) + className.substring(packageEnd).replace('$', '_') + GeneratedRoutes.CLASS_NAME_SUFFIX;
+
+    Class generatedClass;
+    try
     {
-      pathMatchers.clear();
-      parameterMatchers.clear();
-      if (routeNode.criteria.matches(httpMethod, requestedMediaType, path, parameters, pathMatchers, parameterMatchers))
+      generatedClass = Class.forName(generatedClassName, true, routesClass.getClassLoader());
+    }
+    catch (ClassNotFoundException e)
+    {
+      return null;
+    }
+
+    if (!GeneratedRoutes.class.isAssignableFrom(generatedClass))
+    {
+      return null;
+    }
+
+    try
+    {
+      return (GeneratedRoutes) generatedClass.getDeclaredConstructor().newInstance();
+    }
+    catch (Exception e)
+    {
+      throw new RoutesException("Unable to create generated routes: " + generatedClassName, e);
+    }
+  }
+
+  /*
+   * The latest modification time of the class files of the given class and its super classes. A class loaded from a
+   * directory is timestamped by its class file and a class loaded from a jar by the jar file (from its code source).
+   * Returns UNKNOWN_MODIFIED if any class in the hierarchy can't be timestamped (for example classes loaded through a
+   * virtual file system) so its routes are rebuilt on every development mode reload. Classes of the bootstrap class loader
+   * never change and are skipped.
+   */
+  static long classFilesModified(Class clazz)
+  {
+    long modified = 0;
+    for (Class hierarchyClass = clazz; (hierarchyClass != null) && (hierarchyClass != Object.class); hierarchyClass = hierarchyClass.getSuperclass())
+    {
+      if (hierarchyClass.getClassLoader() == null)
       {
-        return new MatchedRoute(routeNode, pathMatchers, parameterMatchers);
+        continue;
       }
+
+      String className = hierarchyClass.getName();
+      URL classFile = hierarchyClass.getResource(className.substring(className.lastIndexOf('.') + 1) + ".class");
+      long classModified = fileModified(classFile);
+      if (classModified == UNKNOWN_MODIFIED)
+      {
+        try
+        {
+          CodeSource codeSource = hierarchyClass.getProtectionDomain().getCodeSource();
+          classModified = fileModified((codeSource == null) ? null : codeSource.getLocation());
+        }
+        catch (SecurityException e)
+        {}
+      }
+
+      if (classModified == UNKNOWN_MODIFIED)
+      {
+        return UNKNOWN_MODIFIED;
+      }
+      modified = Math.max(modified, classModified);
     }
-    return null;
+    return modified;
+  }
+
+  /*
+   * The modification time of the given file URL or UNKNOWN_MODIFIED if it's not a file URL of an existing file.
+   */
+  static long fileModified(URL url)
+  {
+    if ((url != null) && "file".equals(url.getProtocol()))
+    {
+      try
+      {
+        long modified = new File(url.toURI()).lastModified();
+        if (modified > 0)
+        {
+          return modified;
+        }
+      }
+      catch (URISyntaxException e)
+      {}
+      catch (IllegalArgumentException e)
+      {}
+    }
+    return UNKNOWN_MODIFIED;
+  }
+
+  RoutingSnapshot getSnapshot()
+  {
+    return snapshot;
   }
 
   List<RouteNode> getRouteNodes()
   {
-    return new ArrayList<RouteNode>(routeNodes);
+    return new ArrayList<RouteNode>(snapshot.routeNodes);
   }
 
-  static List<BeforeRouteNode> getBeforeRouteNodes(Class clazz) throws RoutesException
+  static List<BeforeRouteNode> getBeforeRouteNodes(Class clazz, GeneratedRoutes generatedRoutes) throws RoutesException
   {
     List<Class> classHierarchy = new ArrayList<Class>();
     classHierarchy.add(clazz);
@@ -373,7 +921,7 @@ public class RoutingTable
           List<MethodParameter> routeParameters = new MethodParametersBuilder().buildParameters(method);
           Integer explicitOrder = beforeRoute.order().length == 0 ? null : beforeRoute.order()[0];
 
-          nodes.add(new BeforeRouteNode(method, routeParameters, returnsBoolean, new HashSet<String>(Arrays.asList(beforeRoute.onlyTags())), new HashSet<String>(Arrays.asList(beforeRoute.exceptTags())), explicitOrder, hierarchyOrder));
+          nodes.add(new BeforeRouteNode(method, new CompiledInvoker(method, generatedRoutes), routeParameters, returnsBoolean, new HashSet<String>(Arrays.asList(beforeRoute.onlyTags())), new HashSet<String>(Arrays.asList(beforeRoute.exceptTags())), explicitOrder, hierarchyOrder));
         }
         else
         {
@@ -386,7 +934,7 @@ public class RoutingTable
     return nodes;
   }
 
-  static List<AfterRouteNode> getAfterRouteNodes(Class clazz) throws RoutesException
+  static List<AfterRouteNode> getAfterRouteNodes(Class clazz, GeneratedRoutes generatedRoutes) throws RoutesException
   {
     List<Class> classHierarchy = new ArrayList<Class>();
     classHierarchy.add(clazz);
@@ -410,7 +958,7 @@ public class RoutingTable
           boolean onlyOnSuccess = afterRoute.onlyOnSuccess().length == 0 ? false : afterRoute.onlyOnSuccess()[0];
           boolean onlyOnError = afterRoute.onlyOnError().length == 0 ? false : afterRoute.onlyOnError()[0];
           Integer explicitOrder = afterRoute.order().length == 0 ? null : afterRoute.order()[0];
-          nodes.add(new AfterRouteNode(method, routeParameters, new HashSet<String>(Arrays.asList(afterRoute.onlyTags())), new HashSet<String>(Arrays.asList(afterRoute.exceptTags())), onlyOnSuccess, onlyOnError, explicitOrder, hierarchyOrder));
+          nodes.add(new AfterRouteNode(method, new CompiledInvoker(method, generatedRoutes), routeParameters, new HashSet<String>(Arrays.asList(afterRoute.onlyTags())), new HashSet<String>(Arrays.asList(afterRoute.exceptTags())), onlyOnSuccess, onlyOnError, explicitOrder, hierarchyOrder));
         }
         else
         {
@@ -432,6 +980,25 @@ public class RoutingTable
     return false;
   }
 
+  static String[] getRoutingParameterNames(List<RouteNode> routeNodes)
+  {
+    Set<String> names = new HashSet<String>();
+    for (RouteNode routeNode : routeNodes)
+    {
+      if (routeNode.criteria.parameterCriteria != null)
+      {
+        for (CriterionForParameter parameterCriterion : routeNode.criteria.parameterCriteria)
+        {
+          names.add(parameterCriterion.name);
+        }
+      }
+    }
+
+    String[] routingParameterNames = names.toArray(new String[names.size()]);
+    Arrays.sort(routingParameterNames);
+    return routingParameterNames;
+  }
+
   static boolean isMain(Method method)
   {
     if (method.getName().equals("main") && Modifier.isPublic(method.getModifiers()) && Modifier.isStatic(method.getModifiers()))
@@ -454,7 +1021,7 @@ public class RoutingTable
 
   static ResponseType mapResponseType(Method method, RouteConfiguration routeConfiguration)
   {
-    Class returnType = method.getReturnType();
+    Class returnType = getResponseClass(method);
     if ((returnType == void.class) || (returnType == Void.class))
     {
       return ResponseType.VOID;
@@ -476,4 +1043,199 @@ public class RoutingTable
       return ResponseType.STRING_CONTENT;
     }
   }
+
+  static ExecutorService newVirtualThreadExecutor() throws RoutesException
+  {
+    try
+    {
+      // Looked up reflectively so Routes still runs on Java versions without virtual threads.
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (NoSuchMethodException e)
+    {
+      throw new RoutesException("Routes configured to run on a virtual thread require Java 21 or later or RoutesConfiguration.virtualThreadExecutor to be set.");
+    }
+    catch (Exception e)
+    {
+      throw new RoutesException("Unable to create virtual thread executor.", e);
+    }
+  }
+
+  /*
+   * The class of the response a route method produces. For methods returning a CompletionStage this is the type the stage
+   * completes with (or Object if it can't be determined statically).
+   */
+  static Class getResponseClass(Method method)
+  {
+    Class returnType = method.getReturnType();
+    if (!CompletionStage.class.isAssignableFrom(returnType))
+    {
+      return returnType;
+    }
+
+    Type completionType = getCompletionType(method.getGenericReturnType());
+    if (completionType instanceof Class)
+    {
+      return (Class) completionType;
+    }
+    else if ((completionType instanceof ParameterizedType) && (((ParameterizedType) completionType).getRawType() instanceof Class))
+    {
+      return (Class) ((ParameterizedType) completionType).getRawType();
+    }
+    else
+    {
+      return Object.class;
+    }
+  }
+
+  /*
+   * The generic type of the response a route method produces (see getResponseClass).
+   */
+  static Type getResponseType(Method method)
+  {
+    if (!CompletionStage.class.isAssignableFrom(method.getReturnType()))
+    {
+      return method.getGenericReturnType();
+    }
+
+    Type completionType = getCompletionType(method.getGenericReturnType());
+    return ((completionType instanceof Class) || (completionType instanceof ParameterizedType)) ? completionType : Object.class;
+  }
+
+  static Type getCompletionType(Type type)
+  {
+    if (type instanceof ParameterizedType)
+    {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      if ((parameterizedType.getRawType() == CompletionStage.class) || (parameterizedType.getRawType() == CompletableFuture.class))
+      {
+        return parameterizedType.getActualTypeArguments()[0];
+      }
+      type = parameterizedType.getRawType();
+    }
+
+    if (type instanceof Class)
+    {
+      Class clazz = (Class) type;
+      for (Type interfaceType : clazz.getGenericInterfaces())
+      {
+        Type completionType = getCompletionType(interfaceType);
+        if (completionType != null)
+        {
+          return completionType;
+        }
+      }
+
+      if (clazz.getGenericSuperclass() != null)
+      {
+        return getCompletionType(clazz.getGenericSuperclass());
+      }
+    }
+
+    return null;
+  }
+
+  static class BuiltRoutes
+  {
+    final List<RouteNode> routeNodes;
+
+    final long classFilesModified;
+
+    BuiltRoutes(List<RouteNode> routeNodes, long classFilesModified)
+    {
+      this.routeNodes = routeNodes;
+      this.classFilesModified = classFilesModified;
+    }
+  }
+
+  /*
+   * Shared by all the route classes built together (by all the threads of a parallel build).
+   */
+  class RouteBuilders
+  {
+    final Parser parser = new Parser();
+
+    final CriteriaBuilder criteriaBuilder = new CriteriaBuilder();
+
+    final MethodParametersBuilder parametersBuilder = new MethodParametersBuilder();
+
+    final AvailableLibraries availableLibraries = new AvailableLibraries(routesConfiguration);
+
+    /*
+     * Routes with the same request content type or response type share the same reader or writer.
+     */
+    final Map<Type, Object> requestContentReaders = new ConcurrentHashMap<Type, Object>();
+
+    final Map<Type, Object> responseContentWriters = new ConcurrentHashMap<Type, Object>();
+
+    final ContentBridges contentBridges = new ContentBridges(routesConfiguration);
+
+    /*
+     * The media type of the request content isn't known until the request is processed. Since Jackson and GSON only convert
+     * JSON content the reader is created for the library JSON content of the given type would be converted with.
+     */
+    Object getRequestContentReader(Type requestContentType) throws RoutesException
+    {
+      Class contentClass = RequestContent.getClassFromType(requestContentType);
+      ContentConversionType contentConversionType = ((contentClass == null) || (contentClass.getPackage() == null) || RequestContent.isStreamType(contentClass)) ? null : mapContentConversionType(contentClass, MediaType.JSON, availableLibraries);
+      if (contentConversionType == JAXB)
+      {
+        return contentBridges.getJAXBBridge(contentClass);
+      }
+      else if (contentConversionType == W3C_NODE)
+      {
+        return contentBridges.w3cBridge;
+      }
+      else if ((contentConversionType == JDOM2_DOCUMENT) || (contentConversionType == JDOM2_ELEMENT))
+      {
+        return contentBridges.getJDOMBridge();
+      }
+      else if ((contentConversionType != JACKSON) && (contentConversionType != GSON))
+      {
+        return null;
+      }
+
+      Object reader = requestContentReaders.get(requestContentType);
+      if (reader == null)
+      {
+        reader = (contentConversionType == JACKSON) ? JacksonBridge.createReader(routesConfiguration, requestContentType) : GSONBridge.createReader(routesConfiguration, requestContentType);
+        Object existingReader = requestContentReaders.putIfAbsent(requestContentType, reader);
+        if (existingReader != null)
+        {
+          reader = existingReader;
+        }
+      }
+      return reader;
+    }
+
+    Object getResponseContentWriter(Type responseType, ContentConversionType contentConversionType) throws RoutesException
+    {
+      if (contentConversionType == JAXB)
+      {
+        Class responseClass = RequestContent.getClassFromType(responseType);
+        return (responseClass == null) ? null : contentBridges.getJAXBBridge(responseClass);
+      }
+      else if ((contentConversionType != JACKSON) && (contentConversionType != GSON))
+      {
+        return null;
+      }
+
+      Object writer = responseContentWriters.get(responseType);
+      if (writer == null)
+      {
+        writer = (contentConversionType == JACKSON) ? JacksonBridge.createWriter(routesConfiguration, responseType) : GSONBridge.createWriter(routesConfiguration, responseType);
+        if (writer == null)
+        {
+          return null;
+        }
+
+        Object existingWriter = responseContentWriters.putIfAbsent(responseType, writer);
+        if (existingWriter != null)
+        {
+          writer = existingWriter;
+        }
+      }
+      return writer;
+    }
+  }
 }
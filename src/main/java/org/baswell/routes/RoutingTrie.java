@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.baswell.routes.CriterionForPathSegment.RequestPathSegmentCrierionType;
+
+/**
+ * Segment trie compiled from the path criteria of the routes of one HTTP method. FIXED segments are hashed children, PATTERN segments are
+ * ordered fallback edges and routes with a MULTI segment hang off the node of the fixed/pattern prefix leading up to it.
+ * The trie only narrows the routes down to candidates whose path could match. The candidates are then checked in the
+ * order of the given routes (the snapshot order) with {@link Criteria#matches} so the precedence rules are the same as a full
+ * scan. Routes whose criteria compare equal keep the order they had in the snapshot (their classes' add order and then
+ * method order) no matter where they hang in the trie.
+ */
+class RoutingTrie
+{
+  private final TrieNode root = new TrieNode(null);
+
+  private final boolean caseInsensitive;
+
+  RoutingTrie(List<RouteNode> routeNodes, boolean caseInsensitive)
+  {
+    this.caseInsensitive = caseInsensitive;
+    for (int i = 0; i < routeNodes.size(); i++)
+    {
+      add(new TrieRoute(routeNodes.get(i), i));
+    }
+  }
+
+  /**
+   * @return The routes that respond to the given media type and whose path criteria could match the given path, in routing
+   * precedence order.
+   */
+  List<RouteNode> findCandidates(RequestPath path, RequestedMediaType requestedMediaType)
+  {
+    List<TrieRoute> trieRoutes = new ArrayList<TrieRoute>();
+    collectCandidates(root, path, 0, requestedMediaType, trieRoutes);
+    if (trieRoutes.size() > 1)
+    {
+      Collections.sort(trieRoutes);
+    }
+
+    List<RouteNode> candidates = new ArrayList<RouteNode>(trieRoutes.size());
+    for (TrieRoute trieRoute : trieRoutes)
+    {
+      candidates.add(trieRoute.routeNode);
+    }
+    return candidates;
+  }
+
+  private void add(TrieRoute trieRoute)
+  {
+    TrieNode node = root;
+    for (CriterionForPathSegment criterion : trieRoute.routeNode.criteria.pathCriteria)
+    {
+      if (criterion.type == RequestPathSegmentCrierionType.MULTI)
+      {
+        node.multiRoutes.add(trieRoute);
+        return;
+      }
+      else if (criterion.type == RequestPathSegmentCrierionType.FIXED)
+      {
+        node = node.fixedChild(caseInsensitive ? criterion.value.toLowerCase() : criterion.value);
+      }
+      else
+      {
+        node = node.patternChild(criterion.matcher);
+      }
+    }
+    node.routes.add(trieRoute);
+  }
+
+  private void collectCandidates(TrieNode node, RequestPath path, int segmentIndex, RequestedMediaType requestedMediaType, List<TrieRoute> candidates)
+  {
+    addCandidates(node.multiRoutes, requestedMediaType, candidates);
+
+    if (segmentIndex == path.size())
+    {
+      addCandidates(node.routes, requestedMediaType, candidates);
+    }
+    else
+    {
+      String segment = path.get(segmentIndex);
+
+      if (node.fixedChildren != null)
+      {
+        TrieNode fixedChild = node.fixedChildren.get(caseInsensitive ? segment.toLowerCase() : segment);
+        if (fixedChild != null)
+        {
+          collectCandidates(fixedChild, path, segmentIndex + 1, requestedMediaType, candidates);
+        }
+      }
+
+      if (node.patternChildren != null)
+      {
+        for (TrieNode patternChild : node.patternChildren)
+        {
+          if (patternChild.matcher.match(segment) != null)
+          {
+            collectCandidates(patternChild, path, segmentIndex + 1, requestedMediaType, candidates);
+          }
+        }
+      }
+    }
+  }
+
+  private static void addCandidates(List<TrieRoute> trieRoutes, RequestedMediaType requestedMediaType, List<TrieRoute> candidates)
+  {
+    for (TrieRoute trieRoute : trieRoutes)
+    {
+      if (trieRoute.routeNode.criteria.respondsTo(requestedMediaType))
+      {
+        candidates.add(trieRoute);
+      }
+    }
+  }
+
+  /*
+   * A route and its position in the routes the trie was built from. The candidates are collected in traversal order (multi
+   * routes, then the fixed child, then the pattern children) so they are put back in route order by the ordinal.
+   */
+  static class TrieRoute implements Comparable<TrieRoute>
+  {
+    final RouteNode routeNode;
+
+    final int ordinal;
+
+    TrieRoute(RouteNode routeNode, int ordinal)
+    {
+      this.routeNode = routeNode;
+      this.ordinal = ordinal;
+    }
+
+    @Override
+    public int compareTo(TrieRoute trieRoute)
+    {
+      return Integer.compare(ordinal, trieRoute.ordinal);
+    }
+  }
+
+  static class TrieNode
+  {
+    final SegmentMatcher matcher;
+
+    final List<TrieRoute> routes = new ArrayList<TrieRoute>();
+
+    final List<TrieRoute> multiRoutes = new ArrayList<TrieRoute>();
+
+    Map<String, TrieNode> fixedChildren;
+
+    List<TrieNode> patternChildren;
+
+    TrieNode(SegmentMatcher matcher)
+    {
+      this.matcher = matcher;
+    }
+
+    TrieNode fixedChild(String segment)
+    {
+      if (fixedChildren == null)
+      {
+        fixedChildren = new HashMap<String, TrieNode>();
+      }
+
+      TrieNode child = fixedChildren.get(segment);
+      if (child == null)
+      {
+        child = new TrieNode(null);
+        fixedChildren.put(segment, child);
+      }
+      return child;
+    }
+
+    TrieNode patternChild(SegmentMatcher matcher)
+    {
+      if (patternChildren == null)
+      {
+        patternChildren = new ArrayList<TrieNode>();
+      }
+
+      for (TrieNode child : patternChildren)
+      {
+        if (child.matcher.equals(matcher))
+        {
+          return child;
+        }
+      }
+
+      TrieNode child = new TrieNode(matcher);
+      patternChildren.add(child);
+      return child;
+    }
+  }
+}
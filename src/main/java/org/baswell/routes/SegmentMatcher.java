@@ -0,0 +1,437 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.baswell.routes.RoutesMethods.*;
+
+/**
+ * <p>
+ * Matches one path segment or parameter value against a pattern criterion. Placeholders ({}) for the built in types are
+ * matched by hand written scanners that validate and convert the value in a single pass. The converted value is returned
+ * as the match so the {@link ArgumentBinder} for the method parameter doesn't need to parse the value again. Every other
+ * pattern (user expressions, symbols defined with {@link RoutesConfiguration#defineSymbol(String, String)}) is matched with
+ * its regular expression and the {@link Matcher} is returned as the match.
+ * </p>
+ *
+ * <p>
+ * The scanners accept exactly the values the built in patterns in {@link RoutesMethods} accept with one exception: integral
+ * values outside the range of the type are not matched instead of being matched and then failing to convert. The built in
+ * patterns are compiled with {@link java.util.regex.Pattern#DOTALL} (see {@link CriteriaBuilder#compile}) so multi-line
+ * parameter values can be matched. The CHARACTER and STRING scanners therefore accept line terminators (\n, \r, U+0085,
+ * U+2028 and U+2029) the same as their patterns . and .* do.
+ * </p>
+ */
+abstract class SegmentMatcher
+{
+  /**
+   * @return The match for the given value or null if the value doesn't match.
+   */
+  abstract Object match(String value);
+
+  /**
+   * @return The number of capture groups in the pattern of this matcher.
+   */
+  int groupCount()
+  {
+    return 0;
+  }
+
+  static final SegmentMatcher BYTE = new IntegralSegmentMatcher(BYTE_PATTERN, 3, Byte.MIN_VALUE, Byte.MAX_VALUE)
+  {
+    @Override
+    Object box(long value)
+    {
+      return Byte.valueOf((byte) value);
+    }
+  };
+
+  static final SegmentMatcher SHORT = new IntegralSegmentMatcher(SHORT_PATTERN, 5, Short.MIN_VALUE, Short.MAX_VALUE)
+  {
+    @Override
+    Object box(long value)
+    {
+      return Short.valueOf((short) value);
+    }
+  };
+
+  static final SegmentMatcher INTEGER = new IntegralSegmentMatcher(INTEGER_PATTERN, 10, Integer.MIN_VALUE, Integer.MAX_VALUE)
+  {
+    @Override
+    Object box(long value)
+    {
+      return Integer.valueOf((int) value);
+    }
+  };
+
+  static final SegmentMatcher LONG = new IntegralSegmentMatcher(LONG_PATTERN, 19, Long.MIN_VALUE, Long.MAX_VALUE)
+  {
+    @Override
+    Object box(long value)
+    {
+      return Long.valueOf(value);
+    }
+  };
+
+  static final SegmentMatcher FLOAT = new DecimalSegmentMatcher(FLOAT_PATTERN, 8, 23, true);
+
+  static final SegmentMatcher DOUBLE = new DecimalSegmentMatcher(DOUBLE_PATTERN, 15, 46, false);
+
+  static final SegmentMatcher BOOLEAN = new BuiltInSegmentMatcher(BOOLEAN_PATTERN)
+  {
+    @Override
+    Object match(String value)
+    {
+      if ("true".equalsIgnoreCase(value))
+      {
+        return Boolean.TRUE;
+      }
+      else if ("false".equalsIgnoreCase(value))
+      {
+        return Boolean.FALSE;
+      }
+      else
+      {
+        return null;
+      }
+    }
+  };
+
+  static final SegmentMatcher CHARACTER = new BuiltInSegmentMatcher(CHAR_PATTERN)
+  {
+    @Override
+    Object match(String value)
+    {
+      return value.length() == 1 ? Character.valueOf(value.charAt(0)) : null;
+    }
+  };
+
+  static final SegmentMatcher STRING = new BuiltInSegmentMatcher(STRING_PATTERN)
+  {
+    @Override
+    Object match(String value)
+    {
+      return value;
+    }
+  };
+
+  /**
+   * @return The scanner for the given built in placeholder type or null if the type has no scanner.
+   */
+  static SegmentMatcher forType(Class type)
+  {
+    if ((type == Byte.class) || (type == byte.class))
+    {
+      return BYTE;
+    }
+    else if ((type == Short.class) || (type == short.class))
+    {
+      return SHORT;
+    }
+    else if ((type == Integer.class) || (type == int.class))
+    {
+      return INTEGER;
+    }
+    else if ((type == Long.class) || (type == long.class))
+    {
+      return LONG;
+    }
+    else if ((type == Float.class) || (type == float.class))
+    {
+      return FLOAT;
+    }
+    else if ((type == Double.class) || (type == double.class))
+    {
+      return DOUBLE;
+    }
+    else if ((type == Boolean.class) || (type == boolean.class))
+    {
+      return BOOLEAN;
+    }
+    else if ((type == Character.class) || (type == char.class))
+    {
+      return CHARACTER;
+    }
+    else if (type == String.class)
+    {
+      return STRING;
+    }
+    else
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Base of the scanners. There is only one instance of each so identity is equality.
+   */
+  static abstract class BuiltInSegmentMatcher extends SegmentMatcher
+  {
+    final String pattern;
+
+    BuiltInSegmentMatcher(String pattern)
+    {
+      this.pattern = pattern;
+    }
+
+    @Override
+    public String toString()
+    {
+      return pattern;
+    }
+  }
+
+  /**
+   * An optional minus sign followed by one to maxDigits digits that must fit in the range of the type. The value is
+   * accumulated negatively like {@link Long#parseLong(String)} does so the minimum value of the type doesn't overflow.
+   */
+  static abstract class IntegralSegmentMatcher extends BuiltInSegmentMatcher
+  {
+    final int maxDigits;
+
+    final long minValue;
+
+    final long maxValue;
+
+    IntegralSegmentMatcher(String pattern, int maxDigits, long minValue, long maxValue)
+    {
+      super(pattern);
+      this.maxDigits = maxDigits;
+      this.minValue = minValue;
+      this.maxValue = maxValue;
+    }
+
+    abstract Object box(long value);
+
+    @Override
+    Object match(String value)
+    {
+      int length = value.length();
+      boolean negative = (length > 0) && (value.charAt(0) == '-');
+      int start = negative ? 1 : 0;
+      int numberDigits = length - start;
+      if ((numberDigits < 1) || (numberDigits > maxDigits))
+      {
+        return null;
+      }
+
+      long limit = negative ? minValue : -maxValue;
+      long limitBeforeMultiply = limit / 10;
+      long result = 0;
+      for (int i = start; i < length; i++)
+      {
+        int digit = value.charAt(i) - '0';
+        if ((digit < 0) || (digit > 9) || (result < limitBeforeMultiply))
+        {
+          return null;
+        }
+
+        result *= 10;
+        if (result < (limit + digit))
+        {
+          return null;
+        }
+        result -= digit;
+      }
+
+      return box(negative ? result : -result);
+    }
+  }
+
+  /**
+   * An optional minus sign, one to maxIntegerDigits digits and an optional fraction of one to maxFractionDigits digits.
+   * Values with few enough significant digits are converted exactly from the scanned mantissa (both the mantissa and the
+   * power of ten are exactly representable so the one division is correctly rounded). All other values are handed to
+   * {@link Double#parseDouble(String)} or {@link Float#parseFloat(String)} once they are known to be valid.
+   */
+  static final class DecimalSegmentMatcher extends BuiltInSegmentMatcher
+  {
+    static final double[] DOUBLE_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    static final long MAX_EXACT_DOUBLE_MANTISSA = (1L << 53) - 1;
+
+    static final long MAX_EXACT_FLOAT_MANTISSA = (1L << 24) - 1;
+
+    final int maxIntegerDigits;
+
+    final int maxFractionDigits;
+
+    final boolean floatValue;
+
+    DecimalSegmentMatcher(String pattern, int maxIntegerDigits, int maxFractionDigits, boolean floatValue)
+    {
+      super(pattern);
+      this.maxIntegerDigits = maxIntegerDigits;
+      this.maxFractionDigits = maxFractionDigits;
+      this.floatValue = floatValue;
+    }
+
+    @Override
+    Object match(String value)
+    {
+      int length = value.length();
+      boolean negative = (length > 0) && (value.charAt(0) == '-');
+      int i = negative ? 1 : 0;
+
+      long mantissa = 0;
+      int significantDigits = 0;
+      int integerDigits = 0;
+      for (; i < length; i++)
+      {
+        int digit = value.charAt(i) - '0';
+        if ((digit < 0) || (digit > 9))
+        {
+          break;
+        }
+        else if (++integerDigits > maxIntegerDigits)
+        {
+          return null;
+        }
+
+        mantissa = (mantissa * 10) + digit;
+        if (mantissa > 0)
+        {
+          ++significantDigits;
+        }
+      }
+
+      if (integerDigits == 0)
+      {
+        return null;
+      }
+
+      int fractionDigits = 0;
+      if (i < length)
+      {
+        if (value.charAt(i++) != '.')
+        {
+          return null;
+        }
+
+        for (; i < length; i++)
+        {
+          int digit = value.charAt(i) - '0';
+          if ((digit < 0) || (digit > 9) || (++fractionDigits > maxFractionDigits))
+          {
+            return null;
+          }
+
+          if (significantDigits < 18)
+          {
+            mantissa = (mantissa * 10) + digit;
+            if (mantissa > 0)
+            {
+              ++significantDigits;
+            }
+          }
+          else
+          {
+            significantDigits = Integer.MAX_VALUE;
+          }
+        }
+
+        if (fractionDigits == 0)
+        {
+          return null;
+        }
+      }
+
+      if (floatValue)
+      {
+        if ((significantDigits <= 18) && (mantissa <= MAX_EXACT_FLOAT_MANTISSA) && (fractionDigits < FLOAT_POWERS_OF_TEN.length))
+        {
+          float converted = (float) mantissa / FLOAT_POWERS_OF_TEN[fractionDigits];
+          return Float.valueOf(negative ? -converted : converted);
+        }
+        else
+        {
+          return Float.valueOf(Float.parseFloat(value));
+        }
+      }
+      else
+      {
+        if ((significantDigits <= 18) && (mantissa <= MAX_EXACT_DOUBLE_MANTISSA) && (fractionDigits < DOUBLE_POWERS_OF_TEN.length))
+        {
+          double converted = (double) mantissa / DOUBLE_POWERS_OF_TEN[fractionDigits];
+          return Double.valueOf(negative ? -converted : converted);
+        }
+        else
+        {
+          return Double.valueOf(Double.parseDouble(value));
+        }
+      }
+    }
+  }
+
+  /**
+   * Fallback for user patterns and symbols. Two pattern matchers are equal if they were compiled from the same expression
+   * with the same flags.
+   */
+  static final class PatternSegmentMatcher extends SegmentMatcher
+  {
+    final Pattern pattern;
+
+    PatternSegmentMatcher(Pattern pattern)
+    {
+      this.pattern = pattern;
+    }
+
+    @Override
+    Object match(String value)
+    {
+      Matcher matcher = pattern.matcher(value);
+      return matcher.matches() ? matcher : null;
+    }
+
+    @Override
+    int groupCount()
+    {
+      return pattern.matcher("").groupCount();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+      if (object == this)
+      {
+        return true;
+      }
+      else if (!(object instanceof PatternSegmentMatcher))
+      {
+        return false;
+      }
+
+      Pattern otherPattern = ((PatternSegmentMatcher) object).pattern;
+      return pattern.pattern().equals(otherPattern.pattern()) && (pattern.flags() == otherPattern.flags());
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return pattern.pattern().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+      return pattern.pattern();
+    }
+  }
+}
@@ -39,7 +39,7 @@ public class SimpleRoutesCache implements RoutesCache
 
   private volatile long lastCleanAt = System.currentTimeMillis();
 
-  private final Map<String, RouteCachedNode> cachedNodes = new ConcurrentHashMap<String, RouteCachedNode>();
+  private final Map<Object, RouteCachedNode> cachedNodes = new ConcurrentHashMap<Object, RouteCachedNode>();
 
   /**
    *
@@ -67,7 +67,30 @@ public class SimpleRoutesCache implements RoutesCache
   @Override
   public void put(Object routeNode, HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters)
   {
-    String key = getKey(method, requestedMediaType, path, parameters);
+    cache(routeNode, getKey(method, requestedMediaType, path, parameters));
+  }
+
+  @Override
+  public Object get(RoutesCacheKey key)
+  {
+    RouteCachedNode cachedNode = cachedNodes.get(key);
+    return cachedNode == null ? null : cachedNode.accessed();
+  }
+
+  @Override
+  public void put(Object routeNode, RoutesCacheKey key)
+  {
+    cache(routeNode, key);
+  }
+
+  @Override
+  public void clear()
+  {
+    cachedNodes.clear();
+  }
+
+  private void cache(Object routeNode, Object key)
+  {
     cachedNodes.put(key, new RouteCachedNode(key, routeNode));
     if ((System.currentTimeMillis() - lastCleanAt) >= minCleanMSecs)
     {
@@ -106,7 +129,7 @@ public class SimpleRoutesCache implements RoutesCache
 
   static class RouteCachedNode implements Comparable<RouteCachedNode>
   {
-    final String key;
+    final Object key;
 
     final Object routeNode;
 
@@ -116,7 +139,7 @@ public class SimpleRoutesCache implements RoutesCache
 
     AtomicInteger numberAccesses = new AtomicInteger(1);
 
-    RouteCachedNode(String key, Object routeNode)
+    RouteCachedNode(Object key, Object routeNode)
     {
       this.key = key;
       this.routeNode = routeNode;
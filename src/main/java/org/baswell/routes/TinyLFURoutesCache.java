@@ -0,0 +1,422 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * A bounded, lock free cache that never holds more than {@code maxCachedRoutes} entries. Every entry owns one slot of a fixed
+ * size slot array and is only visible in the lookup map while it owns that slot (each put in flight may briefly show
+ * one extra entry until it sees it lost its slot).
+ * </p>
+ *
+ * <p>
+ * Access frequencies are tracked in a count-min sketch of 4-bit counters that is halved periodically so old popularity
+ * fades (TinyLFU). Once the cache is full a new route replaces the least frequently used of a small random sample of slots,
+ * and only if the new route has been requested more often than that victim. One off requests (crawlers, scans of user IDs)
+ * therefore can't flush the popular routes out of the cache. Every get and put does a constant amount of work and no
+ * operation takes a lock.
+ * </p>
+ *
+ * <p>
+ * Unlike W-TinyLFU there is no admission window (a small LRU region every new entry passes through before it has to beat a
+ * victim). The window protects recency biased workloads where a burst of new keys should be cached right away. The set of
+ * routes an application serves is fixed and the requests that matter are repeated over and over, so the window was left out
+ * to keep every operation a single map lookup and a sketch update. A new route is cached as soon as it has been requested
+ * more often than the sampled victim.
+ * </p>
+ *
+ * <p>
+ * Entries cached with a {@link RoutesCacheKey} of an older routing table generation can never be found again. They are
+ * always chosen as victims first so the (possibly saturated) frequencies they built up before the routing table was rebuilt
+ * don't keep the routes of the new generation out of the cache.
+ * </p>
+ *
+ * @see org.baswell.routes.RoutesConfiguration#routesCache
+ */
+public class TinyLFURoutesCache implements RoutesCache
+{
+  static final int SAMPLE_SIZE = 8;
+
+  private final int maxCachedRoutes;
+
+  private final boolean parametersUsedInRouting;
+
+  private final Map<Object, CachedRoute> cachedRoutes;
+
+  private final AtomicReferenceArray<CachedRoute> slots;
+
+  private final AtomicInteger nextFreeSlot = new AtomicInteger();
+
+  private final FrequencySketch sketch;
+
+  /*
+   * The newest routing table generation seen in a RoutesCacheKey.
+   */
+  private final AtomicLong generation = new AtomicLong(-1);
+
+  /**
+   * @param maxCachedRoutes The maximum number of routes to cache in memory.
+   * @param parametersUsedInRouting Are parameters used in determining route matches?
+   */
+  public TinyLFURoutesCache(int maxCachedRoutes, boolean parametersUsedInRouting)
+  {
+    if (maxCachedRoutes <= 0)
+    {
+      throw new IllegalArgumentException("maxCachedRoutes must be greater than zero.");
+    }
+
+    this.maxCachedRoutes = maxCachedRoutes;
+    this.parametersUsedInRouting = parametersUsedInRouting;
+    cachedRoutes = new ConcurrentHashMap<Object, CachedRoute>(maxCachedRoutes * 2);
+    slots = new AtomicReferenceArray<CachedRoute>(maxCachedRoutes);
+    sketch = new FrequencySketch(maxCachedRoutes);
+  }
+
+  @Override
+  public Object get(HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters)
+  {
+    return lookUp(getKey(method, requestedMediaType, path, parameters));
+  }
+
+  @Override
+  public void put(Object routeNode, HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters)
+  {
+    cache(routeNode, getKey(method, requestedMediaType, path, parameters));
+  }
+
+  @Override
+  public Object get(RoutesCacheKey key)
+  {
+    return lookUp(key);
+  }
+
+  @Override
+  public void put(Object routeNode, RoutesCacheKey key)
+  {
+    cache(routeNode, key);
+  }
+
+  /**
+   * Drops every cached route and all recorded frequencies. Puts in flight while the cache is cleared either see they lost
+   * their slot or are dropped with everything else.
+   */
+  @Override
+  public void clear()
+  {
+    for (int i = 0; i < maxCachedRoutes; i++)
+    {
+      slots.set(i, null);
+    }
+    nextFreeSlot.set(0);
+    cachedRoutes.clear();
+    sketch.clear();
+  }
+
+  private Object lookUp(Object key)
+  {
+    sketch.increment(key.hashCode());
+    CachedRoute cachedRoute = cachedRoutes.get(key);
+    return cachedRoute == null ? null : cachedRoute.routeNode;
+  }
+
+  private void cache(Object routeNode, Object key)
+  {
+    if (cachedRoutes.containsKey(key))
+    {
+      return;
+    }
+
+    long currentGeneration = generation.get();
+    if (key instanceof RoutesCacheKey)
+    {
+      long keyGeneration = ((RoutesCacheKey) key).generation;
+      while (keyGeneration > currentGeneration)
+      {
+        if (generation.compareAndSet(currentGeneration, keyGeneration))
+        {
+          currentGeneration = keyGeneration;
+        }
+        else
+        {
+          currentGeneration = generation.get();
+        }
+      }
+    }
+
+    int slot = claimFreeSlot();
+    CachedRoute victim = null;
+    if (slot == -1)
+    {
+      int hash = key.hashCode();
+      int victimFrequency = Integer.MAX_VALUE;
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < SAMPLE_SIZE; i++)
+      {
+        int sampledSlot = random.nextInt(maxCachedRoutes);
+        CachedRoute sampled = slots.get(sampledSlot);
+        int sampledFrequency = ((sampled == null) || (sampled.generation < currentGeneration)) ? -1 : sketch.frequency(sampled.hash);
+        if (sampledFrequency < victimFrequency)
+        {
+          slot = sampledSlot;
+          victim = sampled;
+          victimFrequency = sampledFrequency;
+        }
+      }
+
+      if ((victim != null) && (sketch.frequency(hash) <= victimFrequency))
+      {
+        return;
+      }
+    }
+
+    CachedRoute cachedRoute = new CachedRoute(key, routeNode);
+    if (slots.compareAndSet(slot, victim, cachedRoute))
+    {
+      if (victim != null)
+      {
+        cachedRoutes.remove(victim.key, victim);
+      }
+
+      if (cachedRoutes.putIfAbsent(key, cachedRoute) != null)
+      {
+        /*
+         * Another thread cached this route at the same time. Give back the slot. An empty slot is always the first choice
+         * when sampling for a victim.
+         */
+        slots.compareAndSet(slot, cachedRoute, null);
+      }
+      else if (slots.get(slot) != cachedRoute)
+      {
+        /*
+         * The slot was taken by another put before this route made it into the map so that put's removal missed it.
+         */
+        cachedRoutes.remove(key, cachedRoute);
+      }
+    }
+  }
+
+  /**
+   * @return The number of routes currently cached.
+   */
+  public int size()
+  {
+    return cachedRoutes.size();
+  }
+
+  protected String getKey(HttpMethod method, RequestedMediaType requestedMediaType, RequestPath path, RequestParameters parameters)
+  {
+    StringBuilder keyBuilder = new StringBuilder(method.toString()).append(':').append(requestedMediaType).append(':').append(path);
+    if (parametersUsedInRouting && (parameters != null) && parameters.hasParameters())
+    {
+      keyBuilder.append(':').append(parameters);
+    }
+    return keyBuilder.toString();
+  }
+
+  private int claimFreeSlot()
+  {
+    while (nextFreeSlot.get() < maxCachedRoutes)
+    {
+      int slot = nextFreeSlot.getAndIncrement();
+      if ((slot < maxCachedRoutes) && (slots.get(slot) == null))
+      {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  static class CachedRoute
+  {
+    final Object key;
+
+    final int hash;
+
+    final Object routeNode;
+
+    final long generation;
+
+    CachedRoute(Object key, Object routeNode)
+    {
+      this.key = key;
+      this.routeNode = routeNode;
+      hash = key.hashCode();
+      generation = (key instanceof RoutesCacheKey) ? ((RoutesCacheKey) key).generation : -1;
+    }
+  }
+
+  /**
+   * Count-min sketch of four 4-bit counters per key packed sixteen to a long. Once ten times the cache size increments have
+   * been recorded every counter is halved. Counter updates are CAS'd but the halving can race with increments, which only
+   * loses a few counts.
+   *
+   * Increments are first counted in per thread stripes that are added to the shared count in batches so request threads
+   * don't all contend on one counter. The halving is spread over the increments that follow the reset: each one halves the
+   * next chunk of the table, so no request pays for a walk of the whole table.
+   */
+  static class FrequencySketch
+  {
+    static final int[] SEEDS = {0x97cb3127, 0xb2c3d4e5, 0x5a17a9f1, 0x8b2e7d6b};
+
+    static final int MAX_COUNT = 15;
+
+    static final int ADDITIONS_BATCH = 64;
+
+    static final int HALVE_CHUNK = 16;
+
+    /*
+     * Stripes are padded out to a cache line (16 ints) so threads counting in different stripes don't share one.
+     */
+    static final int STRIPE_PADDING = 16;
+
+    final AtomicLongArray table;
+
+    final int tableMask;
+
+    final int resetAt;
+
+    final AtomicInteger additions = new AtomicInteger();
+
+    final AtomicIntegerArray stripedAdditions;
+
+    final int stripeMask;
+
+    /*
+     * The next table index to halve. At or past the table length when no halving is in progress.
+     */
+    final AtomicInteger halveIndex;
+
+    FrequencySketch(int maxEntries)
+    {
+      int tableSize = Integer.highestOneBit(Math.max(16, maxEntries) - 1) << 1;
+      table = new AtomicLongArray(tableSize);
+      tableMask = tableSize - 1;
+      resetAt = (maxEntries >= (Integer.MAX_VALUE / 10)) ? Integer.MAX_VALUE : maxEntries * 10;
+
+      int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+      stripedAdditions = new AtomicIntegerArray(stripes * STRIPE_PADDING);
+      stripeMask = stripes - 1;
+      halveIndex = new AtomicInteger(tableSize);
+    }
+
+    int frequency(int hash)
+    {
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++)
+      {
+        int counterHash = counterHash(hash, i);
+        long value = table.get((counterHash >>> 4) & tableMask);
+        frequency = Math.min(frequency, (int) ((value >>> ((counterHash & 15) << 2)) & 15L));
+      }
+      return frequency;
+    }
+
+    void increment(int hash)
+    {
+      if (halveIndex.get() < table.length())
+      {
+        halveChunk();
+      }
+
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++)
+      {
+        int counterHash = counterHash(hash, i);
+        int index = (counterHash >>> 4) & tableMask;
+        int offset = (counterHash & 15) << 2;
+        while (true)
+        {
+          long value = table.get(index);
+          if (((value >>> offset) & 15L) == MAX_COUNT)
+          {
+            break;
+          }
+          else if (table.compareAndSet(index, value, value + (1L << offset)))
+          {
+            added = true;
+            break;
+          }
+        }
+      }
+
+      if (added)
+      {
+        countAddition();
+      }
+    }
+
+    void countAddition()
+    {
+      /*
+       * Every increment that takes a stripe to a multiple of the batch size adds the batch to the shared count (the stripe
+       * is never reset, overflow keeps the low bits counting).
+       */
+      int stripe = ((int) Thread.currentThread().getId() & stripeMask) * STRIPE_PADDING;
+      if ((stripedAdditions.incrementAndGet(stripe) & (ADDITIONS_BATCH - 1)) != 0)
+      {
+        return;
+      }
+
+      int count = additions.addAndGet(ADDITIONS_BATCH);
+      if ((count >= resetAt) && additions.compareAndSet(count, 0))
+      {
+        halveIndex.set(0);
+      }
+    }
+
+    void clear()
+    {
+      for (int i = 0; i < table.length(); i++)
+      {
+        table.set(i, 0);
+      }
+      additions.set(0);
+      halveIndex.set(table.length());
+    }
+
+    void halveChunk()
+    {
+      int start = halveIndex.getAndAdd(HALVE_CHUNK);
+      int end = Math.min(start + HALVE_CHUNK, table.length());
+      for (int i = start; i < end; i++)
+      {
+        while (true)
+        {
+          long value = table.get(i);
+          if (table.compareAndSet(i, value, (value >>> 1) & 0x7777777777777777L))
+          {
+            break;
+          }
+        }
+      }
+    }
+
+    static int counterHash(int hash, int row)
+    {
+      int counterHash = (hash ^ SEEDS[row]) * 0x9e3779b9;
+      return counterHash ^ (counterHash >>> 16);
+    }
+  }
+}
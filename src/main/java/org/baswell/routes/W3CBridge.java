@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/*
+ * Looking up the XML factories scans the service loader so they are only looked up once. The factories aren't thread safe
+ * so builders and transformers are created from them one at a time and then pooled, being reset after each use.
+ */
+class W3CBridge implements ContentReader
+{
+  private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+  private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+  final ConverterPool<DocumentBuilder> documentBuilders;
+
+  private final ConverterPool<Transformer> transformers;
+
+  W3CBridge(int poolSize)
+  {
+    documentBuilders = new ConverterPool<DocumentBuilder>(poolSize)
+    {
+      @Override
+      DocumentBuilder create() throws RoutesException
+      {
+        try
+        {
+          synchronized (DOCUMENT_BUILDER_FACTORY)
+          {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+          }
+        }
+        catch (ParserConfigurationException e)
+        {
+          throw new RoutesException("Unable to create XML document builder.", e);
+        }
+      }
+    };
+
+    transformers = new ConverterPool<Transformer>(poolSize)
+    {
+      @Override
+      Transformer create() throws RoutesException
+      {
+        try
+        {
+          synchronized (TRANSFORMER_FACTORY)
+          {
+            return TRANSFORMER_FACTORY.newTransformer();
+          }
+        }
+        catch (TransformerConfigurationException e)
+        {
+          throw new RoutesException("Unable to create XML transformer.", e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Object read(InputStream inputStream, Class contentClass) throws IOException, RoutesException
+  {
+    DocumentBuilder documentBuilder = documentBuilders.borrow();
+    Document document;
+    try
+    {
+      document = documentBuilder.parse(inputStream);
+    }
+    catch (SAXException e)
+    {
+      throw new RoutesException("Unable to create RequestContent class: " + contentClass.getName(), e);
+    }
+    finally
+    {
+      documentBuilder.reset();
+      documentBuilders.release(documentBuilder);
+    }
+
+    return (contentClass == Document.class) ? document : document.getDocumentElement();
+  }
+
+  void write(Node node, OutputStream outputStream) throws TransformerException
+  {
+    Transformer transformer = transformers.borrow();
+    try
+    {
+      transformer.transform(new DOMSource(node), new StreamResult(outputStream));
+    }
+    finally
+    {
+      transformer.reset();
+      transformers.release(transformer);
+    }
+  }
+}
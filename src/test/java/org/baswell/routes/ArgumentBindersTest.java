@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import jakarta.servlet.ServletException;
+
+import static org.junit.Assert.*;
+
+public class ArgumentBindersTest extends EndToEndTest
+{
+  @Before
+  public void before()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    buildRoutingTable(new BindRoutes());
+  }
+
+  @Test
+  public void testArities() throws IOException, ServletException
+  {
+    assertBound(ArgumentBinders.NoArgumentBinders.class, "zero", new TestHttpServletRequest("GET", "/", "/bind/zero"));
+    assertBound(ArgumentBinders.OneArgumentBinders.class, "1", new TestHttpServletRequest("GET", "/", "/bind/one/1"));
+    assertBound(ArgumentBinders.TwoArgumentBinders.class, "1 2", new TestHttpServletRequest("GET", "/", "/bind/two/1", "b", "2"));
+    assertBound(ArgumentBinders.ThreeArgumentBinders.class, "1 two 3.5", new TestHttpServletRequest("GET", "/", "/bind/three/1/two", "c", "3.5"));
+    assertBound(ArgumentBinders.FourArgumentBinders.class, "1 2 3 true", new TestHttpServletRequest("GET", "/", "/bind/four/1/2", "c", "3", "d", "true"));
+    assertBound(ArgumentBinders.ManyArgumentBinders.class, "1 2 3 4 five", new TestHttpServletRequest("GET", "/", "/bind/five/1/2/3", "d", "4", "e", "five"));
+  }
+
+  @Test
+  public void testParameterMatchUsed() throws IOException, ServletException
+  {
+    assertBound(ArgumentBinders.TwoArgumentBinders.class, "1 2", new TestHttpServletRequest("GET", "/", "/bind/two/1", "b", "x", "b", "2"));
+  }
+
+  @Test
+  public void testMissingPrimitiveParameter() throws Throwable
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", "/bind/flag/true", "c", "x");
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull(matchedRoute);
+    assertTrue(matchedRoute.routeNode.binders.binders[1] instanceof ArgumentBinder.PrimitiveBinder);
+
+    invoke();
+    assertEquals("true x", servletResponse.getContentAsString());
+
+    RouteNode routeNode = matchedRoute.routeNode;
+    MethodInvoker invoker = new MethodInvoker(request, servletResponse, HttpMethod.GET, new RequestPath("/bind/flag/true"), new RequestParameters(""), null, null, routeNode.routeConfiguration);
+    try
+    {
+      invoker.invoke(new BindRoutes(), routeNode.invoker, routeNode.binders, matchedRoute.pathMatches, new HashMap<String, Object>());
+      fail();
+    }
+    catch (RoutesException e)
+    {
+      assertEquals("Invalid parameter mapping for route method: " + routeNode.method, e.getMessage());
+    }
+  }
+
+  void assertBound(Class<? extends ArgumentBinders> bindersClass, String expectedContent, TestHttpServletRequest request) throws IOException, ServletException
+  {
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull(request.requestUri, matchedRoute);
+    assertSame(bindersClass, matchedRoute.routeNode.binders.getClass());
+
+    invoke();
+    assertEquals(expectedContent, servletResponse.getContentAsString());
+  }
+
+  @Routes(value = "/bind", defaultReturnedStringIsContent = true)
+  public static class BindRoutes
+  {
+    @Route("/zero")
+    public String getZero()
+    {
+      return "zero";
+    }
+
+    @Route("/one/{}")
+    public String getOne(int a)
+    {
+      return "" + a;
+    }
+
+    @Route("/two/{}?b={}")
+    public String getTwo(int a, int b)
+    {
+      return a + " " + b;
+    }
+
+    @Route("/three/{}/{}?c={}")
+    public String getThree(long a, String b, double c)
+    {
+      return a + " " + b + " " + c;
+    }
+
+    @Route("/four/{}/{}?c={}&d={}")
+    public String getFour(int a, short b, byte c, boolean d)
+    {
+      return a + " " + b + " " + c + " " + d;
+    }
+
+    @Route("/flag/{}?c={}")
+    public String getFlag(boolean a, char c)
+    {
+      return a + " " + c;
+    }
+
+    @Route("/five/{}/{}/{}?d={}&e={}")
+    public String getFive(int a, int b, int c, long d, String e)
+    {
+      return a + " " + b + " " + c + " " + d + " " + e;
+    }
+  }
+}
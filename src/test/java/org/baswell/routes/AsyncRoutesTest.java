@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.servlet.ServletException;
+
+import com.google.gson.Gson;
+import org.baswell.routes.testroutes.AsyncRoutes;
+import org.baswell.routes.testroutes.ReturnTypes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AsyncRoutesTest extends EndToEndTest
+{
+  @Before
+  public void setupRoutingTable()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.logger = null;
+    buildRoutingTable(AsyncRoutes.class);
+    AsyncRoutes.pendingString = new CompletableFuture<String>();
+    AsyncRoutes.pendingGson = new CompletableFuture<ReturnTypes.GsonResponse>();
+  }
+
+  @Test
+  public void testCompletesAsync() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    assertTrue(servletRequest.isAsyncStarted());
+    assertMethodsCalled("getHello");
+    assertMethodsNotCalled("afterRoute");
+
+    AsyncRoutes.pendingString.complete("Hello Async");
+    servletResponse.writer.flush();
+    assertEquals("Hello Async", servletResponse.getContentAsString());
+    assertTrue(servletRequest.asyncContext.completed);
+    assertMethodsCalled("getHello", "afterRoute");
+  }
+
+  @Test
+  public void testContentConversionFromCompletionType() throws IOException, ServletException
+  {
+    invokeAsync("/async/gson", "application/json");
+    assertEquals(ContentConversionType.JACKSON, find().routeNode.contentConversionType);
+
+    ReturnTypes.GsonResponse gsonResponse = new ReturnTypes.GsonResponse();
+    gsonResponse.one = "one";
+    gsonResponse.two = 2;
+    AsyncRoutes.pendingGson.complete(gsonResponse);
+    servletResponse.writer.flush();
+
+    ReturnTypes.GsonResponse response = new Gson().fromJson(servletResponse.getContentAsString(), ReturnTypes.GsonResponse.class);
+    assertEquals("one", response.one);
+    assertEquals(2, response.two);
+    assertEquals("application/json", servletResponse.contentType);
+  }
+
+  @Test
+  public void testRedirectTo() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    AsyncRoutes.pendingString.completeExceptionally(new RedirectTo("/login"));
+    assertEquals("/login", servletResponse.redirect);
+    assertTrue(servletRequest.asyncContext.completed);
+    assertMethodsCalled("afterRoute");
+  }
+
+  @Test
+  public void testReturnHttpResponseStatus() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    AsyncRoutes.pendingString.completeExceptionally(ReturnHttpResponseStatus.NOT_FOUND);
+    assertEquals(404, servletResponse.getStatus());
+    assertTrue(servletRequest.asyncContext.completed);
+  }
+
+  @Test
+  public void testHaltPipeline() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    AsyncRoutes.pendingString.completeExceptionally(new HaltPipeline());
+    servletResponse.writer.flush();
+    assertEquals("", servletResponse.getContentAsString());
+    assertMethodsNotCalled("afterRoute");
+    assertTrue(servletRequest.asyncContext.completed);
+  }
+
+  @Test
+  public void testUnhandledException() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    AsyncRoutes.pendingString.completeExceptionally(new IllegalStateException());
+    assertEquals(500, servletResponse.getStatus());
+    assertTrue(servletRequest.asyncContext.completed);
+    assertMethodsCalled("afterRoute");
+  }
+
+  @Test
+  public void testTimesOutBeforeCompletion() throws IOException, ServletException
+  {
+    routesConfiguration.asyncTimeout = 1000;
+    invokeAsync("/async/hello");
+    assertEquals(1000, servletRequest.asyncContext.timeout);
+    assertEquals(1, servletRequest.asyncContext.listeners.size());
+
+    servletRequest.asyncContext.timeout();
+    assertEquals(503, servletResponse.getStatus());
+    assertTrue(servletRequest.asyncContext.completed);
+
+    AsyncRoutes.pendingString.complete("Too Late");
+    servletResponse.writer.flush();
+    assertEquals("", servletResponse.getContentAsString());
+    assertMethodsNotCalled("afterRoute");
+  }
+
+  @Test
+  public void testTimeoutAfterCompletionIgnored() throws IOException, ServletException
+  {
+    invokeAsync("/async/hello");
+    assertEquals(30000, servletRequest.asyncContext.timeout);
+    AsyncRoutes.pendingString.complete("Hello Async");
+    servletRequest.asyncContext.timeout();
+    assertEquals(200, servletResponse.getStatus());
+    assertMethodsCalled("getHello", "afterRoute");
+  }
+
+  @Test
+  public void testErrorNotHandled() throws IOException, ServletException
+  {
+    try
+    {
+      invokeAsync("/async/error");
+      fail();
+    }
+    catch (InternalError e)
+    {
+      assertEquals("getError", e.getMessage());
+    }
+    assertMethodsCalled("getError");
+    assertMethodsNotCalled("afterRoute");
+    assertFalse(servletRequest.isAsyncStarted());
+  }
+
+  @Test
+  public void testAsyncNotSupported() throws IOException, ServletException
+  {
+    AsyncRoutes.pendingString.complete("Hello Sync");
+    invoke(new TestHttpServletRequest("GET", "/", "/async/hello"), "getHello", "afterRoute");
+    assertEquals("Hello Sync", servletResponse.getContentAsString());
+    assertNull(servletRequest.asyncContext);
+  }
+
+  void invokeAsync(String uri) throws IOException, ServletException
+  {
+    invokeAsync(uri, "text/html");
+  }
+
+  void invokeAsync(String uri, String contentType) throws IOException, ServletException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", uri);
+    request.contentType = contentType;
+    request.asyncSupported = true;
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull(matchedRoute);
+    try
+    {
+      pipeline.invoke(matchedRoute.routeNode, servletRequest, servletResponse, httpMethod, requestedMediaType, path, parameters, requestContent, matchedRoute.pathMatches, matchedRoute.parameterMatches);
+    }
+    catch (RouteInstanceBorrowException e)
+    {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -52,6 +52,14 @@ public class BasicRoutesTest extends EndToEndTest
     invoke(new TestHttpServletRequest("GET", "/test", "/test/60"), "getIntegerTest");
   }
   
+  @Test
+  public void testCharacter() throws IOException, ServletException
+  {
+    assertNotFound(new TestHttpServletRequest("GET", "/test", "/test/grade/ab", "weight", "0.5"));
+    assertNotFound(new TestHttpServletRequest("GET", "/test", "/test/grade/a", "weight", "half"));
+    invoke(new TestHttpServletRequest("GET", "/test", "/test/grade/a", "weight", "0.5"), "getCharacterTest");
+  }
+
   @Test
   public void testRedirectTo() throws IOException, ServletException
   {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.testroutes.ChildLoaderRoutes;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+public class CompiledInvokerTest
+{
+  @Test
+  public void testSpun() throws Throwable
+  {
+    CompiledInvoker invoker = new CompiledInvoker(ChildLoaderRoutes.class.getMethod("echo", String.class));
+    assertTrue(invoker.isSpun());
+    assertEquals("echo one", invoker.invoke(new ChildLoaderRoutes(), new Object[]{"one"}));
+  }
+
+  @Test
+  public void testChildClassLoader() throws Throwable
+  {
+    Class routesClass = new ChildFirstClassLoader(ChildLoaderRoutes.class.getName()).loadClass(ChildLoaderRoutes.class.getName());
+    assertNotSame(ChildLoaderRoutes.class, routesClass);
+    Object routesInstance = routesClass.getDeclaredConstructor().newInstance();
+
+    CompiledInvoker echo = new CompiledInvoker(routesClass.getMethod("echo", String.class));
+    assertFalse(echo.isSpun());
+    assertEquals("echo two", echo.invoke(routesInstance, new Object[]{"two"}));
+
+    CompiledInvoker self = new CompiledInvoker(routesClass.getMethod("self"));
+    assertFalse(self.isSpun());
+    assertSame(routesInstance, self.invoke(routesInstance, new Object[0]));
+  }
+
+  /*
+   * Defines the given class itself instead of asking its parent (the class loader of this library) like a web application
+   * class loader does.
+   */
+  static class ChildFirstClassLoader extends ClassLoader
+  {
+    final String className;
+
+    ChildFirstClassLoader(String className)
+    {
+      super(CompiledInvoker.class.getClassLoader());
+      this.className = className;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+    {
+      if (!name.equals(className))
+      {
+        return super.loadClass(name, resolve);
+      }
+
+      synchronized (getClassLoadingLock(name))
+      {
+        Class loadedClass = findLoadedClass(name);
+        if (loadedClass == null)
+        {
+          try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class"))
+          {
+            byte[] bytes = inputStream.readAllBytes();
+            loadedClass = defineClass(name, bytes, 0, bytes.length);
+          }
+          catch (Exception e)
+          {
+            throw new ClassNotFoundException(name, e);
+          }
+        }
+        return loadedClass;
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConverterPoolTest
+{
+  @Test
+  public void testReuse()
+  {
+    final AtomicInteger created = new AtomicInteger();
+    ConverterPool<StringBuilder> pool = new ConverterPool<StringBuilder>(2)
+    {
+      @Override
+      StringBuilder create() throws RoutesException
+      {
+        created.incrementAndGet();
+        return new StringBuilder();
+      }
+    };
+
+    StringBuilder one = pool.borrow();
+    StringBuilder two = pool.borrow();
+    StringBuilder three = pool.borrow();
+    assertEquals(3, created.get());
+    assertNotSame(one, two);
+
+    pool.release(one);
+    pool.release(two);
+    pool.release(three);
+    assertEquals(2, pool.size());
+
+    assertSame(one, pool.borrow());
+    assertSame(two, pool.borrow());
+    assertNotSame(three, pool.borrow());
+    assertEquals(4, created.get());
+  }
+}
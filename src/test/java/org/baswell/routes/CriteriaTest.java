@@ -22,6 +22,8 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.baswell.routes.RoutesMethods.*;
@@ -128,7 +130,155 @@ public class CriteriaTest
     assertFalse(Criteria.matches(HttpMethod.GET, new RequestedMediaType("text/html"), urlPath, requestParameters));
   }
 
-  
+
+  @Test
+  public void testMultiAgreesWithBacktracking()
+  {
+    Random random = new Random(14);
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    String[] segmentValues = {"a", "b", "1", "22"};
+    for (int i = 0; i < 20000; i++)
+    {
+      List<RequestPathSegmentCrierionType> types = new ArrayList<RequestPathSegmentCrierionType>();
+      List<String> values = new ArrayList<String>();
+      int numberCriteria = 1 + random.nextInt(6);
+      for (int j = 0; j < numberCriteria; j++)
+      {
+        switch (random.nextInt(4))
+        {
+          case 0:
+            types.add(RequestPathSegmentCrierionType.MULTI);
+            values.add("**");
+            break;
+
+          case 1:
+            types.add(RequestPathSegmentCrierionType.PATTERN);
+            values.add(INTEGER_PATTERN);
+            break;
+
+          default:
+            types.add(RequestPathSegmentCrierionType.FIXED);
+            values.add(random.nextBoolean() ? "a" : "b");
+        }
+      }
+      List<CriterionForPathSegment> pathCriteria = createPathCriteria(types, values);
+
+      List<String> segments = new ArrayList<String>();
+      int numberSegments = random.nextInt(8);
+      for (int j = 0; j < numberSegments; j++)
+      {
+        segments.add(segmentValues[random.nextInt(segmentValues.length)]);
+      }
+      RequestPath path = new RequestPath(segments);
+
+      List<Object> expectedMatches = new ArrayList<Object>();
+      boolean expected = backtrackMatchSegments(0, path, 0, pathCriteria, routesConfiguration, expectedMatches);
+      List<Object> matches = new ArrayList<Object>();
+      assertEquals(values + " " + segments, expected, Criteria.matchMultiSegments(path, pathCriteria, routesConfiguration, matches));
+      if (expected)
+      {
+        assertEquals(values + " " + segments, matchedValues(expectedMatches), matchedValues(matches));
+      }
+    }
+  }
+
+  @Test
+  public void testMultiLongPath()
+  {
+    List<CriterionForPathSegment> pathCriteria = createPathCriteria(Arrays.asList(RequestPathSegmentCrierionType.MULTI, RequestPathSegmentCrierionType.FIXED, RequestPathSegmentCrierionType.MULTI, RequestPathSegmentCrierionType.FIXED,
+                                                                                  RequestPathSegmentCrierionType.MULTI, RequestPathSegmentCrierionType.FIXED, RequestPathSegmentCrierionType.MULTI),
+                                                                    Arrays.asList("**", "a", "**", "a", "**", "b", "**"));
+
+    List<String> segments = new ArrayList<String>();
+    for (int i = 0; i < 20000; i++)
+    {
+      segments.add("a");
+    }
+
+    List<Object> matches = new ArrayList<Object>();
+    assertFalse(Criteria.matchMultiSegments(new RequestPath(segments), pathCriteria, new RoutesConfiguration(), matches));
+    assertTrue(matches.isEmpty());
+
+    segments.add("b");
+    assertTrue(Criteria.matchMultiSegments(new RequestPath(segments), pathCriteria, new RoutesConfiguration(), matches));
+    assertEquals(6, matches.size());
+  }
+
+  static List<Object> matchedValues(List<Object> matches)
+  {
+    List<Object> values = new ArrayList<Object>();
+    for (Object match : matches)
+    {
+      values.add(match instanceof Matcher ? ((Matcher) match).group() : match);
+    }
+    return values;
+  }
+
+  /*
+   * The recursive matcher ** routes used before Criteria.matchMultiSegments.
+   */
+  static boolean backtrackMatchSegments(int pathIndex, RequestPath path, int criteriaIndex, List<CriterionForPathSegment> criteria, RoutesConfiguration config, List<Object> matches)
+  {
+    if ((pathIndex >= path.size()) && (criteriaIndex >= criteria.size()))
+    {
+      return true;
+    }
+    else if (pathIndex >= path.size())
+    {
+      for (int i = criteriaIndex; i < criteria.size(); i++)
+      {
+        if (criteria.get(i).type != RequestPathSegmentCrierionType.MULTI)
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+    else if (criteriaIndex >= criteria.size())
+    {
+      return false;
+    }
+
+    String segment = path.get(pathIndex);
+    CriterionForPathSegment criterion = criteria.get(criteriaIndex);
+    switch (criterion.type)
+    {
+      case FIXED:
+        if (!segment.equals(criterion.value))
+        {
+          return false;
+        }
+        matches.add(null);
+        return backtrackMatchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, config, matches);
+
+      case PATTERN:
+        Object match = criterion.matcher.match(segment);
+        if (match == null)
+        {
+          return false;
+        }
+        matches.add(match);
+        return backtrackMatchSegments(pathIndex + 1, path, criteriaIndex + 1, criteria, config, matches);
+
+      default:
+        if (criteriaIndex == (criteria.size() - 1))
+        {
+          return true;
+        }
+        for (int nextPathIndex = pathIndex; nextPathIndex < path.size(); nextPathIndex++)
+        {
+          List<Object> subMatches = new ArrayList<Object>();
+          subMatches.add(null);
+          if (backtrackMatchSegments(nextPathIndex, path, criteriaIndex + 1, criteria, config, subMatches))
+          {
+            matches.addAll(subMatches);
+            return true;
+          }
+        }
+        return false;
+    }
+  }
+
   List<CriterionForPathSegment> createPathCriteria(List<RequestPathSegmentCrierionType> types, List<String> values)
   {
     List<CriterionForPathSegment> pathCriteria = new ArrayList<CriterionForPathSegment>();
@@ -142,7 +292,7 @@ public class CriteriaTest
           break;
           
         case PATTERN:
-          pathCriteria.add(new CriterionForPathSegment(i, values.get(i), RequestPathSegmentCrierionType.PATTERN, Pattern.compile("^" + values.get(i) + "$")));
+          pathCriteria.add(new CriterionForPathSegment(i, values.get(i), RequestPathSegmentCrierionType.PATTERN, new SegmentMatcher.PatternSegmentMatcher(Pattern.compile("^" + values.get(i) + "$"))));
           break;
       }
     }
@@ -72,7 +72,7 @@ abstract public class EndToEndTest
     }
     
     routingTable.build();
-    pipeline = new MethodPipeline(routingTable.routesConfiguration);
+    pipeline = new MethodPipeline(routingTable);
   }
   
   protected void initializeRequest(TestHttpServletRequest servletRequest)
@@ -84,7 +84,7 @@ abstract public class EndToEndTest
     path = new RequestPath(servletRequest);
     parameters = new RequestParameters(servletRequest);
 
-    requestContent = new RequestContent(routesConfiguration, servletRequest, String.class, MediaType.XML, "text/xml", new AvailableLibraries(routesConfiguration));
+    requestContent = new RequestContent(routesConfiguration, servletRequest, String.class, MediaType.XML, "text/xml", new AvailableLibraries(routesConfiguration), routingTable.contentBridges, null);
   }
 
   protected void assertNotFound(TestHttpServletRequest servletRequest)
@@ -120,7 +120,7 @@ abstract public class EndToEndTest
     assertNotNull("No route path found for: " + path, node);
     try
     {
-      pipeline.invoke(node.routeNode, servletRequest, servletResponse, httpMethod, requestedMediaType, path, parameters, requestContent, node.pathMatchers, node.parameterMatchers);
+      pipeline.invoke(node.routeNode, servletRequest, servletResponse, httpMethod, requestedMediaType, path, parameters, requestContent, node.pathMatches, node.parameterMatches);
       servletResponse.writer.close();
     }
     catch (RouteInstanceBorrowException e)
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.baswell.routes.testroutes.CombinedRoutes;
+import org.baswell.routes.testroutes.PrecedenceRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PathPrefilterTest
+{
+  static final String[] SEGMENTS = {"users", "Users", "new", "42", "posts", "files", "docs", "edit", "search", "combined", "one", "meta", "x",
+      "", "users.json", "a%20b", "a+b", "%75sers", "usersx", "file"};
+
+  static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+  @Test
+  public void testRejectedPathsDontRoute() throws Exception
+  {
+    for (boolean caseInsensitive : new boolean[] {false, true})
+    {
+      RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+      routesConfiguration.caseInsensitive = caseInsensitive;
+      routesConfiguration.routesMetaPath = "/meta";
+      RoutingTable routingTable = new RoutingTable(routesConfiguration);
+      routingTable.add(new PrecedenceRoutes(), new CombinedRoutes(), new ExactRoutes());
+      routingTable.build();
+      RoutesEngine routesEngine = new RoutesEngine(routingTable);
+      PathPrefilter prefilter = new PathPrefilter(routingTable.getSnapshot(), routesConfiguration, null, null);
+
+      assertTrue(prefilter.accepts("/app/users/42", "/app"));
+      assertTrue(prefilter.accepts("/app/meta/routes", "/app"));
+      assertFalse(prefilter.accepts("/app/", "/app"));
+      assertTrue(prefilter.accepts("/app/exact/", "/app"));
+      assertFalse(prefilter.accepts("/app/exact/more", "/app"));
+      assertFalse(prefilter.accepts("/app/exact//", "/app"));
+      assertFalse(prefilter.accepts("/app/static/site.css", "/app"));
+      assertFalse(prefilter.accepts("/app/usersx/42", "/app"));
+      assertEquals(caseInsensitive, prefilter.accepts("/app/USERS/42", "/app"));
+      assertTrue(prefilter.accepts("/app/%75sers/42", "/app"));
+
+      Random random = new Random(7);
+      int rejected = 0;
+      for (int i = 0; i < 5000; i++)
+      {
+        String path = randomPath(random);
+        if (!prefilter.accepts("/app" + path, "/app"))
+        {
+          ++rejected;
+          for (String method : METHODS)
+          {
+            assertFalse(method + " " + path, routesEngine.process(new TestHttpServletRequest(method, "/app", "/app" + path), new TestHttpServletResponse()));
+          }
+        }
+      }
+      assertTrue(rejected > 500);
+    }
+  }
+
+  @Test
+  public void testPatterns() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(new CatchAllRoutes());
+    routingTable.build();
+
+    String[][] patternLists = {{"/users/.*"}, {"/users/.*", "/files/.*"}, {"^/users$"}, {".*\\.json$"}, {".*\\.json", "/docs/.*"}, {"/u.*s/.*"},
+        {"(?i)/USERS/.*"}, {".*"}, {"/users/\\d+"}, {"/users\\.*"}, {".*users.*"}, {"/a\\+b/.*"}};
+
+    Random random = new Random(11);
+    for (String[] onlyList : patternLists)
+    {
+      for (String[] exceptList : patternLists)
+      {
+        PathPrefilter prefilter = new PathPrefilter(routingTable.getSnapshot(), routesConfiguration, compile(onlyList), compile(exceptList));
+        PathPrefilter onlyPrefilter = new PathPrefilter(routingTable.getSnapshot(), routesConfiguration, compile(onlyList), null);
+        PathPrefilter exceptPrefilter = new PathPrefilter(routingTable.getSnapshot(), routesConfiguration, null, compile(exceptList));
+        for (int i = 0; i < 200; i++)
+        {
+          String uri = "/app" + randomPath(random);
+          assertEquals(uri, prefilter.acceptsByPatterns(uri, "/app"), prefilter.accepts(uri, "/app"));
+          assertEquals(uri, onlyPrefilter.acceptsByPatterns(uri, "/app"), onlyPrefilter.accepts(uri, "/app"));
+          assertEquals(uri, exceptPrefilter.acceptsByPatterns(uri, "/app"), exceptPrefilter.accepts(uri, "/app"));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLiteral()
+  {
+    assertEquals("/users/", PathPrefilter.literal("/users/", 0, 7));
+    assertEquals(".json", PathPrefilter.literal("\\.json", 0, 6));
+    assertNull(PathPrefilter.literal("/users/\\d", 0, 9));
+    assertNull(PathPrefilter.literal("/u.ers", 0, 6));
+  }
+
+  static List<Pattern> compile(String[] patterns)
+  {
+    List<Pattern> compiled = new ArrayList<Pattern>();
+    for (String pattern : patterns)
+    {
+      compiled.add(Pattern.compile(pattern));
+    }
+    return compiled;
+  }
+
+  static String randomPath(Random random)
+  {
+    StringBuilder path = new StringBuilder();
+    int numberSegments = random.nextInt(5);
+    for (int i = 0; i < numberSegments; i++)
+    {
+      path.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+    }
+    if ((numberSegments == 0) || random.nextInt(5) == 0)
+    {
+      path.append('/');
+    }
+    return path.toString();
+  }
+
+  public static class ExactRoutes
+  {
+    @Route("/exact")
+    public void getExact()
+    {}
+
+    @Route("/Case/Sensitive")
+    public void getCaseSensitive()
+    {}
+  }
+
+  public static class CatchAllRoutes
+  {
+    @Route("/**")
+    public void getAll()
+    {}
+  }
+}
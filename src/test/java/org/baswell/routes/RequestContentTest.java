@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.gson.JsonParseException;
+import org.baswell.routes.testroutes.ReturnTypes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestServletInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+import static org.junit.Assert.*;
+
+public class RequestContentTest
+{
+  RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+
+  ContentBridges contentBridges = new ContentBridges(routesConfiguration);
+
+  @Test
+  public void testInputStream() throws IOException
+  {
+    InputStream inputStream = (InputStream) requestContent(InputStream.class, "application/octet-stream", "streamed").get();
+    assertEquals("streamed", new String(inputStream.readAllBytes(), "UTF-8"));
+  }
+
+  @Test
+  public void testReader() throws IOException
+  {
+    Reader reader = (Reader) requestContent(Reader.class, "text/plain", "stre\u00e4med").get();
+    assertEquals("stre\u00e4med", new BufferedReader(reader).readLine());
+  }
+
+  @Test
+  public void testJsonParser() throws IOException
+  {
+    JsonParser parser = (JsonParser) requestContent(JsonParser.class, "application/json", "{\"one\":\"uno\"}").get();
+    assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+    assertEquals(JsonToken.FIELD_NAME, parser.nextToken());
+    assertEquals("one", parser.getCurrentName());
+    assertEquals(JsonToken.VALUE_STRING, parser.nextToken());
+    assertEquals("uno", parser.getText());
+  }
+
+  @Test
+  public void testEmptyStream() throws IOException
+  {
+    assertNull(requestContent(InputStream.class, "application/octet-stream", "").get());
+    assertNull(requestContent(JsonParser.class, "application/json", "").get());
+  }
+
+  @Test
+  public void testJacksonFromStream() throws IOException
+  {
+    ReturnTypes.GsonResponse response = (ReturnTypes.GsonResponse) requestContent(ReturnTypes.GsonResponse.class, "application/json", "{\"one\":\"uno\",\"two\":2}").get();
+    assertEquals("uno", response.one);
+    assertEquals(2, response.two);
+  }
+
+  @Test
+  public void testGsonFromStream() throws IOException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    ReturnTypes.GsonResponse response = (ReturnTypes.GsonResponse) requestContent(ReturnTypes.GsonResponse.class, "application/json", "{\"one\":\"uno\",\"two\":2}").get();
+    assertEquals("uno", response.one);
+    assertEquals(2, response.two);
+  }
+
+  @Test
+  public void testGsonFromJson() throws IOException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    ReturnTypes.GsonResponse response = (ReturnTypes.GsonResponse) requestContent(ReturnTypes.GsonResponse.class, "application/json", "{one:'uno',two:2}").get();
+    assertEquals("uno", response.one);
+    assertEquals(2, response.two);
+
+    try
+    {
+      requestContent(ReturnTypes.GsonResponse.class, "application/json", "{\"one\":\"uno\"} {").get();
+      fail();
+    }
+    catch (JsonParseException e)
+    {}
+  }
+
+  @Test
+  public void testGuessedMediaType() throws IOException
+  {
+    ReturnTypes.GsonResponse response = (ReturnTypes.GsonResponse) requestContent(ReturnTypes.GsonResponse.class, null, "{\"one\":\"uno\"}").get();
+    assertEquals("uno", response.one);
+  }
+
+  @Test
+  public void testXmlWithoutReader() throws IOException
+  {
+    for (int i = 0; i < 2; i++)
+    {
+      org.w3c.dom.Document w3cDocument = (org.w3c.dom.Document) requestContent(org.w3c.dom.Document.class, "text/xml", "<order id=\"" + i + "\"/>").get();
+      assertEquals(String.valueOf(i), w3cDocument.getDocumentElement().getAttribute("id"));
+
+      org.jdom2.Document jdomDocument = (org.jdom2.Document) requestContent(org.jdom2.Document.class, "text/xml", "<order id=\"" + i + "\"/>").get();
+      assertEquals(String.valueOf(i), jdomDocument.getRootElement().getAttributeValue("id"));
+    }
+  }
+
+  RequestContent requestContent(Type contentType, String mimeType, String content) throws IOException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/");
+    request.contentType = mimeType;
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream(content.getBytes("UTF-8")));
+    return new RequestContent(routesConfiguration, request, contentType, null, mimeType, new AvailableLibraries(routesConfiguration), contentBridges, null);
+  }
+}
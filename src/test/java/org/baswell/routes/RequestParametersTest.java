@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RequestParametersTest
+{
+  @Test
+  public void testReadsServletMapWithoutCopying()
+  {
+    Map<String, String[]> parameterMap = new LinkedHashMap<String, String[]>();
+    parameterMap.put("q", new String[]{"routes"});
+    parameterMap.put("tag", new String[]{"a", "b"});
+
+    RequestParameters parameters = new RequestParameters(Collections.unmodifiableMap(parameterMap));
+    assertTrue(parameters.hasParameters());
+    assertEquals(2, parameters.size());
+    assertTrue(parameters.contains("tag"));
+    assertEquals("routes", parameters.get("q"));
+    assertEquals(Arrays.asList("a", "b"), parameters.getValues("tag"));
+    assertEquals("q=routes&tag=a&tag=b", parameters.toString());
+  }
+
+  @Test
+  public void testCopiedOnModification()
+  {
+    Map<String, String[]> parameterMap = new LinkedHashMap<String, String[]>();
+    parameterMap.put("q", new String[]{"routes"});
+    parameterMap.put("tag", new String[]{"a"});
+
+    RequestParameters parameters = new RequestParameters(parameterMap);
+    assertEquals("a", parameters.get("tag"));
+
+    parameters.put("tag", "b");
+    parameters.remove("q");
+    parameters.put("page", 2);
+
+    assertEquals(Arrays.asList("a", "b"), parameters.getValues("tag"));
+    assertFalse(parameters.contains("q"));
+    assertEquals(2, parameters.getInteger("page"));
+    assertEquals(2, parameters.size());
+
+    assertArrayEquals(new String[]{"a"}, parameterMap.get("tag"));
+    assertTrue(parameterMap.containsKey("q"));
+    assertEquals("q=routes&tag=a", parameters.toString());
+  }
+
+  @Test
+  public void testNoParameters()
+  {
+    RequestParameters parameters = new RequestParameters(Collections.<String, String[]>emptyMap());
+    assertFalse(parameters.hasParameters());
+    assertNull(parameters.get("q"));
+    assertEquals("", parameters.toString());
+  }
+
+  @Test
+  public void testQueryString()
+  {
+    RequestParameters parameters = new RequestParameters("q=routes&tag=a&tag=b");
+    assertEquals("routes", parameters.get("q"));
+    assertEquals(Arrays.asList("a", "b"), parameters.getValues("tag"));
+    assertEquals("q=routes&tag=a&tag=b", parameters.toString());
+
+    parameters.remove("tag");
+    assertFalse(parameters.contains("tag"));
+  }
+}
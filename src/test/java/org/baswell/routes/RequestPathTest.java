@@ -15,6 +15,7 @@
  */
 package org.baswell.routes;
 
+import org.baswell.routes.utils.http.TestHttpServletRequest;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -60,4 +61,92 @@ public class RequestPathTest
     assertTrue(path.startsWith(""));
 
   }
+
+  @Test
+  public void testTypedGetters()
+  {
+    RequestPath path = new RequestPath("/items/42/-7/9223372036854775807/1.5/TRUE/x");
+
+    assertEquals(42, path.getInteger(1));
+    assertEquals((byte) -7, path.getByte(2));
+    assertEquals((short) 42, path.getShort(1));
+    assertEquals(Long.MAX_VALUE, path.getLong(3));
+    assertEquals(1.5, path.getDouble(4), 0);
+    assertEquals(1.5f, path.getFloat(4), 0);
+    assertTrue(path.getBoolean(5));
+    assertFalse(path.getBoolean(6));
+    assertEquals('x', path.getCharacter(6));
+
+    try
+    {
+      path.getInteger(3);
+      fail();
+    }
+    catch (NumberFormatException e)
+    {}
+
+    try
+    {
+      new RequestPath("/300").getByte(0);
+      fail();
+    }
+    catch (NumberFormatException e)
+    {}
+
+    try
+    {
+      path.get(7);
+      fail();
+    }
+    catch (IndexOutOfBoundsException e)
+    {}
+  }
+
+  @Test
+  public void testViews()
+  {
+    RequestPath path = new RequestPath("/this/is/a/test.html");
+
+    RequestPath popped = path.pop(2);
+    assertEquals(2, popped.size());
+    assertEquals("a", popped.get(0));
+    assertEquals("/a/test.html", popped.toString());
+    assertEquals("test.html", popped.getFileName());
+    assertEquals("html", popped.getFileExtension());
+    assertEquals(new RequestPath("/a/test.html"), popped);
+    assertEquals("/a/test.html".hashCode(), popped.hashCode());
+    assertEquals(0, path.pop(4).size());
+
+    assertEquals("/is/a/test.html", path.substring(5).toString());
+    assertEquals("/is/a/test.html", path.substring(6).toString());
+    assertEquals("/s/a/test.html", path.substring(7).toString());
+    assertEquals("", path.substring(path.toString().length()).toString());
+
+    try
+    {
+      path.pop(5);
+      fail();
+    }
+    catch (IndexOutOfBoundsException e)
+    {}
+  }
+
+  @Test
+  public void testParsing()
+  {
+    RequestPath path = new RequestPath(new TestHttpServletRequest("GET", "/app", "/app/one%20two//three+four/"));
+    assertEquals(Arrays.asList("one two", "", "three four"), RequestPath.parseUrlSegments("/app/one%20two//three+four/", "/app"));
+    assertTrue(path.equals(Arrays.asList("one two", "", "three four")));
+    assertTrue(path.equals("one%20two//three four"));
+    assertEquals("/one two//three four", path.toString());
+    assertEquals("/one two//three four".hashCode(), path.hashCode());
+
+    path = new RequestPath("  /padded/path/  ");
+    assertEquals(2, path.size());
+    assertEquals("path", path.get(1));
+    assertNull(path.getFileName());
+
+    assertEquals(0, new RequestPath("/").size());
+    assertEquals(0, new RequestPath("").size());
+  }
 }
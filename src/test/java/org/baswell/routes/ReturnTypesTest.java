@@ -15,13 +15,18 @@
  */
 package org.baswell.routes;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import org.baswell.routes.testroutes.ReturnTypes;
 import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestServletInputStream;
 import org.junit.Before;
 import org.junit.Test;
 
 import jakarta.servlet.ServletException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import static org.junit.Assert.*;
@@ -31,6 +36,7 @@ public class ReturnTypesTest extends EndToEndTest
   @Before
   public void setupRoutingTable()
   {
+    routesConfiguration = new RoutesConfiguration();
     buildRoutingTable(ReturnTypes.class);
   }
 
@@ -57,4 +63,153 @@ public class ReturnTypesTest extends EndToEndTest
     assertTrue(gsonResponse.three);
   }
 
+  @Test
+  public void testJacksonGenericReturnType() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", "/jackson/list");
+    request.contentType = "application/json";
+    invoke(request, "jacksonList");
+
+    assertEquals("[{\"one\":\"one\",\"two\":0,\"three\":false},{\"one\":\"one\",\"two\":1,\"three\":false}]", servletResponse.getContentAsString());
+  }
+
+  @Test
+  public void testJacksonRequestContent() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/jackson/echo");
+    request.contentType = "application/json";
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull(matchedRoute.routeNode.requestContentReader);
+
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream("{\"one\":\"uno\",\"two\":2,\"three\":true}".getBytes("UTF-8")));
+    requestContent = new RequestContent(routesConfiguration, request, matchedRoute.routeNode.getRequestContentType(), MediaType.JSON, request.contentType, new AvailableLibraries(routesConfiguration), routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
+    invoke();
+
+    assertMethodsCalled("jacksonEcho");
+    assertEquals("{\"one\":\"uno\",\"two\":2,\"three\":true}", servletResponse.getContentAsString());
+  }
+
+  @Test
+  public void testJacksonReadersAndWritersShared()
+  {
+    RouteNode postEcho = null;
+    RouteNode putEcho = null;
+    for (RouteNode routeNode : routingTable.getSnapshot().routeNodes)
+    {
+      if (routeNode.method.getName().equals("jacksonEcho"))
+      {
+        postEcho = routeNode;
+      }
+      else if (routeNode.method.getName().equals("jacksonPutEcho"))
+      {
+        putEcho = routeNode;
+      }
+    }
+
+    assertNotNull(postEcho.requestContentReader);
+    assertSame(postEcho.requestContentReader, putEcho.requestContentReader);
+    assertNotNull(postEcho.responseContentWriter);
+    assertSame(postEcho.responseContentWriter, putEcho.responseContentWriter);
+  }
+
+  @Test
+  public void testJacksonObjectMapper() throws IOException, ServletException
+  {
+    routesConfiguration.jacksonObjectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    buildRoutingTable(ReturnTypes.class);
+
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", "/gson");
+    request.contentType = "application/json";
+    invoke(request, "gson");
+
+    assertTrue(servletResponse.getContentAsString().contains("\n"));
+  }
+
+  @Test
+  public void testGsonGenericReturnType() throws IOException, ServletException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    buildRoutingTable(ReturnTypes.class);
+
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", "/jackson/list");
+    request.contentType = "application/json";
+    invoke(request, "jacksonList");
+
+    assertEquals("[{\"one\":\"one\",\"two\":0,\"three\":false},{\"one\":\"one\",\"two\":1,\"three\":false}]", servletResponse.getContentAsString());
+  }
+
+  @Test
+  public void testGsonRequestContent() throws IOException, ServletException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    buildRoutingTable(ReturnTypes.class);
+
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/jackson/echo");
+    request.contentType = "application/json";
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull(matchedRoute.routeNode.requestContentReader);
+
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream("{\"one\":\"\u00fcno\",\"two\":2,\"three\":true}".getBytes("UTF-8")));
+    requestContent = new RequestContent(routesConfiguration, request, matchedRoute.routeNode.getRequestContentType(), MediaType.JSON, request.contentType, new AvailableLibraries(routesConfiguration), routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
+    invoke();
+
+    assertMethodsCalled("jacksonEcho");
+    assertEquals("{\"one\":\"\u00fcno\",\"two\":2,\"three\":true}", new String(servletResponse.outputStream.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void testGsonRequestContentCharacterEncoding() throws IOException, ServletException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    buildRoutingTable(ReturnTypes.class);
+
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/jackson/echo");
+    request.contentType = "application/json";
+    request.characterEncoding = "ISO-8859-1";
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream("{\"one\":\"\u00fcno\",\"two\":2,\"three\":true}".getBytes("ISO-8859-1")));
+    requestContent = new RequestContent(routesConfiguration, request, matchedRoute.routeNode.getRequestContentType(), MediaType.JSON, request.contentType, new AvailableLibraries(routesConfiguration), routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
+    invoke();
+
+    assertMethodsCalled("jacksonEcho");
+    assertEquals("{\"one\":\"\u00fcno\",\"two\":2,\"three\":true}", new String(servletResponse.outputStream.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void testGsonConfiguration() throws IOException, ServletException
+  {
+    routesConfiguration.useGSONForJSON = true;
+    routesConfiguration.gson = new GsonBuilder().serializeNulls().create();
+    buildRoutingTable(ReturnTypes.class);
+
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/jackson/echo");
+    request.contentType = "application/json";
+    initializeRequest(request);
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream("{\"two\":2}".getBytes("UTF-8")));
+    MatchedRoute matchedRoute = find();
+    requestContent = new RequestContent(routesConfiguration, request, matchedRoute.routeNode.getRequestContentType(), MediaType.JSON, request.contentType, new AvailableLibraries(routesConfiguration), routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
+    invoke();
+
+    assertEquals("{\"one\":null,\"two\":2,\"three\":false}", servletResponse.getContentAsString());
+  }
+
+  @Test(expected = RoutesException.class)
+  public void testInvalidGson()
+  {
+    routesConfiguration.useGSONForJSON = true;
+    routesConfiguration.gson = new ObjectMapper();
+    buildRoutingTable(ReturnTypes.class);
+  }
+
+  @Test(expected = RoutesException.class)
+  public void testInvalidJacksonObjectMapper()
+  {
+    routesConfiguration.jacksonObjectMapper = new Gson();
+    buildRoutingTable(ReturnTypes.class);
+  }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.testroutes.PrecedenceRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RoutesCacheKeyTest
+{
+  String[] routingParameterNames = {"q"};
+
+  @Test
+  public void testEquals()
+  {
+    RoutesCacheKey key = key(HttpMethod.GET, "text/html", "/users/1", "q=one&page=1");
+
+    assertEquals(key, key(HttpMethod.GET, "text/html", "/users/1", "q=one&page=1"));
+    assertEquals(key.hashCode(), key(HttpMethod.GET, "text/html", "/users/1", "q=one&page=1").hashCode());
+    assertEquals(key, key(HttpMethod.GET, "text/html", "/users/1", "q=one&page=2"));
+
+    assertFalse(key.equals(key(HttpMethod.POST, "text/html", "/users/1", "q=one&page=1")));
+    assertFalse(key.equals(key(HttpMethod.GET, "application/json", "/users/1", "q=one&page=1")));
+    assertFalse(key.equals(key(HttpMethod.GET, "text/html", "/users/2", "q=one&page=1")));
+    assertFalse(key.equals(key(HttpMethod.GET, "text/html", "/users/1", "q=two&page=1")));
+    assertFalse(key.equals(key(HttpMethod.GET, "text/html", "/users/1", "page=1")));
+
+    RequestPath requestPath = new RequestPath("/users/1");
+    RequestParameters parameters = new RequestParameters("q=one&page=1");
+    assertFalse(key.equals(new RoutesCacheKey(HttpMethod.GET, new RequestedMediaType("text/html", requestPath, parameters), requestPath, parameters, routingParameterNames, 2)));
+  }
+
+  @Test
+  public void testDetach()
+  {
+    Map<String, String[]> parameterMap = new HashMap<String, String[]>();
+    parameterMap.put("q", new String[] {"one"});
+    parameterMap.put("page", new String[] {"1"});
+    RequestPath requestPath = new RequestPath("/users/1");
+    RequestParameters parameters = new RequestParameters(parameterMap);
+    RoutesCacheKey key = new RoutesCacheKey(HttpMethod.GET, new RequestedMediaType("text/html", requestPath, parameters), requestPath, parameters, routingParameterNames, 1);
+
+    RoutesCacheKey detached = key.detach();
+    assertEquals(key, detached);
+    assertEquals(key.hashCode(), detached.hashCode());
+    assertNotSame(parameters, detached.parameters);
+
+    parameterMap.get("q")[0] = "two";
+    parameterMap.clear();
+    assertEquals("one", detached.parameters.get("q"));
+    assertEquals("1", detached.parameters.get("page"));
+    assertEquals(key(HttpMethod.GET, "text/html", "/users/1", "q=one"), detached);
+  }
+
+  @Test
+  public void testPathHashCode()
+  {
+    assertEquals("/users/1/posts".hashCode(), new RequestPath("/users/1/posts").hashCode());
+    assertEquals("".hashCode(), new RequestPath("/").hashCode());
+    assertEquals(new RequestPath("/users/1").hashCode(), new RequestPath(new TestHttpServletRequest("GET", "/app", "/app/users/1")).hashCode());
+  }
+
+  @Test
+  public void testEngineUsesKey() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    TinyLFURoutesCache routesCache = new TinyLFURoutesCache(10, true);
+    routesConfiguration.routesCache = routesCache;
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(new PrecedenceRoutes());
+    routingTable.build();
+    RoutesEngine routesEngine = new RoutesEngine(routingTable);
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertEquals(1, routesCache.size());
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/files/a/b", "q", "routes"), new TestHttpServletResponse()));
+    assertEquals(2, routesCache.size());
+  }
+
+  RoutesCacheKey key(HttpMethod method, String accept, String path, String queryString)
+  {
+    RequestPath requestPath = new RequestPath(path);
+    RequestParameters parameters = new RequestParameters(queryString);
+    return new RoutesCacheKey(method, new RequestedMediaType(accept, requestPath, parameters), requestPath, parameters, routingParameterNames, 1);
+  }
+}
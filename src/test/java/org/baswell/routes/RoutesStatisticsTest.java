@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.testroutes.PrecedenceRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoutesStatisticsTest extends EndToEndTest
+{
+  TinyLFURoutesCache routesCache;
+
+  RoutesStatistics statistics;
+
+  @Before
+  public void setupRoutingTable()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    routesCache = new TinyLFURoutesCache(10, true);
+    routesConfiguration.routesCache = routesCache;
+    buildRoutingTable(PrecedenceRoutes.class);
+    statistics = routingTable.getStatistics();
+  }
+
+  @Test
+  public void testFixedRoutesNotCached()
+  {
+    assertFound(new TestHttpServletRequest("GET", "/", "/users/new"));
+    assertFound(new TestHttpServletRequest("GET", "/", "/users/new"));
+    assertFound(new TestHttpServletRequest("GET", "/", "/search", "q", "routes"));
+
+    assertEquals(3, statistics.getExactHits());
+    assertEquals(0, statistics.getExactMisses());
+    assertEquals(0, statistics.getCacheHits() + statistics.getCacheMisses());
+    assertEquals(0, routesCache.size());
+  }
+
+  @Test
+  public void testPatternRoutesCached()
+  {
+    assertFound(new TestHttpServletRequest("GET", "/", "/users/42"));
+    assertEquals(1, statistics.getExactMisses());
+    assertEquals(1, statistics.getCacheMisses());
+    assertEquals(1, routesCache.size());
+
+    assertFound(new TestHttpServletRequest("GET", "/", "/users/42"));
+    assertEquals(1, statistics.getCacheHits());
+    assertEquals("getUser", find().routeNode.method.getName());
+    assertEquals(42, find().pathMatches.get(1));
+
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/unknown"));
+    assertEquals(5, statistics.getExactMisses());
+    assertEquals(1, routesCache.size());
+
+    statistics.reset();
+    assertEquals(0, statistics.getCacheHits());
+  }
+
+  @Test
+  public void testMissCache()
+  {
+    routesConfiguration.missCacheSize = 16;
+    buildRoutingTable(PrecedenceRoutes.class);
+    statistics = routingTable.getStatistics();
+
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/css/site.css"));
+    assertEquals(0, statistics.getMissCacheHits());
+    assertEquals(1, statistics.getMissCacheMisses());
+
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/css/site.css"));
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/css/site.css"));
+    assertEquals(2, statistics.getMissCacheHits());
+    assertEquals(2.0 / 3, statistics.getMissCacheHitRate(), 0.0001);
+
+    assertFound(new TestHttpServletRequest("GET", "/", "/users/42"));
+    assertEquals(2, statistics.getMissCacheMisses());
+
+    assertNotFound(new TestHttpServletRequest("POST", "/", "/css/site.css"));
+    assertEquals(3, statistics.getMissCacheMisses());
+
+    routingTable.add(StylesheetRoutes.class);
+    routingTable.build();
+    assertFound(new TestHttpServletRequest("GET", "/", "/css/site.css"));
+    assertEquals(2, statistics.getMissCacheHits());
+  }
+
+  public static class StylesheetRoutes
+  {
+    @Route("/css/{}")
+    public String getStylesheet(String name)
+    {
+      return "";
+    }
+  }
+
+  void assertFound(TestHttpServletRequest request)
+  {
+    initializeRequest(request);
+    assertNotNull(find());
+  }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.baswell.routes.testroutes.BasicRoutes;
+import org.baswell.routes.testroutes.CombinedRoutes;
+import org.baswell.routes.testroutes.LoginRoutes;
+import org.baswell.routes.testroutes.PartialExpressionRoutes;
+import org.baswell.routes.testroutes.PrecedenceRoutes;
+import org.baswell.routes.testroutes.ReturnTypes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoutingSnapshotTest
+{
+  @Test
+  public void testRebuildDropsCachedRoutes() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    TinyLFURoutesCache routesCache = new TinyLFURoutesCache(10, true);
+    routesConfiguration.routesCache = routesCache;
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(new PrecedenceRoutes());
+    routingTable.build();
+    RoutesEngine routesEngine = new RoutesEngine(routingTable);
+    RoutesStatistics statistics = routingTable.getStatistics();
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertEquals(1, statistics.getCacheHits());
+
+    RouteNode routeNode = routingTable.getRouteNodes().get(0);
+    assertEquals(1, routesCache.size());
+    routingTable.build();
+    assertEquals(0, routesCache.size());
+    assertNotSame(routeNode, routingTable.getRouteNodes().get(0));
+    assertFalse(routingTable.getSnapshot().contains(routeNode));
+    assertTrue(routingTable.getSnapshot().contains(routingTable.getRouteNodes().get(0)));
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertEquals(1, statistics.getCacheHits());
+    assertEquals(2, statistics.getCacheMisses());
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertEquals(2, statistics.getCacheHits());
+  }
+
+  @Test
+  public void testRequestsAfterShutdown() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    SimpleRoutesCache routesCache = new SimpleRoutesCache(10, 1000, true);
+    routesConfiguration.routesCache = routesCache;
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(new PrecedenceRoutes());
+    routingTable.build();
+    RoutesEngine routesEngine = new RoutesEngine(routingTable);
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    RoutesCacheKey key = new RoutesCacheKey(HttpMethod.GET, null, new RequestPath("/users/42"), null, null, 1);
+    routesCache.put("cached", key);
+
+    routingTable.shutdown();
+    assertNull(routesCache.get(key));
+    assertTrue(routingTable.getRouteNodes().isEmpty());
+
+    assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/42"), new TestHttpServletResponse()));
+    assertFalse(routingTable.getRouteNodes().isEmpty());
+  }
+
+  @Test
+  public void testLookupsDuringRebuilds() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.routesCache = new TinyLFURoutesCache(10, true);
+    routesConfiguration.missCacheSize = 10;
+
+    final RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(new PrecedenceRoutes());
+    routingTable.build();
+
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++)
+    {
+      threads[i] = new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            RoutesEngine routesEngine = new RoutesEngine(routingTable);
+            for (int j = 0; j < 2000; j++)
+            {
+              assertTrue(routesEngine.process(new TestHttpServletRequest("GET", "/", "/users/" + (j % 10)), new TestHttpServletResponse()));
+              assertFalse(routesEngine.process(new TestHttpServletRequest("GET", "/", "/unknown"), new TestHttpServletResponse()));
+            }
+          }
+          catch (Throwable e)
+          {
+            failure.compareAndSet(null, e);
+          }
+        }
+      });
+      threads[i].start();
+    }
+
+    for (int i = 0; i < 50; i++)
+    {
+      routingTable.build();
+    }
+
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    if (failure.get() != null)
+    {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  @Test
+  public void testReloadOnlyChangedRoutes() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.developmentMode = true;
+    routesConfiguration.developmentReloadCycleSeconds = 3600;
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(PrecedenceRoutes.class, ReloadedRoutes.class);
+    routingTable.build();
+
+    File classFile = new File(ReloadedRoutes.class.getResource("RoutingSnapshotTest$ReloadedRoutes.class").toURI());
+    long modified = classFile.lastModified();
+    try
+    {
+      assertFalse(routingTable.reloadChangedRoutes());
+      List<RouteNode> routeNodes = routingTable.getRouteNodes();
+
+      assertTrue(classFile.setLastModified(modified + 10000));
+      assertTrue(routingTable.reloadChangedRoutes());
+      assertFalse(routingTable.reloadChangedRoutes());
+
+      List<RouteNode> reloadedRouteNodes = routingTable.getRouteNodes();
+      assertEquals(routeNodes.size(), reloadedRouteNodes.size());
+      for (int i = 0; i < routeNodes.size(); i++)
+      {
+        RouteNode routeNode = routeNodes.get(i);
+        RouteNode reloadedRouteNode = reloadedRouteNodes.get(i);
+        assertEquals(routeNode.method, reloadedRouteNode.method);
+        if (routeNode.method.getDeclaringClass() == ReloadedRoutes.class)
+        {
+          assertNotSame(routeNode, reloadedRouteNode);
+        }
+        else
+        {
+          assertSame(routeNode, reloadedRouteNode);
+        }
+      }
+    }
+    finally
+    {
+      classFile.setLastModified(modified);
+      routingTable.shutdown();
+    }
+  }
+
+  @Test
+  public void testClassFilesModified() throws Exception
+  {
+    File classFile = new File(ReloadedRoutes.class.getResource("RoutingSnapshotTest$ReloadedRoutes.class").toURI());
+    assertEquals(classFile.lastModified(), RoutingTable.classFilesModified(ReloadedRoutes.class));
+
+    File jarFile = new File(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    assertTrue(jarFile.isFile());
+    assertEquals(jarFile.lastModified(), RoutingTable.classFilesModified(Test.class));
+
+    assertEquals(0, RoutingTable.classFilesModified(String.class));
+    assertEquals(RoutingTable.UNKNOWN_MODIFIED, RoutingTable.classFilesModified(untimestampedReloadedRoutes()));
+  }
+
+  @Test
+  public void testReloadUntimestampedRoutes() throws Exception
+  {
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.developmentMode = true;
+    routesConfiguration.developmentReloadCycleSeconds = 3600;
+
+    RoutingTable routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(PrecedenceRoutes.class, untimestampedReloadedRoutes());
+    routingTable.build();
+    try
+    {
+      RouteNode precedenceNode = routingTable.getRouteNodes().get(0);
+      assertTrue(routingTable.reloadChangedRoutes());
+      assertTrue(routingTable.reloadChangedRoutes());
+      assertSame(precedenceNode, routingTable.getRouteNodes().get(0));
+    }
+    finally
+    {
+      routingTable.shutdown();
+    }
+  }
+
+  /*
+   * ReloadedRoutes defined by a class loader that has no resources and no code source location (like a virtual file system).
+   */
+  static Class untimestampedReloadedRoutes() throws Exception
+  {
+    final String className = ReloadedRoutes.class.getName();
+    final byte[] classBytes;
+    try (InputStream classStream = ReloadedRoutes.class.getResourceAsStream("RoutingSnapshotTest$ReloadedRoutes.class"))
+    {
+      classBytes = classStream.readAllBytes();
+    }
+
+    ClassLoader classLoader = new ClassLoader(RoutingSnapshotTest.class.getClassLoader())
+    {
+      @Override
+      protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+      {
+        if (!className.equals(name))
+        {
+          return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name))
+        {
+          Class<?> loaded = findLoadedClass(name);
+          return (loaded == null) ? defineClass(name, classBytes, 0, classBytes.length) : loaded;
+        }
+      }
+
+      @Override
+      public URL getResource(String name)
+      {
+        return null;
+      }
+    };
+    return classLoader.loadClass(className);
+  }
+
+  @Test
+  public void testParallelBuild() throws Exception
+  {
+    Object[] routes = {BasicRoutes.class, new PrecedenceRoutes(), CombinedRoutes.class, LoginRoutes.class, new PrecedenceRoutes(), PartialExpressionRoutes.class, ReturnTypes.class, PrecedenceRoutes.class, new PrecedenceRoutes()};
+
+    RoutesConfiguration sequentialConfiguration = new RoutesConfiguration();
+    sequentialConfiguration.buildParallelism = 1;
+    RoutingTable sequentialTable = new RoutingTable(sequentialConfiguration);
+    sequentialTable.add(routes);
+    sequentialTable.build();
+    List<RouteNode> sequentialNodes = sequentialTable.getRouteNodes();
+
+    for (int i = 0; i < 10; i++)
+    {
+      RoutesConfiguration parallelConfiguration = new RoutesConfiguration();
+      parallelConfiguration.buildParallelism = 4;
+      RoutingTable parallelTable = new RoutingTable(parallelConfiguration);
+      parallelTable.add(routes);
+      parallelTable.build();
+      List<RouteNode> parallelNodes = parallelTable.getRouteNodes();
+
+      assertEquals(sequentialNodes.size(), parallelNodes.size());
+      for (int j = 0; j < sequentialNodes.size(); j++)
+      {
+        RouteNode sequentialNode = sequentialNodes.get(j);
+        RouteNode parallelNode = parallelNodes.get(j);
+        assertEquals(sequentialNode.method, parallelNode.method);
+        assertEquals(sequentialNode.routeConfiguration.route, parallelNode.routeConfiguration.route);
+        assertSame(sequentialNode.instance.instance, parallelNode.instance.instance);
+        assertEquals(sequentialNode.instance.clazz, parallelNode.instance.clazz);
+      }
+    }
+
+    RoutesConfiguration failingConfiguration = new RoutesConfiguration();
+    failingConfiguration.buildParallelism = 4;
+    RoutingTable failingTable = new RoutingTable(failingConfiguration);
+    failingTable.add(BasicRoutes.class, NoRoutes.class, PrecedenceRoutes.class, String.class);
+    try
+    {
+      failingTable.build();
+      fail();
+    }
+    catch (RoutesException e)
+    {
+      assertEquals("Route class: " + NoRoutes.class + " has no routes.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testParallelBuildContextClassLoader() throws Exception
+  {
+    assertEquals(1, new RoutesConfiguration().buildParallelism);
+
+    ClassLoader contextClassLoader = new ClassLoader(getClass().getClassLoader())
+    {};
+    ForkJoinPool pool = new ForkJoinPool(2, new RoutingTable.ContextClassLoaderThreadFactory(contextClassLoader), null, false);
+    try
+    {
+      Future<ClassLoader> future = pool.submit(new Callable<ClassLoader>()
+      {
+        @Override
+        public ClassLoader call()
+        {
+          return Thread.currentThread().getContextClassLoader();
+        }
+      });
+      assertSame(contextClassLoader, future.get());
+    }
+    finally
+    {
+      pool.shutdownNow();
+    }
+  }
+
+  public static class NoRoutes
+  {}
+
+  public static class ReloadedRoutes
+  {
+    @Route("/reloaded")
+    public String get()
+    {
+      return "";
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.testroutes.PrecedenceRoutes;
+import org.baswell.routes.testroutes.TieRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RoutingTrieTest extends EndToEndTest
+{
+  @Before
+  public void setupRoutingTable()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    buildRoutingTable(PrecedenceRoutes.class);
+  }
+
+  @Test
+  public void testFixedBeforePattern()
+  {
+    assertRoute("getNewUser", new TestHttpServletRequest("GET", "/", "/users/new"));
+    assertRoute("getUser", new TestHttpServletRequest("GET", "/", "/users/12"));
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/users/twelve"));
+  }
+
+  @Test
+  public void testMediaBeforeAnyMedia()
+  {
+    assertRoute("getUserJson", new TestHttpServletRequest("GET", "/", "/users/12", "mediaType", "json"));
+    assertRoute("getUser", new TestHttpServletRequest("GET", "/", "/users/12", "mediaType", "xml"));
+  }
+
+  @Test
+  public void testPartitionedByMethod()
+  {
+    assertRoute("putUser", new TestHttpServletRequest("PUT", "/", "/users/12"));
+    assertRoute("saveNewUser", new TestHttpServletRequest("POST", "/", "/users/new"));
+    assertRoute("saveNewUser", new TestHttpServletRequest("PUT", "/", "/users/new"));
+    assertNotFound(new TestHttpServletRequest("POST", "/", "/users/12"));
+    assertNotFound(new TestHttpServletRequest("DELETE", "/", "/users/new"));
+    assertNotFound(new TestHttpServletRequest("PATCH", "/", "/users/12"));
+  }
+
+  @Test
+  public void testFromServletMethod()
+  {
+    assertEquals(HttpMethod.DELETE, HttpMethod.fromServletMethod("DELETE"));
+    assertEquals(HttpMethod.POST, HttpMethod.fromServletMethod("post"));
+    assertNull(HttpMethod.fromServletMethod("PATCH"));
+    assertNull(HttpMethod.fromServletMethod(null));
+  }
+
+  @Test
+  public void testMulti()
+  {
+    assertRoute("getFile", new TestHttpServletRequest("GET", "/", "/files"));
+    assertRoute("getFile", new TestHttpServletRequest("GET", "/", "/files/a/b/c.txt"));
+    assertRoute("editDoc", new TestHttpServletRequest("GET", "/", "/docs/a/b/edit"));
+    assertNotFound(new TestHttpServletRequest("GET", "/", "/docs/a/b/view"));
+  }
+
+  @Test
+  public void testParameters()
+  {
+    assertRoute("search", new TestHttpServletRequest("GET", "/", "/search", "q", "routes"));
+    assertRoute("searchForm", new TestHttpServletRequest("GET", "/", "/search"));
+  }
+
+  @Test
+  public void testSameAsScan()
+  {
+    String[] paths = {"/", "/users", "/users/new", "/users/1", "/users/1/posts/2", "/users/1/posts", "/files", "/files/x", "/docs/edit", "/docs/x/edit", "/search", "/unknown/path"};
+    String[] methods = {"GET", "POST", "PUT", "DELETE"};
+    for (String method : methods)
+    {
+      for (String requestPath : paths)
+      {
+        for (String mediaType : new String[]{"html", "json"})
+        {
+          initializeRequest(new TestHttpServletRequest(method, "/", requestPath, "mediaType", mediaType));
+          MatchedRoute matchedRoute = find();
+          RouteNode scanned = scan();
+          assertSame(method + " " + requestPath + " " + mediaType, scanned, matchedRoute == null ? null : matchedRoute.routeNode);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEqualCriteriaKeepRouteOrder()
+  {
+    routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(TieRoutes.class);
+    routingTable.build();
+
+    RouteNode anyX = null;
+    RouteNode user = null;
+    for (RouteNode routeNode : routingTable.getRouteNodes())
+    {
+      if (routeNode.method.getName().equals("getAnyX"))
+      {
+        anyX = routeNode;
+      }
+      else
+      {
+        user = routeNode;
+      }
+    }
+    assertEquals(0, anyX.criteria.compareTo(user.criteria));
+
+    RequestPath requestPath = new RequestPath("/users/x");
+    RequestedMediaType mediaType = new RequestedMediaType("text/html", requestPath, new RequestParameters(""));
+
+    List<RouteNode> candidates = new RoutingTrie(Arrays.asList(anyX, user), false).findCandidates(requestPath, mediaType);
+    assertEquals(Arrays.asList(anyX, user), candidates);
+
+    candidates = new RoutingTrie(Arrays.asList(user, anyX), false).findCandidates(requestPath, mediaType);
+    assertEquals(Arrays.asList(user, anyX), candidates);
+  }
+
+  @Test
+  public void testEqualCriteriaKeepAddOrder()
+  {
+    routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(TieRoutes.AnyXRoutes.class);
+    routingTable.add(TieRoutes.UserRoutes.class);
+    routingTable.build();
+    assertRouteClass(TieRoutes.AnyXRoutes.class, new TestHttpServletRequest("GET", "/", "/users/x"));
+
+    routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(TieRoutes.UserRoutes.class);
+    routingTable.add(TieRoutes.AnyXRoutes.class);
+    routingTable.build();
+    assertRouteClass(TieRoutes.UserRoutes.class, new TestHttpServletRequest("GET", "/", "/users/x"));
+  }
+
+  void assertRouteClass(Class routesClass, TestHttpServletRequest request)
+  {
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull("No route found for: " + path, matchedRoute);
+    assertEquals(routesClass, matchedRoute.routeNode.method.getDeclaringClass());
+  }
+
+  void assertRoute(String methodName, TestHttpServletRequest request)
+  {
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    assertNotNull("No route found for: " + path, matchedRoute);
+    assertEquals(methodName, matchedRoute.routeNode.method.getName());
+  }
+
+  RouteNode scan()
+  {
+    for (RouteNode routeNode : routingTable.getRouteNodes())
+    {
+      List<Object> pathMatches = new ArrayList<Object>();
+      Map<String, Object> parameterMatches = new HashMap<String, Object>();
+      if (routeNode.criteria.matches(httpMethod, requestedMediaType, path, parameters, pathMatches, parameterMatches))
+      {
+        return routeNode;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.baswell.routes.SegmentMatcher.PatternSegmentMatcher;
+import org.junit.Test;
+
+import static org.baswell.routes.RoutesMethods.*;
+import static org.junit.Assert.*;
+
+public class SegmentMatcherTest
+{
+  static final String[] VALUES = {"0", "7", "-7", "007", "-", "", "1.", ".5", "1.5", "-1.25", "12a", "a12", "127", "128", "-128", "-129",
+      "32767", "32768", "2147483647", "2147483648", "-2147483648", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+      "12345678", "123456789", "0.1", "0.000001", "123456789012345", "1234567890123456", "3.14159265358979323846", "-0", "-0.0",
+      "1.00000000000000000000001", "true", "TRUE", "False", "yes", "x", "xy", "--1", "1-", "+1", " 1",
+      "\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029", "a\nb", "1\n"};
+
+  @Test
+  public void testIntegralScanners()
+  {
+    assertEquals((byte) -128, SegmentMatcher.BYTE.match("-128"));
+    assertNull(SegmentMatcher.BYTE.match("128"));
+    assertEquals((short) 32767, SegmentMatcher.SHORT.match("32767"));
+    assertEquals(42, SegmentMatcher.INTEGER.match("0042"));
+    assertEquals(Integer.MIN_VALUE, SegmentMatcher.INTEGER.match("-2147483648"));
+    assertNull(SegmentMatcher.INTEGER.match("2147483648"));
+    assertEquals(Long.MAX_VALUE, SegmentMatcher.LONG.match("9223372036854775807"));
+    assertNull(SegmentMatcher.LONG.match("9223372036854775808"));
+
+    for (String value : VALUES)
+    {
+      assertAgreesWithPattern(SegmentMatcher.BYTE, BYTE_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.SHORT, SHORT_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.INTEGER, INTEGER_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.LONG, LONG_PATTERN, value);
+    }
+  }
+
+  @Test
+  public void testDecimalScanners()
+  {
+    assertEquals(1.5f, SegmentMatcher.FLOAT.match("1.5"));
+    assertEquals(-0.0, SegmentMatcher.DOUBLE.match("-0"));
+    assertNull(SegmentMatcher.DOUBLE.match("1."));
+
+    for (String value : VALUES)
+    {
+      assertAgreesWithPattern(SegmentMatcher.FLOAT, FLOAT_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.DOUBLE, DOUBLE_PATTERN, value);
+    }
+
+    Random random = new Random(11);
+    for (int i = 0; i < 10000; i++)
+    {
+      String value = (random.nextBoolean() ? "-" : "") + random.nextInt(100000) + "." + random.nextInt(1000000);
+      assertAgreesWithPattern(SegmentMatcher.FLOAT, FLOAT_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.DOUBLE, DOUBLE_PATTERN, value);
+    }
+  }
+
+  @Test
+  public void testBooleanCharacterAndStringScanners()
+  {
+    assertEquals(Boolean.TRUE, SegmentMatcher.BOOLEAN.match("TrUe"));
+    assertEquals('x', SegmentMatcher.CHARACTER.match("x"));
+    assertEquals("any thing", SegmentMatcher.STRING.match("any thing"));
+    assertEquals("line\r\nbreak", SegmentMatcher.STRING.match("line\r\nbreak"));
+    assertEquals('\u2028', SegmentMatcher.CHARACTER.match("\u2028"));
+
+    for (String value : VALUES)
+    {
+      assertAgreesWithPattern(SegmentMatcher.BOOLEAN, BOOLEAN_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.CHARACTER, CHAR_PATTERN, value);
+      assertAgreesWithPattern(SegmentMatcher.STRING, STRING_PATTERN, value);
+    }
+  }
+
+  @Test
+  public void testPatternFallback()
+  {
+    PatternSegmentMatcher matcher = new PatternSegmentMatcher(Pattern.compile("(\\w+)-(\\d+)"));
+    assertEquals(2, matcher.groupCount());
+    assertNull(matcher.match("abc"));
+
+    Object match = matcher.match("abc-12");
+    assertTrue(match instanceof Matcher);
+    assertEquals("12", ((Matcher) match).group(2));
+
+    assertEquals(matcher, new PatternSegmentMatcher(Pattern.compile("(\\w+)-(\\d+)")));
+    assertFalse(matcher.equals(new PatternSegmentMatcher(Pattern.compile("(\\w+)-(\\d+)", Pattern.CASE_INSENSITIVE))));
+  }
+
+  @Test
+  public void testForType()
+  {
+    assertSame(SegmentMatcher.INTEGER, SegmentMatcher.forType(int.class));
+    assertSame(SegmentMatcher.INTEGER, SegmentMatcher.forType(Integer.class));
+    assertSame(SegmentMatcher.CHARACTER, SegmentMatcher.forType(char.class));
+    assertNull(SegmentMatcher.forType(Object.class));
+  }
+
+  static void assertAgreesWithPattern(SegmentMatcher matcher, String pattern, String value)
+  {
+    boolean patternMatches = Pattern.compile(pattern, Pattern.DOTALL).matcher(value).matches();
+    Object match = matcher.match(value);
+
+    if (!patternMatches)
+    {
+      assertNull(pattern + " " + value, match);
+    }
+    else if (matcher instanceof SegmentMatcher.IntegralSegmentMatcher)
+    {
+      SegmentMatcher.IntegralSegmentMatcher integralMatcher = (SegmentMatcher.IntegralSegmentMatcher) matcher;
+      BigInteger parsed = new BigInteger(value);
+      if ((parsed.compareTo(BigInteger.valueOf(integralMatcher.minValue)) < 0) || (parsed.compareTo(BigInteger.valueOf(integralMatcher.maxValue)) > 0))
+      {
+        assertNull(pattern + " " + value, match);
+      }
+      else
+      {
+        assertEquals(pattern + " " + value, parsed.longValue(), ((Number) match).longValue());
+      }
+    }
+    else if (matcher == SegmentMatcher.FLOAT)
+    {
+      assertEquals(pattern + " " + value, Float.valueOf(Float.parseFloat(value)), match);
+    }
+    else if (matcher == SegmentMatcher.DOUBLE)
+    {
+      assertEquals(pattern + " " + value, Double.valueOf(Double.parseDouble(value)), match);
+    }
+    else
+    {
+      assertNotNull(pattern + " " + value, match);
+    }
+  }
+}
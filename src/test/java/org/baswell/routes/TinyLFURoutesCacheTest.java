@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TinyLFURoutesCacheTest
+{
+  RequestedMediaType mediaType = new RequestedMediaType("text/html");
+
+  RequestParameters parameters = new RequestParameters("");
+
+  @Test
+  public void testGetPut()
+  {
+    TinyLFURoutesCache cache = new TinyLFURoutesCache(10, false);
+    RequestPath path = new RequestPath("/users/1");
+
+    assertNull(cache.get(HttpMethod.GET, mediaType, path, parameters));
+    cache.put("users", HttpMethod.GET, mediaType, path, parameters);
+    assertEquals("users", cache.get(HttpMethod.GET, mediaType, new RequestPath("/users/1"), parameters));
+    assertNull(cache.get(HttpMethod.POST, mediaType, path, parameters));
+  }
+
+  @Test
+  public void testBoundedUnderConcurrentPuts() throws Exception
+  {
+    final TinyLFURoutesCache cache = new TinyLFURoutesCache(100, false);
+    final AtomicInteger maxSize = new AtomicInteger();
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++)
+    {
+      final int threadNumber = i;
+      threads.add(new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          for (int j = 0; j < 5000; j++)
+          {
+            RequestPath path = new RequestPath("/users/" + (j % 500) + "/" + threadNumber);
+            if (cache.get(HttpMethod.GET, mediaType, path, parameters) == null)
+            {
+              cache.put(path, HttpMethod.GET, mediaType, path, parameters);
+            }
+            maxSize.accumulateAndGet(cache.size(), Math::max);
+          }
+        }
+      }));
+    }
+
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join();
+
+    assertTrue(maxSize.get() <= (100 + threads.size()));
+    assertTrue(cache.size() <= 100);
+    assertTrue(cache.size() > 0);
+  }
+
+  @Test
+  public void testFrequentRoutesSurviveScan()
+  {
+    TinyLFURoutesCache cache = new TinyLFURoutesCache(20, false);
+
+    List<RequestPath> hotPaths = new ArrayList<RequestPath>();
+    for (int i = 0; i < 10; i++)
+    {
+      RequestPath path = new RequestPath("/hot/" + i);
+      hotPaths.add(path);
+      cache.get(HttpMethod.GET, mediaType, path, parameters);
+      cache.put(path, HttpMethod.GET, mediaType, path, parameters);
+    }
+
+    for (int i = 0; i < 1000; i++)
+    {
+      for (RequestPath hotPath : hotPaths)
+      {
+        assertNotNull(cache.get(HttpMethod.GET, mediaType, hotPath, parameters));
+      }
+
+      RequestPath scanPath = new RequestPath("/users/" + i);
+      if (cache.get(HttpMethod.GET, mediaType, scanPath, parameters) == null)
+      {
+        cache.put(scanPath, HttpMethod.GET, mediaType, scanPath, parameters);
+      }
+    }
+
+    assertTrue(cache.size() <= 20);
+  }
+
+  @Test
+  public void testOldGenerationEvictedFirst()
+  {
+    TinyLFURoutesCache cache = new TinyLFURoutesCache(4, false);
+    for (int i = 0; i < 4; i++)
+    {
+      RoutesCacheKey key = key("/users/" + i, 1);
+      for (int j = 0; j < 20; j++)
+      {
+        cache.get(key);
+      }
+      cache.put("old" + i, key);
+    }
+    assertEquals(4, cache.size());
+
+    for (int i = 0; i < 4; i++)
+    {
+      RoutesCacheKey key = key("/users/" + i, 2);
+      for (int attempt = 0; (attempt < 10) && (cache.get(key) == null); attempt++)
+      {
+        cache.put("new" + i, key);
+      }
+      assertEquals("new" + i, cache.get(key));
+    }
+  }
+
+  @Test
+  public void testHalvingSpreadOverIncrements()
+  {
+    TinyLFURoutesCache.FrequencySketch sketch = new TinyLFURoutesCache.FrequencySketch(16);
+    int hash = "/hot".hashCode();
+    for (int i = 0; i < 20; i++)
+    {
+      sketch.increment(hash);
+    }
+    assertEquals(15, sketch.frequency(hash));
+
+    for (int i = 0; (i < 1000) && (sketch.halveIndex.get() != 0); i++)
+    {
+      sketch.countAddition();
+    }
+    assertEquals(0, sketch.halveIndex.get());
+    assertEquals(15, sketch.frequency(hash));
+
+    sketch.increment("/cold".hashCode());
+    assertTrue(sketch.halveIndex.get() >= sketch.table.length());
+    assertEquals(7, sketch.frequency(hash));
+  }
+
+  RoutesCacheKey key(String path, long generation)
+  {
+    return new RoutesCacheKey(HttpMethod.GET, mediaType, new RequestPath(path), parameters, null, generation);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import jakarta.servlet.ServletException;
+
+import org.baswell.routes.testroutes.VirtualThreadRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestHttpServletResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadRoutesTest
+{
+  List<Runnable> tasks;
+
+  RoutingTable routingTable;
+
+  RoutesEngine routesEngine;
+
+  @Before
+  public void setupRoutesEngine()
+  {
+    tasks = new ArrayList<Runnable>();
+    RoutesConfiguration routesConfiguration = new RoutesConfiguration();
+    routesConfiguration.virtualThreadExecutor = new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        tasks.add(command);
+      }
+    };
+
+    routingTable = new RoutingTable(routesConfiguration);
+    routingTable.add(VirtualThreadRoutes.class);
+    routingTable.build();
+    routesEngine = new RoutesEngine(routingTable);
+  }
+
+  @Test
+  public void testDispatchedToExecutor() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = request("/vt/blocking", true);
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    assertTrue(routesEngine.process(request, response));
+
+    assertEquals(1, tasks.size());
+    assertTrue(request.isAsyncStarted());
+    RouteMetrics metrics = routingTable.getRouteMetrics().get(0);
+    assertEquals(1, metrics.getInFlight());
+    assertEquals(0, metrics.getExecutions());
+
+    Thread thread = new Thread(tasks.get(0), "virtual");
+    thread.start();
+    join(thread);
+
+    response.writer.flush();
+    assertEquals("ran on virtual", response.getContentAsString());
+    assertTrue(request.asyncContext.completed);
+    assertEquals(0, metrics.getInFlight());
+    assertEquals(1, metrics.getExecutions());
+    assertTrue(metrics.getTotalQueueNanos() > 0);
+    assertTrue(metrics.getMaxRunNanos() > 0);
+  }
+
+  @Test
+  public void testTimesOutBeforeRun() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = request("/vt/blocking", true);
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    assertTrue(routesEngine.process(request, response));
+    assertEquals(1, request.asyncContext.listeners.size());
+
+    request.asyncContext.timeout();
+    assertEquals(503, response.getStatus());
+    assertTrue(request.asyncContext.completed);
+
+    tasks.get(0).run();
+    response.writer.flush();
+    assertEquals("", response.getContentAsString());
+    assertEquals(503, response.getStatus());
+    assertEquals(0, routingTable.getRouteMetrics().get(0).getInFlight());
+  }
+
+  @Test
+  public void testExecutorShutdown() throws IOException, ServletException
+  {
+    routingTable.virtualThreadExecutor = null;
+    TestHttpServletRequest request = request("/vt/blocking", true);
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    assertTrue(routesEngine.process(request, response));
+
+    response.writer.flush();
+    assertEquals("ran on " + Thread.currentThread().getName(), response.getContentAsString());
+    assertTrue(tasks.isEmpty());
+    assertTrue(request.asyncContext.completed);
+  }
+
+  @Test
+  public void testRouteOverride() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = request("/vt/inline", true);
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    assertTrue(routesEngine.process(request, response));
+
+    response.writer.flush();
+    assertEquals("ran on " + Thread.currentThread().getName(), response.getContentAsString());
+    assertTrue(tasks.isEmpty());
+    assertNull(request.asyncContext);
+  }
+
+  @Test
+  public void testAsyncNotSupported() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = request("/vt/blocking", false);
+    TestHttpServletResponse response = new TestHttpServletResponse();
+    assertTrue(routesEngine.process(request, response));
+
+    response.writer.flush();
+    assertEquals("ran on " + Thread.currentThread().getName(), response.getContentAsString());
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void testRouteMetrics()
+  {
+    List<RouteMetrics> routeMetrics = routingTable.getRouteMetrics();
+    assertEquals(1, routeMetrics.size());
+    assertEquals("/vt/blocking", routeMetrics.get(0).route);
+    assertEquals("getBlocking", routeMetrics.get(0).method.getName());
+  }
+
+  @Test
+  public void testDefaultExecutor()
+  {
+    RoutingTable routingTable = new RoutingTable(new RoutesConfiguration());
+    routingTable.add(VirtualThreadRoutes.class);
+
+    if (Runtime.version().feature() >= 21)
+    {
+      routingTable.build();
+      assertNotNull(routingTable.virtualThreadExecutor);
+      routingTable.shutdown();
+    }
+    else
+    {
+      try
+      {
+        routingTable.build();
+        fail("Virtual threads not available.");
+      }
+      catch (RoutesException e)
+      {}
+    }
+  }
+
+  static TestHttpServletRequest request(String uri, boolean asyncSupported)
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("GET", "/", uri);
+    request.asyncSupported = asyncSupported;
+    return request;
+  }
+
+  static void join(Thread thread)
+  {
+    try
+    {
+      thread.join();
+    }
+    catch (InterruptedException e)
+    {
+      throw new RuntimeException(e);
+    }
+  }
+}
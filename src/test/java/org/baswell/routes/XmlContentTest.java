@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes;
+
+import org.baswell.routes.testroutes.XmlRoutes;
+import org.baswell.routes.utils.http.TestHttpServletRequest;
+import org.baswell.routes.utils.http.TestServletInputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import jakarta.servlet.ServletException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class XmlContentTest extends EndToEndTest
+{
+  @Before
+  public void setupRoutingTable()
+  {
+    routesConfiguration = new RoutesConfiguration();
+    buildRoutingTable(XmlRoutes.class);
+  }
+
+  @Test
+  public void testW3cDocument() throws IOException, ServletException
+  {
+    String response = post("POST", "/xml/w3c", "<order id=\"1\"><item>one</item></order>", "postW3c");
+    assertTrue(response, response.endsWith("<order echo=\"w3c\" id=\"1\"><item>one</item></order>"));
+  }
+
+  @Test
+  public void testW3cElement() throws IOException, ServletException
+  {
+    String response = post("PUT", "/xml/w3c", "<order id=\"2\"/>", "putW3c");
+    assertTrue(response, response.endsWith("<order id=\"2\"/>"));
+  }
+
+  @Test
+  public void testJdomElement() throws IOException, ServletException
+  {
+    String response = post("POST", "/xml/jdom", "<order id=\"3\"><item>three</item></order>", "postJdom");
+    assertTrue(response, response.contains("<order id=\"3\" echo=\"jdom\"><item>three</item></order>"));
+  }
+
+  @Test
+  public void testJdomDocument() throws IOException, ServletException
+  {
+    String response = post("PUT", "/xml/jdom", "<order id=\"4\"/>", "putJdom");
+    assertEquals("<order id=\"4\" />", response);
+  }
+
+  @Test
+  public void testEmptyContent() throws IOException, ServletException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest("POST", "/", "/xml/w3c");
+    request.contentType = "text/xml";
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream(new byte[0]));
+    requestContent(request);
+    assertNull(requestContent.get());
+  }
+
+  @Test
+  public void testConvertersReleasedOnMalformedContent() throws IOException
+  {
+    W3CBridge w3cBridge = new W3CBridge(1);
+    JDOMBridge jdomBridge = new JDOMBridge(1);
+    for (int i = 0; i < 2; i++)
+    {
+      try
+      {
+        w3cBridge.read(new ByteArrayInputStream("<order>".getBytes("UTF-8")), org.w3c.dom.Document.class);
+        fail();
+      }
+      catch (RoutesException e)
+      {}
+      assertEquals(1, w3cBridge.documentBuilders.size());
+
+      try
+      {
+        jdomBridge.read(new ByteArrayInputStream("<order>".getBytes("UTF-8")), org.jdom2.Document.class);
+        fail();
+      }
+      catch (RoutesException e)
+      {}
+      assertEquals(1, jdomBridge.saxBuilders.size());
+    }
+
+    org.w3c.dom.Document document = (org.w3c.dom.Document) w3cBridge.read(new ByteArrayInputStream("<order id=\"5\"/>".getBytes("UTF-8")), org.w3c.dom.Document.class);
+    assertEquals("5", document.getDocumentElement().getAttribute("id"));
+    org.jdom2.Document jdomDocument = (org.jdom2.Document) jdomBridge.read(new ByteArrayInputStream("<order id=\"6\"/>".getBytes("UTF-8")), org.jdom2.Document.class);
+    assertEquals("6", jdomDocument.getRootElement().getAttributeValue("id"));
+  }
+
+  @Test
+  public void testReadersShared()
+  {
+    Object w3cReader = null;
+    Object jdomReader = null;
+    for (RouteNode routeNode : routingTable.getSnapshot().routeNodes)
+    {
+      assertTrue(routeNode.requestContentReader instanceof ContentReader);
+      if (routeNode.method.getName().endsWith("W3c"))
+      {
+        assertTrue(routeNode.requestContentReader instanceof W3CBridge);
+        assertTrue((w3cReader == null) || (w3cReader == routeNode.requestContentReader));
+        w3cReader = routeNode.requestContentReader;
+      }
+      else
+      {
+        assertTrue(routeNode.requestContentReader instanceof JDOMBridge);
+        assertTrue((jdomReader == null) || (jdomReader == routeNode.requestContentReader));
+        jdomReader = routeNode.requestContentReader;
+      }
+    }
+  }
+
+  String post(String method, String uri, String content, String expectedMethodCalled) throws IOException, ServletException
+  {
+    TestHttpServletRequest request = new TestHttpServletRequest(method, "/", uri);
+    request.contentType = "text/xml";
+    request.servletInputStream = new TestServletInputStream(new ByteArrayInputStream(content.getBytes("UTF-8")));
+    requestContent(request);
+    invoke();
+    assertMethodsCalled(expectedMethodCalled);
+    return new String(servletResponse.outputStream.toByteArray(), "UTF-8");
+  }
+
+  void requestContent(TestHttpServletRequest request)
+  {
+    initializeRequest(request);
+    MatchedRoute matchedRoute = find();
+    requestContent = new RequestContent(routesConfiguration, request, matchedRoute.routeNode.getRequestContentType(), null, request.contentType, new AvailableLibraries(routesConfiguration), routingTable.contentBridges, matchedRoute.routeNode.requestContentReader);
+  }
+}
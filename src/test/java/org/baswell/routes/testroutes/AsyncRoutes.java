@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.baswell.routes.AfterRoute;
+import org.baswell.routes.MediaType;
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+@Routes(defaultReturnedStringIsContent = true)
+public class AsyncRoutes extends BaseRoutes
+{
+  public static CompletableFuture<String> pendingString;
+
+  public static CompletableFuture<ReturnTypes.GsonResponse> pendingGson;
+
+  @Route("/async/hello")
+  public CompletableFuture<String> getHello()
+  {
+    methodsCalled.add("getHello");
+    return pendingString;
+  }
+
+  @Route(value = "/async/gson", respondsToMediaRequests = MediaType.JSON)
+  public CompletionStage<ReturnTypes.GsonResponse> getGson()
+  {
+    methodsCalled.add("getGson");
+    return pendingGson;
+  }
+
+  @Route("/async/error")
+  public CompletableFuture<String> getError()
+  {
+    methodsCalled.add("getError");
+    throw new InternalError("getError");
+  }
+
+  @AfterRoute
+  public void afterRoute()
+  {
+    methodsCalled.add("afterRoute");
+  }
+}
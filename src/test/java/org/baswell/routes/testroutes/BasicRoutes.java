@@ -63,6 +63,14 @@ public class BasicRoutes extends BaseRoutes
     assertEquals(number, path.getInteger(0));
   }
   
+  @Route(value="/grade/{}?weight={}", tags="not_authenticated")
+  public void getCharacterTest(char grade, double weight, RequestPath path)
+  {
+    methodsCalled.add("getCharacterTest");
+    assertEquals(grade, path.getCharacter(1));
+    assertEquals(0.5, weight, 0);
+  }
+
   @Route("/redirect")
   public void redirectTest()
   {
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import org.baswell.routes.HttpMethod;
+import org.baswell.routes.MediaType;
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+@Routes("/")
+public class PrecedenceRoutes
+{
+  @Route("/users/new")
+  public void getNewUser()
+  {}
+
+  @Route("/users/{}")
+  public void getUser(int id)
+  {}
+
+  @Route(value = "/users/{}", respondsToMediaRequests = MediaType.JSON)
+  public void getUserJson(int id)
+  {}
+
+  @Route("/users/{}")
+  public void putUser(int id)
+  {}
+
+  @Route(value = "/users/new", respondsToMethods = {HttpMethod.POST, HttpMethod.PUT})
+  public void saveNewUser()
+  {}
+
+  @Route("/users/{}/posts/*")
+  public void getUserPost(int id)
+  {}
+
+  @Route("/files/**")
+  public void getFile()
+  {}
+
+  @Route("/docs/**/edit")
+  public void editDoc()
+  {}
+
+  @Route("/search?q={}")
+  public void search(String query)
+  {}
+
+  @Route("/search")
+  public void searchForm()
+  {}
+}
@@ -15,10 +15,16 @@
  */
 package org.baswell.routes.testroutes;
 
+import org.baswell.routes.HttpMethod;
 import org.baswell.routes.MediaType;
+import org.baswell.routes.RequestContent;
 import org.baswell.routes.Route;
 import org.baswell.routes.Routes;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 @Routes(defaultReturnedStringIsContent = true)
 public class ReturnTypes extends BaseRoutes
 {
@@ -40,6 +46,35 @@ public class ReturnTypes extends BaseRoutes
     return gsonResponse;
   }
 
+  @Route(value = "/jackson/list", respondsToMediaRequests = MediaType.JSON)
+  public List<GsonResponse> jacksonList()
+  {
+    methodsCalled.add("jacksonList");
+    List<GsonResponse> responses = new ArrayList<GsonResponse>();
+    for (int i = 0; i < 2; i++)
+    {
+      GsonResponse gsonResponse = new GsonResponse();
+      gsonResponse.one = "one";
+      gsonResponse.two = i;
+      responses.add(gsonResponse);
+    }
+    return responses;
+  }
+
+  @Route(value = "/jackson/echo", respondsToMethods = HttpMethod.POST, respondsToMediaRequests = MediaType.JSON)
+  public GsonResponse jacksonEcho(RequestContent<GsonResponse> content) throws IOException
+  {
+    methodsCalled.add("jacksonEcho");
+    return content.get();
+  }
+
+  @Route(value = "/jackson/echo", respondsToMethods = HttpMethod.PUT, respondsToMediaRequests = MediaType.JSON)
+  public GsonResponse jacksonPutEcho(RequestContent<GsonResponse> content) throws IOException
+  {
+    methodsCalled.add("jacksonPutEcho");
+    return content.get();
+  }
+
   static public class GsonResponse
   {
     public String one;
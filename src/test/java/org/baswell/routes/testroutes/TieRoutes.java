@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+/*
+ * Two routes whose criteria compare equal that both match /users/x. The one ahead of the other in the routing table wins.
+ */
+@Routes("/")
+public class TieRoutes
+{
+  @Route("/{}/x")
+  public void getAnyX(String name)
+  {}
+
+  @Route("/users/{}")
+  public void getUser(String id)
+  {}
+
+  /*
+   * The same two routes in separate classes. The routes of the class added first win.
+   */
+  @Routes("/")
+  public static class AnyXRoutes
+  {
+    @Route("/{}/x")
+    public void getAnyX(String name)
+    {}
+  }
+
+  @Routes("/")
+  public static class UserRoutes
+  {
+    @Route("/users/{}")
+    public void getUser(String id)
+    {}
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+@Routes(value = "/vt", defaultReturnedStringIsContent = true, defaultRunOnVirtualThread = true)
+public class VirtualThreadRoutes
+{
+  @Route("/blocking")
+  public String getBlocking()
+  {
+    return "ran on " + Thread.currentThread().getName();
+  }
+
+  @Route(value = "/inline", runOnVirtualThread = false)
+  public String getInline()
+  {
+    return "ran on " + Thread.currentThread().getName();
+  }
+}
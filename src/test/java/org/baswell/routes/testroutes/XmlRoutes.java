@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.testroutes;
+
+import org.baswell.routes.HttpMethod;
+import org.baswell.routes.MediaType;
+import org.baswell.routes.RequestContent;
+import org.baswell.routes.Route;
+import org.baswell.routes.Routes;
+
+import java.io.IOException;
+
+@Routes("/xml")
+public class XmlRoutes extends BaseRoutes
+{
+  @Route(value = "/w3c", respondsToMethods = HttpMethod.POST, respondsToMediaRequests = MediaType.XML)
+  public org.w3c.dom.Document postW3c(RequestContent<org.w3c.dom.Document> content) throws IOException
+  {
+    methodsCalled.add("postW3c");
+    org.w3c.dom.Document document = content.get();
+    document.getDocumentElement().setAttribute("echo", "w3c");
+    return document;
+  }
+
+  @Route(value = "/w3c", respondsToMethods = HttpMethod.PUT, respondsToMediaRequests = MediaType.XML)
+  public org.w3c.dom.Element putW3c(RequestContent<org.w3c.dom.Element> content) throws IOException
+  {
+    methodsCalled.add("putW3c");
+    return content.get();
+  }
+
+  @Route(value = "/jdom", respondsToMethods = HttpMethod.POST, respondsToMediaRequests = MediaType.XML)
+  public org.jdom2.Document postJdom(RequestContent<org.jdom2.Element> content) throws IOException
+  {
+    methodsCalled.add("postJdom");
+    org.jdom2.Element element = content.get();
+    element.setAttribute("echo", "jdom");
+    return element.getDocument();
+  }
+
+  @Route(value = "/jdom", respondsToMethods = HttpMethod.PUT, respondsToMediaRequests = MediaType.XML)
+  public org.jdom2.Element putJdom(RequestContent<org.jdom2.Document> content) throws IOException
+  {
+    methodsCalled.add("putJdom");
+    return content.get().getRootElement().detach();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Corey Baswell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.baswell.routes.utils.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+public class TestAsyncContext implements AsyncContext
+{
+  public final ServletRequest request;
+
+  public final ServletResponse response;
+
+  public boolean completed;
+
+  public String dispatchedPath;
+
+  public long timeout = 30000;
+
+  public List<AsyncListener> listeners = new ArrayList<AsyncListener>();
+
+  public TestAsyncContext(ServletRequest request, ServletResponse response)
+  {
+    this.request = request;
+    this.response = response;
+  }
+
+  public boolean isStarted()
+  {
+    return !completed && (dispatchedPath == null);
+  }
+
+  /*
+   * Fires the timeout like the container would. If no listener completes the request the container completes it.
+   */
+  public void timeout() throws IOException
+  {
+    for (AsyncListener listener : new ArrayList<AsyncListener>(listeners))
+    {
+      listener.onTimeout(new AsyncEvent(this, request, response));
+    }
+
+    if (isStarted())
+    {
+      completed = true;
+    }
+  }
+
+  @Override
+  public ServletRequest getRequest()
+  {
+    return request;
+  }
+
+  @Override
+  public ServletResponse getResponse()
+  {
+    return response;
+  }
+
+  @Override
+  public boolean hasOriginalRequestAndResponse()
+  {
+    return true;
+  }
+
+  @Override
+  public void dispatch()
+  {
+    throw new RuntimeException("Not implemented.");
+  }
+
+  @Override
+  public void dispatch(String path)
+  {
+    if (!isStarted())
+    {
+      throw new IllegalStateException("Async context already completed or dispatched.");
+    }
+    dispatchedPath = path;
+  }
+
+  @Override
+  public void dispatch(ServletContext context, String path)
+  {
+    dispatch(path);
+  }
+
+  @Override
+  public void complete()
+  {
+    if (!isStarted())
+    {
+      throw new IllegalStateException("Async context already completed or dispatched.");
+    }
+    completed = true;
+  }
+
+  @Override
+  public void start(Runnable run)
+  {
+    run.run();
+  }
+
+  @Override
+  public void addListener(AsyncListener listener)
+  {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse)
+  {
+    listeners.add(listener);
+  }
+
+  @Override
+  public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException
+  {
+    throw new RuntimeException("Not implemented.");
+  }
+
+  @Override
+  public void setTimeout(long timeout)
+  {
+    this.timeout = timeout;
+  }
+
+  @Override
+  public long getTimeout()
+  {
+    return timeout;
+  }
+}
@@ -30,6 +30,8 @@ public class TestHttpServletRequest implements HttpServletRequest
   public Map<String, Object> attributes = new HashMap<String, Object>();
   
   public Map<String, String[]> parameters = new HashMap<String, String[]>();
+
+  public Map<String, String> headers = new HashMap<String, String>();
   
   public String method = "GET";
   
@@ -40,6 +42,8 @@ public class TestHttpServletRequest implements HttpServletRequest
   public String requestUri;
   
   public String contentType = "text/html";
+
+  public String characterEncoding;
   
   public int contentLength;
   
@@ -57,6 +61,10 @@ public class TestHttpServletRequest implements HttpServletRequest
 
   public TestHttpSession session = new TestHttpSession();
 
+  public boolean asyncSupported;
+
+  public TestAsyncContext asyncContext;
+
   public String requestUrl;
 
   private String pathInfo;
@@ -97,12 +105,14 @@ public class TestHttpServletRequest implements HttpServletRequest
   @Override
   public String getCharacterEncoding()
   {
-    return null;
+    return characterEncoding;
   }
 
   @Override
   public void setCharacterEncoding(String env) throws UnsupportedEncodingException
-  {}
+  {
+    characterEncoding = env;
+  }
 
   @Override
   public int getContentLength()
@@ -261,27 +271,36 @@ public class TestHttpServletRequest implements HttpServletRequest
 
   @Override
   public AsyncContext startAsync() throws IllegalStateException {
-    return null;
+    return startAsync(this, null);
   }
 
   @Override
   public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) throws IllegalStateException {
-    return null;
+    if (!asyncSupported)
+    {
+      throw new IllegalStateException("Async not supported.");
+    }
+    asyncContext = new TestAsyncContext(servletRequest, servletResponse);
+    return asyncContext;
   }
 
   @Override
   public boolean isAsyncStarted() {
-    return false;
+    return (asyncContext != null) && asyncContext.isStarted();
   }
 
   @Override
   public boolean isAsyncSupported() {
-    return false;
+    return asyncSupported;
   }
 
   @Override
   public AsyncContext getAsyncContext() {
-    return null;
+    if (!isAsyncStarted())
+    {
+      throw new IllegalStateException("Async not started.");
+    }
+    return asyncContext;
   }
 
   @Override
@@ -325,7 +344,7 @@ public class TestHttpServletRequest implements HttpServletRequest
   @Override
   public String getHeader(String name)
   {
-    throw new RuntimeException("Not implemented.");
+    return headers.get(name);
   }
 
   @Override